@@ -0,0 +1,76 @@
+package com.studyblog.lab.cache.benchmark;
+
+import com.studyblog.lab.cache.CacheLabService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheLabService.cacheAside 전체 경로 (통계 기록 + 응답 레코드 생성 포함)
+ * DB 지연은 0ms로 두어 캐시 계층 비용만 측정한다. Redis 없이 로컬 L2 대체 구현을 사용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheAsideBenchmark {
+
+    @Param({"unbounded", "lru", "w-tinylfu"})
+    public String policy;
+
+    @Param({KeyDistribution.ZIPFIAN, KeyDistribution.UNIFORM})
+    public String distribution;
+
+    @Param({"heap", "offheap"})
+    public String storage;
+
+    private CacheLabService service;
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        String[] sequence;
+        int index;
+
+        @Setup
+        public void setUp(CacheAsideBenchmark benchmark, ThreadParams thread) {
+            sequence = KeyDistribution.sequence(benchmark.distribution, KeyDistribution.threadSeed(thread.getThreadIndex()));
+        }
+
+        String next() {
+            return sequence[index++ & KeyDistribution.SEQUENCE_MASK];
+        }
+    }
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        service = new CacheLabService();
+        // 스프링 없이 @Value 필드만 채운다 (키 + 값 문자 수 기준으로 키 공간의 약 1/4)
+        inject("defaultPolicy", policy);
+        inject("defaultMaxWeight", KeyDistribution.KEY_SPACE / 4 * 60L);
+        inject("simulatedRttMs", 0);
+        inject("defaultStorage", storage);
+        inject("offHeapCapacityMb", 64L);
+        inject("slabSizeKb", 1024);
+        service.init();
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public CacheLabService.AsideResult cacheAside(ThreadKeys keys) {
+        return service.cacheAside(keys.next(), 0, 60);
+    }
+
+    private void inject(String name, Object value) throws ReflectiveOperationException {
+        Field field = CacheLabService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
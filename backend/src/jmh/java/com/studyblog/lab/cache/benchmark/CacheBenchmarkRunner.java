@@ -0,0 +1,40 @@
+package com.studyblog.lab.cache.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * 스레드 수 스윕 실행기 - 1, 2, 4 ... 64 스레드로 같은 벤치마크를 돌리고
+ * 스레드 수마다 JSON 결과 파일(cache-threads-N.json)을 남긴다.
+ * 실행: ./gradlew jmhThreadSweep
+ *
+ * args[0]: 결과 디렉터리 (기본 build/reports/jmh)
+ * args[1]: 포함할 벤치마크 정규식 (기본 캐시 벤치마크 전체)
+ */
+public class CacheBenchmarkRunner {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+
+    public static void main(String[] args) throws RunnerException {
+        File outputDir = new File(args.length > 0 ? args[0] : "build/reports/jmh");
+        String include = args.length > 1 ? args[1] : CacheBenchmarkRunner.class.getPackageName() + "\\..*Benchmark";
+        if (!outputDir.exists() && !outputDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + outputDir);
+        }
+
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(outputDir, "cache-threads-" + threads + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.studyblog.lab.cache.benchmark;
+
+import com.studyblog.lab.cache.engine.CacheEngine;
+import com.studyblog.lab.cache.engine.CachePolicy;
+import com.studyblog.lab.cache.engine.RemovalListener;
+import com.studyblog.lab.cache.engine.Weigher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 축출 정책별 get / put 처리량
+ * - unbounded: 기존 ConcurrentHashMap 동작
+ * - lru / w-tinylfu: 키 공간의 1/4만 담는 bounded 캐시 (축출 비용 포함)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheEngineBenchmark {
+
+    @Param({"unbounded", "lru", "w-tinylfu"})
+    public String policy;
+
+    @Param({KeyDistribution.ZIPFIAN, KeyDistribution.UNIFORM})
+    public String distribution;
+
+    private CacheEngine<String, String> cache;
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        String[] sequence;
+        int index;
+
+        @Setup
+        public void setUp(CacheEngineBenchmark benchmark, ThreadParams thread) {
+            sequence = KeyDistribution.sequence(benchmark.distribution, KeyDistribution.threadSeed(thread.getThreadIndex()));
+        }
+
+        String next() {
+            return sequence[index++ & KeyDistribution.SEQUENCE_MASK];
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        int capacity = KeyDistribution.KEY_SPACE / 4;
+        cache = CachePolicy.from(policy).create(capacity, Weigher.singleton(), RemovalListener.noop());
+        // 측정 전에 캐시를 가득 채워 축출이 일어나는 정상 상태에서 시작
+        String[] warm = KeyDistribution.sequence(distribution, KeyDistribution.WARM_UP_SEED);
+        for (int i = 0; i < KeyDistribution.SEQUENCE_SIZE; i++) {
+            if (cache.get(warm[i]) == null) {
+                cache.put(warm[i], warm[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public String read(ThreadKeys keys) {
+        return cache.get(keys.next());
+    }
+
+    /**
+     * Cache-Aside: 조회 후 miss면 적재 (DB 지연 없이 캐시 경로만)
+     */
+    @Benchmark
+    public String readThrough(ThreadKeys keys) {
+        String key = keys.next();
+        String value = cache.get(key);
+        if (value == null) {
+            cache.put(key, key);
+            value = key;
+        }
+        return value;
+    }
+
+    @Benchmark
+    public String write(ThreadKeys keys) {
+        String key = keys.next();
+        return cache.put(key, key);
+    }
+}
@@ -0,0 +1,62 @@
+package com.studyblog.lab.cache.benchmark;
+
+import com.studyblog.lab.cache.ZipfGenerator;
+
+import java.util.Random;
+
+/**
+ * 벤치마크용 키 순서 - 측정 중에 난수를 뽑지 않도록 미리 만들어 둔다
+ */
+final class KeyDistribution {
+
+    static final String ZIPFIAN = "zipfian";
+    static final String UNIFORM = "uniform";
+
+    static final int KEY_SPACE = 1 << 16;
+    static final int SEQUENCE_SIZE = 1 << 20;
+    static final int SEQUENCE_MASK = SEQUENCE_SIZE - 1;
+
+    // 빌드끼리 같은 키 순서로 비교하도록 seed를 고정 (측정 스레드는 WARM_UP_SEED 다음부터 스레드 번호 순)
+    static final long WARM_UP_SEED = 42;
+
+    private static final String[] KEYS = new String[KEY_SPACE];
+
+    static {
+        for (int i = 0; i < KEY_SPACE; i++) {
+            KEYS[i] = "product_" + i;
+        }
+    }
+
+    private KeyDistribution() {
+    }
+
+    /**
+     * seed로 SEQUENCE_SIZE개의 키를 뽑는다 (같은 seed면 같은 순서)
+     */
+    static String[] sequence(String distribution, long seed) {
+        Random random = new Random(seed);
+        String[] sequence = new String[SEQUENCE_SIZE];
+        switch (distribution) {
+            case ZIPFIAN -> {
+                ZipfGenerator zipf = new ZipfGenerator(KEY_SPACE, 0.99);
+                for (int i = 0; i < SEQUENCE_SIZE; i++) {
+                    sequence[i] = KEYS[zipf.next(random)];
+                }
+            }
+            case UNIFORM -> {
+                for (int i = 0; i < SEQUENCE_SIZE; i++) {
+                    sequence[i] = KEYS[random.nextInt(KEY_SPACE)];
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+        }
+        return sequence;
+    }
+
+    /**
+     * 측정 스레드의 seed - 실행마다 같고 스레드끼리, 워밍업과는 다르다
+     */
+    static long threadSeed(int threadIndex) {
+        return WARM_UP_SEED + 1 + threadIndex;
+    }
+}
@@ -0,0 +1,57 @@
+package com.studyblog.lab.cache.benchmark;
+
+import com.studyblog.lab.cache.loader.SingleFlightLoader;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thundering Herd 방지 경로 (Single-Flight 로더) 오버헤드
+ * - hotKey: 모든 스레드가 같은 키를 적재 (병합이 가장 많이 일어나는 경우)
+ * - keyed: 분포에 따라 키를 바꿔 가며 적재
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleFlightBenchmark {
+
+    @Param({KeyDistribution.ZIPFIAN, KeyDistribution.UNIFORM})
+    public String distribution;
+
+    private SingleFlightLoader<String, String> loader;
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        String[] sequence;
+        int index;
+
+        @Setup
+        public void setUp(SingleFlightBenchmark benchmark, ThreadParams thread) {
+            sequence = KeyDistribution.sequence(benchmark.distribution, KeyDistribution.threadSeed(thread.getThreadIndex()));
+        }
+
+        String next() {
+            return sequence[index++ & KeyDistribution.SEQUENCE_MASK];
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        loader = new SingleFlightLoader<>();
+    }
+
+    @Benchmark
+    public SingleFlightLoader.Result<String> hotKey() {
+        return loader.load("product_0", () -> "Product_0_Data");
+    }
+
+    @Benchmark
+    public SingleFlightLoader.Result<String> keyed(ThreadKeys keys) {
+        String key = keys.next();
+        return loader.load(key, () -> key);
+    }
+}
@@ -1,5 +1,6 @@
 package com.studyblog.lab.cache;
 
+import com.studyblog.lab.cache.metrics.CacheStatsSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +18,7 @@ public class CacheLabController {
      * 캐시 통계 조회
      */
     @GetMapping("/stats")
-    public ResponseEntity<Map<String, Object>> getStats() {
+    public ResponseEntity<CacheStatsSnapshot> getStats() {
         return ResponseEntity.ok(cacheLabService.getStats());
     }
 
@@ -25,20 +26,46 @@ public class CacheLabController {
      * 캐시 통계 초기화
      */
     @PostMapping("/reset")
-    public ResponseEntity<Map<String, Object>> resetStats() {
+    public ResponseEntity<CacheStatsSnapshot> resetStats() {
         return ResponseEntity.ok(cacheLabService.resetStats());
     }
 
     /**
-     * Cache-Aside 패턴 테스트
+     * Cache-Aside 패턴 테스트 (캐시 통계는 /stats)
      */
     @PostMapping("/aside")
-    public ResponseEntity<Map<String, Object>> cacheAside(
+    public ResponseEntity<CacheLabService.AsideResult> cacheAside(
             @RequestParam(defaultValue = "product_1") String key,
             @RequestParam(defaultValue = "100") int dbLatencyMs,
-            @RequestParam(defaultValue = "60") int ttlSeconds
+            @RequestParam(defaultValue = "60") int ttlSeconds,
+            @RequestParam(defaultValue = "plain") String mode,
+            @RequestParam(defaultValue = "1.0") double beta
     ) {
-        return ResponseEntity.ok(cacheLabService.cacheAside(key, dbLatencyMs, ttlSeconds));
+        return ResponseEntity.ok(cacheLabService.cacheAside(key, dbLatencyMs, ttlSeconds, mode, beta));
+    }
+
+    /**
+     * 조기 갱신(XFetch) 통계 - 모드별 지연 시간
+     */
+    @GetMapping("/aside/refresh-ahead")
+    public ResponseEntity<Map<String, Object>> getRefreshAheadStats() {
+        return ResponseEntity.ok(cacheLabService.getRefreshAheadStats());
+    }
+
+    /**
+     * plain vs xfetch 지연 시간 비교
+     */
+    @PostMapping("/aside/refresh-ahead/compare")
+    public ResponseEntity<Map<String, Object>> compareRefreshModes(
+            @RequestParam(defaultValue = "10") int durationSeconds,
+            @RequestParam(defaultValue = "10") int uniqueKeyCount,
+            @RequestParam(defaultValue = "100") int dbLatencyMs,
+            @RequestParam(defaultValue = "2") int ttlSeconds,
+            @RequestParam(defaultValue = "1.0") double beta,
+            @RequestParam(defaultValue = "5") int requestIntervalMs
+    ) {
+        return ResponseEntity.ok(cacheLabService.compareRefreshModes(
+                durationSeconds, uniqueKeyCount, dbLatencyMs, ttlSeconds, beta, requestIntervalMs));
     }
 
     /**
@@ -54,6 +81,19 @@ public class CacheLabController {
         return ResponseEntity.ok(cacheLabService.bulkQuery(queryCount, uniqueKeyCount, dbLatencyMs, ttlSeconds));
     }
 
+    /**
+     * 대량 조회 테스트 - 배치 (중복 제거 + MGET + DB 일괄 조회)
+     */
+    @PostMapping("/bulk/batch")
+    public ResponseEntity<Map<String, Object>> bulkQueryBatched(
+            @RequestParam(defaultValue = "100") int queryCount,
+            @RequestParam(defaultValue = "10") int uniqueKeyCount,
+            @RequestParam(defaultValue = "50") int dbLatencyMs,
+            @RequestParam(defaultValue = "60") int ttlSeconds
+    ) {
+        return ResponseEntity.ok(cacheLabService.bulkQueryBatched(queryCount, uniqueKeyCount, dbLatencyMs, ttlSeconds));
+    }
+
     /**
      * Thundering Herd - 안전하지 않은 버전
      */
@@ -66,7 +106,7 @@ public class CacheLabController {
     }
 
     /**
-     * Thundering Herd - 안전한 버전 (락 사용)
+     * Thundering Herd - 안전한 버전 (Single-Flight 요청 병합)
      */
     @PostMapping("/thundering-herd/safe")
     public ResponseEntity<Map<String, Object>> thunderingHerdSafe(
@@ -76,6 +116,14 @@ public class CacheLabController {
         return ResponseEntity.ok(cacheLabService.thunderingHerdSafe(concurrentRequests, dbLatencyMs));
     }
 
+    /**
+     * Single-Flight 요청 병합 통계
+     */
+    @GetMapping("/thundering-herd/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        return ResponseEntity.ok(cacheLabService.getCoalescingStats());
+    }
+
     /**
      * TTL 만료 테스트 - 저장
      */
@@ -87,6 +135,25 @@ public class CacheLabController {
         return ResponseEntity.ok(cacheLabService.testTtlExpiration(key, ttlSeconds));
     }
 
+    /**
+     * TTL 만료 테스트 - 짧은 TTL 키 대량 저장
+     */
+    @PostMapping("/ttl/flood")
+    public ResponseEntity<Map<String, Object>> ttlFlood(
+            @RequestParam(defaultValue = "100000") int keyCount,
+            @RequestParam(defaultValue = "3") int ttlSeconds
+    ) {
+        return ResponseEntity.ok(cacheLabService.ttlFlood(keyCount, ttlSeconds));
+    }
+
+    /**
+     * TTL 만료 - 타이밍 휠 통계
+     */
+    @GetMapping("/ttl/stats")
+    public ResponseEntity<Map<String, Object>> getExpiryStats() {
+        return ResponseEntity.ok(cacheLabService.getExpiryStats());
+    }
+
     /**
      * TTL 만료 테스트 - 조회
      */
@@ -96,4 +163,108 @@ public class CacheLabController {
     ) {
         return ResponseEntity.ok(cacheLabService.checkTtlKey(key));
     }
+
+    /**
+     * 축출 정책 변경 (unbounded / lru / w-tinylfu)
+     */
+    @PostMapping("/policy")
+    public ResponseEntity<CacheStatsSnapshot> changePolicy(
+            @RequestParam(defaultValue = "w-tinylfu") String policy,
+            @RequestParam(defaultValue = "1000000") long maxWeight
+    ) {
+        return ResponseEntity.ok(cacheLabService.changePolicy(policy, maxWeight));
+    }
+
+    /**
+     * 정책별 Hit Rate 비교 (Zipf 분포)
+     */
+    @PostMapping("/policy/compare")
+    public ResponseEntity<Map<String, Object>> comparePolicies(
+            @RequestParam(defaultValue = "1000") int capacity,
+            @RequestParam(defaultValue = "100000") int keySpace,
+            @RequestParam(defaultValue = "200000") int requestCount,
+            @RequestParam(defaultValue = "0.99") double skew
+    ) {
+        return ResponseEntity.ok(cacheLabService.comparePolicies(capacity, keySpace, requestCount, skew));
+    }
+
+    /**
+     * 인기 엔트리 스냅샷 즉시 기록
+     */
+    @PostMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> writeSnapshot() {
+        return ResponseEntity.ok(cacheLabService.writeSnapshot());
+    }
+
+    /**
+     * 웜 스타트 hit rate / 로드 시간 / 마지막 스냅샷
+     */
+    @GetMapping("/snapshot/stats")
+    public ResponseEntity<Map<String, Object>> getWarmStartStats() {
+        return ResponseEntity.ok(cacheLabService.getWarmStartStats());
+    }
+
+    /**
+     * 값 저장 위치 변경 (heap / offheap)
+     */
+    @PostMapping("/storage")
+    public ResponseEntity<CacheStatsSnapshot> changeStorage(
+            @RequestParam(defaultValue = "offheap") String mode
+    ) {
+        return ResponseEntity.ok(cacheLabService.changeStorage(mode));
+    }
+
+    /**
+     * off-heap 슬랩 사용량
+     */
+    @GetMapping("/storage/stats")
+    public ResponseEntity<Map<String, Object>> getOffHeapStats() {
+        return ResponseEntity.ok(cacheLabService.getOffHeapStats());
+    }
+
+    /**
+     * heap vs offheap GC / 힙 사용량 비교
+     */
+    @PostMapping("/storage/compare")
+    public ResponseEntity<Map<String, Object>> compareStorageModes(
+            @RequestParam(defaultValue = "50000") int entryCount,
+            @RequestParam(defaultValue = "4096") int valueBytes,
+            @RequestParam(defaultValue = "3") int readRounds
+    ) {
+        return ResponseEntity.ok(cacheLabService.compareStorageModes(entryCount, valueBytes, readRounds));
+    }
+
+    /**
+     * Near Cache 조회 (L1 → L2 → DB)
+     */
+    @PostMapping("/near")
+    public ResponseEntity<Map<String, Object>> nearCacheGet(
+            @RequestParam(defaultValue = "product_1") String key,
+            @RequestParam(defaultValue = "100") int dbLatencyMs,
+            @RequestParam(defaultValue = "10") int l1TtlSeconds,
+            @RequestParam(defaultValue = "300") int l2TtlSeconds
+    ) {
+        return ResponseEntity.ok(cacheLabService.nearCacheGet(key, dbLatencyMs, l1TtlSeconds, l2TtlSeconds));
+    }
+
+    /**
+     * Near Cache 갱신 + L1 무효화 전파
+     */
+    @PostMapping("/near/update")
+    public ResponseEntity<Map<String, Object>> nearCacheUpdate(
+            @RequestParam(defaultValue = "product_1") String key,
+            @RequestParam(defaultValue = "updated") String value,
+            @RequestParam(defaultValue = "300") int l2TtlSeconds,
+            @RequestParam(defaultValue = "false") boolean remote
+    ) {
+        return ResponseEntity.ok(cacheLabService.nearCacheUpdate(key, value, l2TtlSeconds, remote));
+    }
+
+    /**
+     * Near Cache 계층별 통계
+     */
+    @GetMapping("/near/stats")
+    public ResponseEntity<Map<String, Object>> getNearCacheStats() {
+        return ResponseEntity.ok(cacheLabService.getNearCacheStats());
+    }
 }
@@ -1,15 +1,40 @@
 package com.studyblog.lab.cache;
 
+import com.studyblog.lab.cache.engine.CacheEngine;
+import com.studyblog.lab.cache.engine.CachePolicy;
+import com.studyblog.lab.cache.engine.RemovalListener;
+import com.studyblog.lab.cache.engine.Weigher;
+import com.studyblog.lab.cache.engine.WTinyLfuCacheEngine;
+import com.studyblog.lab.cache.expiry.HierarchicalTimingWheel;
+import com.studyblog.lab.cache.loader.SingleFlightLoader;
+import com.studyblog.lab.cache.metrics.CacheMetrics;
+import com.studyblog.lab.cache.metrics.CacheStatsSnapshot;
+import com.studyblog.lab.cache.metrics.LatencyRecorder;
+import com.studyblog.lab.cache.metrics.MemoryFootprint;
+import com.studyblog.lab.cache.nearcache.L2Store;
+import com.studyblog.lab.cache.nearcache.LocalL2Store;
+import com.studyblog.lab.cache.nearcache.NearCacheStats;
+import com.studyblog.lab.cache.nearcache.RedisL2Store;
+import com.studyblog.lab.cache.offheap.OffHeapValueStore;
+import com.studyblog.lab.cache.snapshot.CacheSnapshotFile;
+import com.studyblog.lab.cache.snapshot.SnapshotEntry;
+import com.studyblog.lab.cache.snapshot.WarmStartStats;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
@@ -18,48 +43,334 @@ public class CacheLabService {
     @Autowired(required = false)
     private StringRedisTemplate redisTemplate;
 
+    // 기본 축출 정책 / 최대 가중치 (key + value 문자 수 합)
+    @Value("${lab.cache.policy:w-tinylfu}")
+    private String defaultPolicy;
+    @Value("${lab.cache.max-weight:1000000}")
+    private long defaultMaxWeight;
+
     // In-memory cache for simulation when Redis is not available
-    private final Map<String, CacheEntry> localCache = new ConcurrentHashMap<>();
-    private final AtomicInteger hitCount = new AtomicInteger(0);
-    private final AtomicInteger missCount = new AtomicInteger(0);
-    private final AtomicInteger dbQueryCount = new AtomicInteger(0);
+    private volatile CacheEngine<String, CacheEntry> localCache;
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    // TTL 만료 전담 타이밍 휠 (100ms 틱)
+    private final HierarchicalTimingWheel<CacheEntry> expiryWheel =
+            new HierarchicalTimingWheel<>(100, System.currentTimeMillis(), this::onExpired);
+    private final LongAdder reclaimedCount = new LongAdder();
+
+    // Thundering Herd 방지 - 같은 키의 동시 miss를 하나의 DB 조회로 병합
+    private final SingleFlightLoader<String, String> singleFlight = new SingleFlightLoader<>();
+
+    // Near Cache: L1(localCache) 앞단 + L2(Redis 또는 로컬 대체)
+    private static final String NEAR_PREFIX = "lab:cache:near:";
+    @Value("${lab.cache.near.simulated-rtt-ms:1}")
+    private int simulatedRttMs;
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+    private final NearCacheStats nearCacheStats = new NearCacheStats();
+    private L2Store l2Store;
+
+    // 확률적 조기 갱신 (XFetch) - 만료 전에 비동기로 다시 읽어 두고 그동안은 기존 값 제공
+    private static final String MODE_PLAIN = "plain";
+    private static final String MODE_XFETCH = "xfetch";
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(4, r -> {
+        Thread t = new Thread(r, "cache-refresh-ahead");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshAheadCount = new LongAdder();
+    private final Map<String, LatencyRecorder> modeLatencies = Map.of(
+            MODE_PLAIN, new LatencyRecorder(),
+            MODE_XFETCH, new LatencyRecorder()
+    );
+
+    // 값 저장 위치 - heap: String 그대로 / offheap: direct ByteBuffer 슬랩 (키 인덱스는 항상 힙)
+    private static final String STORAGE_HEAP = "heap";
+    private static final String STORAGE_OFFHEAP = "offheap";
+    private static final long MAX_COMPARE_BYTES = 512L * 1024 * 1024;
+    @Value("${lab.cache.storage:heap}")
+    private String defaultStorage;
+    @Value("${lab.cache.offheap.capacity-mb:256}")
+    private long offHeapCapacityMb;
+    @Value("${lab.cache.offheap.slab-size-kb:1024}")
+    private int slabSizeKb;
+    private OffHeapValueStore offHeapStore;
+    private volatile boolean offHeap;
+
+    // 스냅샷 / 웜 스타트 - 인기 엔트리를 주기적으로 파일에 남기고 부팅 시 다시 채운다
+    @Value("${lab.cache.snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+    @Value("${lab.cache.snapshot.path:${java.io.tmpdir}/study-blog/cache-snapshot.bin}")
+    private String snapshotPath;
+    @Value("${lab.cache.snapshot.top-n:10000}")
+    private int snapshotTopN;
+    private final WarmStartStats warmStartStats = new WarmStartStats(1000);
 
-    // Thundering Herd prevention lock
-    private final Map<String, ReentrantLock> keyLocks = new ConcurrentHashMap<>();
+    /**
+     * 단건 조회 결과 - 요청 경로에서는 맵 대신 이 레코드만 만든다
+     */
+    private record Lookup(String value, boolean hit, boolean coalesced, boolean refreshAhead, long elapsedNanos) {
+        String source() {
+            return hit ? "CACHE" : coalesced ? "DATABASE (coalesced)" : "DATABASE";
+        }
+    }
 
-    private static class CacheEntry {
-        String value;
-        long expireAt;
+    /**
+     * Cache-Aside 응답 - 요청마다 필드 몇 개짜리 레코드 하나만 만든다 (통계는 /stats에서 따로 조회)
+     */
+    public record AsideResult(String key, String value, boolean hit, String source, String mode,
+                              boolean refreshAhead, long durationMs) { }
 
-        CacheEntry(String value, long ttlMs) {
-            this.value = value;
+    /**
+     * 배치 조회 결과 (계층별 처리 건수 + 왕복 횟수)
+     */
+    private record BatchLookup(Map<String, String> values, Set<String> l1MissedKeys,
+                               int l1Hits, int l2Hits, int dbLoads, int l2RoundTrips, int dbRoundTrips) { }
+
+    private static class CacheEntry {
+        final String key;
+        private final String value;            // 힙 저장
+        private final OffHeapValueStore store; // off-heap 저장 (null이면 힙)
+        private final long handle;
+        final int weight;
+        final long expireAt;
+        final long deltaMs; // 값을 다시 읽는 데 걸린 시간 (XFetch 조기 갱신 기준)
+        HierarchicalTimingWheel.Timer<CacheEntry> timer;
+        boolean restored; // 부팅 시 스냅샷에서 복원
+
+        CacheEntry(String key, String value, OffHeapValueStore store, long ttlMs, long deltaMs) {
+            this.key = key;
+            long handle = store != null ? store.put(value) : OffHeapValueStore.NO_HANDLE;
+            // 슬랩에 자리가 없거나 값이 너무 크면 힙에 보관
+            this.store = handle != OffHeapValueStore.NO_HANDLE ? store : null;
+            this.handle = handle;
+            this.value = this.store == null ? value : null;
+            this.weight = key.length() + value.length();
             this.expireAt = System.currentTimeMillis() + ttlMs;
+            this.deltaMs = deltaMs;
+        }
+
+        /**
+         * off-heap 값이 동시에 축출되어 청크가 재사용됐다면 null
+         */
+        String value() {
+            return store != null ? store.get(handle) : value;
+        }
+
+        void release() {
+            if (store != null) {
+                store.free(handle);
+            }
+        }
+
+        /**
+         * now는 타이밍 휠의 coarse clock - 읽을 때마다 시스템 시계를 호출하지 않는다
+         */
+        boolean isExpired(long now) {
+            return now > expireAt;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        localCache = createEngine(CachePolicy.from(defaultPolicy), defaultMaxWeight);
+        offHeapStore = new OffHeapValueStore(slabSizeKb * 1024, offHeapCapacityMb * 1024 * 1024);
+        offHeap = STORAGE_OFFHEAP.equals(storageMode(defaultStorage));
+        l2Store = createL2Store();
+        // 빈이 준비되기 전(= readiness 이전)에 캐시를 미리 채운다
+        if (snapshotEnabled) {
+            warmStart();
         }
+    }
 
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireAt;
+    @PreDestroy
+    public void shutdown() {
+        if (snapshotEnabled) {
+            writeSnapshot();
         }
+        refreshExecutor.shutdownNow();
+        l2Store.close();
     }
 
     /**
-     * 캐시 상태 초기화
+     * 스냅샷 파일에서 남은 TTL이 있는 엔트리만 복원
      */
-    public Map<String, Object> resetStats() {
-        hitCount.set(0);
-        missCount.set(0);
-        dbQueryCount.set(0);
-        localCache.clear();
+    private void warmStart() {
+        long startTime = System.nanoTime();
+        try {
+            CacheSnapshotFile.Snapshot snapshot = CacheSnapshotFile.read(Path.of(snapshotPath));
+            List<SnapshotEntry> entries = snapshot.entries();
+            long now = System.currentTimeMillis();
+            int restored = 0;
+            int expired = 0;
+            // 가장 뜨거운 엔트리가 마지막(가장 최근)에 들어가도록 역순으로 채운다
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                SnapshotEntry entry = entries.get(i);
+                long remainingMs = entry.expireAt() - now;
+                if (remainingMs <= 0) {
+                    expired++;
+                    continue;
+                }
+                putEntry(entry.key(), entry.value(), remainingMs, entry.deltaMs()).restored = true;
+                restored++;
+            }
+            long loadTimeMs = (System.nanoTime() - startTime) / 1_000_000;
+            long ageMs = snapshot.writtenAt() > 0 ? now - snapshot.writtenAt() : 0;
+            warmStartStats.recordLoad(restored, expired, loadTimeMs, snapshot.fileBytes(), ageMs);
+            if (!entries.isEmpty()) {
+                log.info("Cache warm start: restored {} entries ({} expired) in {}ms", restored, expired, loadTimeMs);
+            }
+        } catch (IOException e) {
+            log.warn("Cache snapshot could not be loaded, starting cold: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 인기 엔트리 주기적 스냅샷
+     */
+    @Scheduled(fixedDelayString = "${lab.cache.snapshot.interval-ms:30000}",
+            initialDelayString = "${lab.cache.snapshot.interval-ms:30000}")
+    public void snapshotHottest() {
+        if (snapshotEnabled) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * 정책 기준 상위 N개를 남은 TTL과 함께 기록
+     */
+    public Map<String, Object> writeSnapshot() {
+        long startTime = System.nanoTime();
+        List<SnapshotEntry> entries = new ArrayList<>();
+        localCache.hottest(snapshotTopN).forEach((cacheKey, entry) -> {
+            String value = readValue(entry);
+            if (value != null) {
+                entries.add(new SnapshotEntry(cacheKey, value, entry.expireAt, entry.deltaMs));
+            }
+        });
 
+        Map<String, Object> result = new HashMap<>();
+        result.put("path", snapshotPath);
+        result.put("entries", entries.size());
+        try {
+            long bytes = CacheSnapshotFile.write(Path.of(snapshotPath), entries);
+            long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+            warmStartStats.recordSnapshot(entries.size(), bytes, durationMs);
+            result.put("bytes", bytes);
+            result.put("durationMs", durationMs);
+        } catch (IOException e) {
+            log.warn("Cache snapshot write failed: {}", e.getMessage());
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    /**
+     * 웜 스타트 / 스냅샷 통계
+     */
+    public Map<String, Object> getWarmStartStats() {
+        Map<String, Object> result = warmStartStats.toMap();
+        result.put("enabled", snapshotEnabled);
+        result.put("path", snapshotPath);
+        result.put("topN", snapshotTopN);
+        return result;
+    }
+
+    /**
+     * Redis에 연결되면 Redis L2 + Pub/Sub 무효화, 아니면 로컬 대체 구현
+     */
+    private L2Store createL2Store() {
         if (redisTemplate != null) {
             try {
-                Set<String> keys = redisTemplate.keys("lab:cache:*");
-                if (keys != null && !keys.isEmpty()) {
-                    redisTemplate.delete(keys);
-                }
+                RedisL2Store redis = new RedisL2Store(redisTemplate);
+                redis.get(NEAR_PREFIX + "ping"); // 연결 확인
+                redis.subscribeInvalidations(this::onInvalidation);
+                log.info("Near cache L2 uses Redis (instance {})", instanceId);
+                return redis;
             } catch (Exception e) {
-                log.warn("Redis not available, using local cache");
+                log.warn("Redis not available, near cache uses local L2 stand-in");
             }
         }
+        LocalL2Store local = new LocalL2Store(simulatedRttMs);
+        local.subscribeInvalidations(this::onInvalidation);
+        return local;
+    }
+
+    private CacheEngine<String, CacheEntry> createEngine(CachePolicy policy, long maxWeight) {
+        Weigher<String, CacheEntry> weigher = (key, entry) -> entry.weight;
+        // 용량 때문에 축출된 엔트리는 타이머와 off-heap 청크도 함께 해제
+        RemovalListener<String, CacheEntry> onEviction = (key, entry) -> release(entry);
+        return policy.create(maxWeight, weigher, onEviction);
+    }
+
+    /**
+     * 캐시 저장 + 만료 타이머 등록
+     */
+    private CacheEntry putEntry(String cacheKey, String value, long ttlMs) {
+        return putEntry(cacheKey, value, ttlMs, 0);
+    }
+
+    private CacheEntry putEntry(String cacheKey, String value, long ttlMs, long deltaMs) {
+        CacheEntry entry = new CacheEntry(cacheKey, value, offHeap ? offHeapStore : null, ttlMs, deltaMs);
+        entry.timer = expiryWheel.schedule(entry, entry.expireAt);
+        CacheEntry previous = localCache.put(cacheKey, entry);
+        if (previous != null) {
+            release(previous);
+        }
+        return entry;
+    }
+
+    private void release(CacheEntry entry) {
+        expiryWheel.cancel(entry.timer);
+        entry.release();
+    }
+
+    private boolean isValid(CacheEntry entry) {
+        return entry != null && !entry.isExpired(expiryWheel.now());
+    }
+
+    /**
+     * 유효한 엔트리의 값 (만료됐거나 off-heap 청크가 이미 해제됐으면 null)
+     */
+    private String readValue(CacheEntry entry) {
+        return isValid(entry) ? entry.value() : null;
+    }
+
+    /**
+     * 타이밍 휠 진행 - 만료된 엔트리를 능동적으로 회수
+     */
+    @Scheduled(fixedRate = 100)
+    public void expireEntries() {
+        expiryWheel.advance(System.currentTimeMillis());
+    }
+
+    private void onExpired(CacheEntry entry) {
+        // 같은 키가 새 값으로 덮어써졌다면 지우지 않는다
+        if (localCache.remove(entry.key, entry)) {
+            entry.release();
+            reclaimedCount.increment();
+        }
+    }
+
+    /**
+     * 캐시 상태 초기화
+     */
+    public CacheStatsSnapshot resetStats() {
+        metrics.reset();
+        localCache.clear();
+        offHeapStore.clear();
+        offHeapStore.resetStats();
+        expiryWheel.clear();
+        singleFlight.reset();
+        nearCacheStats.reset();
+        refreshAheadCount.reset();
+        modeLatencies.values().forEach(LatencyRecorder::reset);
+
+        try {
+            l2Store.clear("lab:cache:");
+        } catch (Exception e) {
+            log.warn("Redis not available, using local cache");
+        }
 
         return getStats();
     }
@@ -67,68 +378,163 @@ public class CacheLabService {
     /**
      * 캐시 통계 조회
      */
-    public Map<String, Object> getStats() {
-        Map<String, Object> stats = new HashMap<>();
-        int hits = hitCount.get();
-        int misses = missCount.get();
-        int total = hits + misses;
-
-        stats.put("hitCount", hits);
-        stats.put("missCount", misses);
-        stats.put("totalRequests", total);
-        stats.put("hitRate", total > 0 ? String.format("%.1f%%", (hits * 100.0) / total) : "0%");
-        stats.put("dbQueryCount", dbQueryCount.get());
-        stats.put("cacheSize", localCache.size());
-        stats.put("redisAvailable", redisTemplate != null);
-
-        return stats;
+    public CacheStatsSnapshot getStats() {
+        long hits = metrics.hitCount();
+        long misses = metrics.missCount();
+        long total = hits + misses;
+        LatencyRecorder latency = metrics.requestLatency();
+
+        return CacheStatsSnapshot.builder()
+                .hitCount(hits)
+                .missCount(misses)
+                .totalRequests(total)
+                .hitRatio(total > 0 ? (double) hits / total : 0)
+                .dbQueryCount(metrics.dbQueryCount())
+                .cacheSize(localCache.size())
+                .policy(localCache.policyName())
+                .maxWeight(localCache.maximumWeight())
+                .weightedSize(localCache.weightedSize())
+                .evictionCount(localCache.evictionCount())
+                .expiredCount(expiryWheel.expiredCount())
+                .pendingExpiry(expiryWheel.pendingCount())
+                .refreshAheadCount(refreshAheadCount.sum())
+                .p50LatencyMs(latency.percentileMs(50))
+                .p99LatencyMs(latency.percentileMs(99))
+                .maxLatencyMs(latency.maxMs())
+                .warmStartRestored(warmStartStats.restoredEntries())
+                .warmStartLoadMs(warmStartStats.loadTimeMs())
+                .warmStartHitRatio(warmStartStats.hitRatio())
+                .storage(offHeap ? STORAGE_OFFHEAP : STORAGE_HEAP)
+                .offHeapUsedBytes(offHeapStore.usedBytes())
+                .redisAvailable(redisTemplate != null)
+                .l2Store(l2Store.name())
+                .build();
     }
 
     /**
      * Cache-Aside 패턴 시뮬레이션
      */
-    public Map<String, Object> cacheAside(String key, int dbLatencyMs, int ttlSeconds) {
-        Map<String, Object> result = new HashMap<>();
+    public AsideResult cacheAside(String key, int dbLatencyMs, int ttlSeconds) {
+        return cacheAside(key, dbLatencyMs, ttlSeconds, MODE_PLAIN, 1.0);
+    }
+
+    /**
+     * Cache-Aside + 갱신 모드 선택
+     * - plain: TTL 만료 시점에 동기 miss
+     * - xfetch: now - delta * beta * ln(rand) >= expireAt 이면 만료 전에 비동기 갱신
+     */
+    public AsideResult cacheAside(String key, int dbLatencyMs, int ttlSeconds, String mode, double beta) {
+        Lookup lookup = lookup(key, dbLatencyMs, ttlSeconds, mode, beta);
+        return new AsideResult(key, lookup.value(), lookup.hit(), lookup.source(), mode,
+                lookup.refreshAhead(), lookup.elapsedNanos() / 1_000_000);
+    }
+
+    /**
+     * Cache-Aside 조회 본체 (요청 경로) - 카운터/히스토그램 기록만 하고 맵이나 문자열 포맷은 만들지 않는다
+     */
+    private Lookup lookup(String key, int dbLatencyMs, int ttlSeconds, String mode, double beta) {
+        LatencyRecorder modeLatency = modeLatencies.get(mode);
+        if (modeLatency == null) {
+            throw new IllegalArgumentException("Unknown refresh mode: " + mode);
+        }
         long startTime = System.nanoTime();
 
         String cacheKey = "lab:cache:" + key;
         String value = null;
         boolean isHit = false;
+        boolean coalesced = false;
+        boolean refreshAhead = false;
 
         // 1. 캐시 조회
         CacheEntry entry = localCache.get(cacheKey);
-        if (entry != null && !entry.isExpired()) {
-            value = entry.value;
+        value = readValue(entry);
+        if (value != null) {
             isHit = true;
-            hitCount.incrementAndGet();
+            metrics.recordHit();
+            warmStartStats.recordLookup(true, entry.restored);
+
+            if (MODE_XFETCH.equals(mode) && shouldRefreshEarly(entry, beta)) {
+                refreshAhead = scheduleRefresh(key, cacheKey, dbLatencyMs, ttlSeconds);
+            }
         }
 
         if (!isHit) {
-            missCount.incrementAndGet();
+            metrics.recordMiss();
+            warmStartStats.recordLookup(false, false);
+
+            // 2. DB 조회 (시뮬레이션) - 같은 키를 이미 읽는 중이면 그 결과를 기다린다
+            SingleFlightLoader.Result<String> loaded = singleFlight.load(cacheKey, () -> {
+                // Double-check - 앞선 리더가 저장하고 빠진 직후에 들어온 miss면 DB를 다시 읽지 않는다
+                String current = readValue(localCache.get(cacheKey));
+                return current != null ? current : loadProduct(key, cacheKey, dbLatencyMs, ttlSeconds);
+            });
+            value = loaded.value();
+            coalesced = !loaded.leader();
+        }
 
-            // 2. DB 조회 (시뮬레이션)
-            try {
-                Thread.sleep(dbLatencyMs);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            dbQueryCount.incrementAndGet();
-            value = "Product_" + key + "_Data_" + System.currentTimeMillis();
+        long elapsedNanos = System.nanoTime() - startTime;
+        metrics.recordLatency(elapsedNanos);
+        modeLatency.recordNanos(elapsedNanos);
 
-            // 3. 캐시 저장
-            localCache.put(cacheKey, new CacheEntry(value, ttlSeconds * 1000L));
-        }
+        return new Lookup(value, isHit, coalesced, refreshAhead, elapsedNanos);
+    }
 
-        long duration = (System.nanoTime() - startTime) / 1_000_000;
+    /**
+     * DB 조회 (시뮬레이션) 후 캐시 저장 - 조회에 걸린 시간을 delta로 함께 기록
+     */
+    private String loadProduct(String key, String cacheKey, int dbLatencyMs, int ttlSeconds) {
+        long loadStart = System.nanoTime();
+        simulateDbLatency(dbLatencyMs);
+        metrics.recordDbQuery();
+        String value = "Product_" + key + "_Data_" + System.currentTimeMillis();
+        long deltaMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        // 3. 캐시 저장
+        putEntry(cacheKey, value, ttlSeconds * 1000L, deltaMs);
+        return value;
+    }
 
-        result.put("key", key);
-        result.put("value", value);
-        result.put("hit", isHit);
-        result.put("durationMs", duration);
-        result.put("source", isHit ? "CACHE" : "DATABASE");
-        result.put("stats", getStats());
+    /**
+     * XFetch 조건: 만료까지 남은 시간이 delta * beta * -ln(rand)보다 작으면 미리 갱신
+     * 재계산 비용(delta)이 클수록, beta가 클수록 더 일찍 갱신한다.
+     */
+    private boolean shouldRefreshEarly(CacheEntry entry, double beta) {
+        double random = ThreadLocalRandom.current().nextDouble();
+        double gap = entry.deltaMs * beta * -Math.log(random);
+        return expiryWheel.now() + gap >= entry.expireAt;
+    }
 
-        return result;
+    /**
+     * 비동기 갱신 예약 - 키당 하나만 진행
+     */
+    private boolean scheduleRefresh(String key, String cacheKey, int dbLatencyMs, int ttlSeconds) {
+        if (!refreshingKeys.add(cacheKey)) {
+            return false;
+        }
+        refreshAheadCount.increment();
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    singleFlight.load(cacheKey, () -> loadProduct(key, cacheKey, dbLatencyMs, ttlSeconds));
+                } catch (Exception e) {
+                    log.warn("Refresh-ahead failed for {}: {}", cacheKey, e.getMessage());
+                } finally {
+                    refreshingKeys.remove(cacheKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshingKeys.remove(cacheKey);
+            return false;
+        }
+        return true;
+    }
+
+    private static void simulateDbLatency(int dbLatencyMs) {
+        try {
+            Thread.sleep(dbLatencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -142,9 +548,18 @@ public class CacheLabService {
         Random random = new Random();
         for (int i = 0; i < keyCount; i++) {
             String key = "product_" + random.nextInt(uniqueKeyCount);
-            Map<String, Object> queryResult = cacheAside(key, dbLatencyMs, ttlSeconds);
-            queryResult.put("queryIndex", i);
-            queryResults.add(queryResult);
+            Lookup lookup = lookup(key, dbLatencyMs, ttlSeconds, MODE_PLAIN, 1.0);
+            // 응답에는 앞쪽 20건만 노출하므로 나머지는 맵을 만들지 않는다
+            if (i < 20) {
+                Map<String, Object> queryResult = new HashMap<>();
+                queryResult.put("queryIndex", i);
+                queryResult.put("key", key);
+                queryResult.put("value", lookup.value());
+                queryResult.put("hit", lookup.hit());
+                queryResult.put("durationMs", lookup.elapsedNanos() / 1_000_000);
+                queryResult.put("source", lookup.source());
+                queryResults.add(queryResult);
+            }
         }
 
         long totalDuration = System.currentTimeMillis() - startTime;
@@ -154,11 +569,155 @@ public class CacheLabService {
         result.put("totalDurationMs", totalDuration);
         result.put("avgDurationMs", totalDuration / keyCount);
         result.put("stats", getStats());
-        result.put("queryResults", queryResults.subList(0, Math.min(20, queryResults.size())));
+        result.put("queryResults", queryResults);
+
+        return result;
+    }
+
+    /**
+     * 대량 조회 - 배치 버전
+     * 중복 키 제거 → L1 한 번에 조회 → L2 MGET 1회 → 남은 키를 DB 배치 조회 1회 → L2 파이프라인 저장 1회
+     */
+    public Map<String, Object> bulkQueryBatched(int keyCount, int uniqueKeyCount, int dbLatencyMs, int ttlSeconds) {
+        long startTime = System.currentTimeMillis();
+
+        Random random = new Random();
+        List<String> keys = new ArrayList<>(keyCount);
+        for (int i = 0; i < keyCount; i++) {
+            keys.add("product_" + random.nextInt(uniqueKeyCount));
+        }
+        Set<String> distinctKeys = new LinkedHashSet<>(keys);
 
+        BatchLookup lookup = getAll(distinctKeys, dbLatencyMs, ttlSeconds);
+
+        // 키별 경로와 같은 기준으로 집계: L1에 없던 키의 첫 요청만 miss, 이후 중복은 hit
+        Set<String> pendingMisses = new HashSet<>(lookup.l1MissedKeys());
+        for (String key : keys) {
+            if (pendingMisses.remove(key)) {
+                metrics.recordMiss();
+            } else {
+                metrics.recordHit();
+            }
+        }
+
+        // 키별 경로였다면: L1 miss마다 L2 GET, DB miss마다 DB 조회 + L2 SET
+        int perKeyRoundTrips = lookup.l1MissedKeys().size() + lookup.dbLoads() * 2;
+        int batchedRoundTrips = lookup.l2RoundTrips() + lookup.dbRoundTrips();
+        long totalDuration = System.currentTimeMillis() - startTime;
+
+        List<Map<String, Object>> queryResults = new ArrayList<>();
+        for (int i = 0; i < Math.min(20, keys.size()); i++) {
+            Map<String, Object> queryResult = new HashMap<>();
+            queryResult.put("queryIndex", i);
+            queryResult.put("key", keys.get(i));
+            queryResult.put("value", lookup.values().get("lab:cache:" + keys.get(i)));
+            queryResults.add(queryResult);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("totalQueries", keyCount);
+        result.put("uniqueKeys", uniqueKeyCount);
+        result.put("distinctKeysInBatch", distinctKeys.size());
+        result.put("duplicatesRemoved", keyCount - distinctKeys.size());
+        result.put("l1Hits", lookup.l1Hits());
+        result.put("l2Hits", lookup.l2Hits());
+        result.put("dbLoads", lookup.dbLoads());
+        result.put("perKeyRoundTrips", perKeyRoundTrips);
+        result.put("batchedRoundTrips", batchedRoundTrips);
+        result.put("roundTripsSaved", perKeyRoundTrips - batchedRoundTrips);
+        result.put("estimatedPerKeyDbTimeMs", (long) lookup.dbLoads() * dbLatencyMs);
+        result.put("totalDurationMs", totalDuration);
+        result.put("avgDurationMs", totalDuration / keyCount);
+        result.put("stats", getStats());
+        result.put("queryResults", queryResults);
         return result;
     }
 
+    /**
+     * 여러 키 일괄 조회 (L1 → L2 MGET → DB 배치)
+     */
+    private BatchLookup getAll(Collection<String> keys, int dbLatencyMs, int ttlSeconds) {
+        long ttlMs = ttlSeconds * 1000L;
+        Map<String, String> values = new HashMap<>();
+        Set<String> l1Missed = new LinkedHashSet<>();
+
+        // 1. L1 - 네트워크 없이 한 번에
+        for (String key : keys) {
+            String cacheKey = "lab:cache:" + key;
+            String value = readValue(localCache.get(cacheKey));
+            if (value != null) {
+                values.put(cacheKey, value);
+            } else {
+                l1Missed.add(cacheKey);
+            }
+        }
+        int l1Hits = keys.size() - l1Missed.size();
+        if (l1Missed.isEmpty()) {
+            return new BatchLookup(values, l1Missed, l1Hits, 0, 0, 0, 0);
+        }
+
+        // 2. L2 - MGET 1회
+        int l2RoundTrips = 1;
+        Map<String, String> l2Values = l2MultiGet(l1Missed);
+        l2Values.forEach((cacheKey, value) -> {
+            values.put(cacheKey, value);
+            putEntry(cacheKey, value, ttlMs);
+        });
+
+        List<String> dbKeys = new ArrayList<>();
+        for (String cacheKey : l1Missed) {
+            if (!l2Values.containsKey(cacheKey)) {
+                dbKeys.add(cacheKey);
+            }
+        }
+        if (dbKeys.isEmpty()) {
+            return new BatchLookup(values, l1Missed, l1Hits, l2Values.size(), 0, l2RoundTrips, 0);
+        }
+
+        // 3. DB - WHERE id IN (...) 한 번 (지연은 1회분만)
+        simulateDbLatency(dbLatencyMs);
+        metrics.recordDbQuery();
+        Map<String, String> loaded = new HashMap<>();
+        long loadedAt = System.currentTimeMillis();
+        for (String cacheKey : dbKeys) {
+            String key = cacheKey.substring("lab:cache:".length());
+            loaded.put(cacheKey, "Product_" + key + "_Data_" + loadedAt);
+        }
+
+        // 4. L2 파이프라인 저장 1회 + L1 저장
+        l2MultiSet(loaded, ttlMs);
+        l2RoundTrips++;
+        loaded.forEach((cacheKey, value) -> {
+            values.put(cacheKey, value);
+            putEntry(cacheKey, value, ttlMs, dbLatencyMs);
+        });
+
+        return new BatchLookup(values, l1Missed, l1Hits, l2Values.size(), dbKeys.size(), l2RoundTrips, 1);
+    }
+
+    private Map<String, String> l2MultiGet(Collection<String> cacheKeys) {
+        long start = System.nanoTime();
+        try {
+            return l2Store.multiGet(cacheKeys);
+        } catch (Exception e) {
+            log.warn("L2 multiGet failed, falling back to DB: {}", e.getMessage());
+            return Collections.emptyMap();
+        } finally {
+            nearCacheStats.recordL2RoundTrip(System.nanoTime() - start);
+        }
+    }
+
+    private void l2MultiSet(Map<String, String> values, long ttlMs) {
+        long start = System.nanoTime();
+        try {
+            l2Store.multiSet(values, ttlMs);
+        } catch (Exception e) {
+            log.warn("L2 multiSet failed: {}", e.getMessage());
+        } finally {
+            nearCacheStats.recordL2RoundTrip(System.nanoTime() - start);
+        }
+    }
+
     /**
      * Thundering Herd 시뮬레이션 (락 없이)
      */
@@ -190,14 +749,14 @@ public class CacheLabService {
 
                     // 캐시 체크 (처음엔 항상 miss)
                     CacheEntry entry = localCache.get(cacheKey);
-                    boolean isHit = entry != null && !entry.isExpired();
+                    boolean isHit = isValid(entry);
 
                     if (!isHit) {
                         // 모든 스레드가 DB를 때림!
                         Thread.sleep(dbLatencyMs);
                         dbHitCount.incrementAndGet();
                         String value = "Data_" + System.currentTimeMillis();
-                        localCache.put(cacheKey, new CacheEntry(value, 60000));
+                        putEntry(cacheKey, value, 60000);
                         reqResult.put("source", "DATABASE");
                     } else {
                         reqResult.put("source", "CACHE");
@@ -235,7 +794,7 @@ public class CacheLabService {
     }
 
     /**
-     * Thundering Herd 방지 (락 사용)
+     * Thundering Herd 방지 (Single-Flight 요청 병합)
      */
     public Map<String, Object> thunderingHerdSafe(int concurrentRequests, int dbLatencyMs) {
         Map<String, Object> result = new HashMap<>();
@@ -244,7 +803,6 @@ public class CacheLabService {
         String key = "popular_item_" + System.currentTimeMillis();
         String cacheKey = "lab:cache:" + key;
         AtomicInteger dbHitCount = new AtomicInteger(0);
-        ReentrantLock lock = keyLocks.computeIfAbsent(cacheKey, k -> new ReentrantLock());
 
         CountDownLatch startLatch = new CountDownLatch(1);
         CountDownLatch endLatch = new CountDownLatch(concurrentRequests);
@@ -265,31 +823,28 @@ public class CacheLabService {
 
                     // 먼저 캐시 체크
                     CacheEntry entry = localCache.get(cacheKey);
-                    if (entry != null && !entry.isExpired()) {
+                    if (isValid(entry)) {
                         reqResult.put("source", "CACHE");
                     } else {
-                        // 락 획득 시도
-                        if (lock.tryLock()) {
-                            try {
-                                // Double-check
-                                entry = localCache.get(cacheKey);
-                                if (entry == null || entry.isExpired()) {
-                                    Thread.sleep(dbLatencyMs);
-                                    dbHitCount.incrementAndGet();
-                                    String value = "Data_" + System.currentTimeMillis();
-                                    localCache.put(cacheKey, new CacheEntry(value, 60000));
-                                    reqResult.put("source", "DATABASE");
-                                } else {
-                                    reqResult.put("source", "CACHE (after lock)");
-                                }
-                            } finally {
-                                lock.unlock();
+                        // 첫 요청만 DB를 읽고, 나머지는 진행 중인 로드가 끝나는 순간 결과를 함께 받는다
+                        SingleFlightLoader.Result<String> loaded = singleFlight.load(cacheKey, () -> {
+                            // Double-check
+                            String current = readValue(localCache.get(cacheKey));
+                            if (current != null) {
+                                return current;
                             }
+                            simulateDbLatency(dbLatencyMs);
+                            dbHitCount.incrementAndGet();
+                            String value = "Data_" + System.currentTimeMillis();
+                            putEntry(cacheKey, value, 60000);
+                            return value;
+                        });
+
+                        if (loaded.leader()) {
+                            reqResult.put("source", "DATABASE");
                         } else {
-                            // 락 획득 실패 - 다른 스레드가 갱신 중
-                            // 잠시 대기 후 캐시에서 읽기
-                            Thread.sleep(dbLatencyMs + 10);
-                            reqResult.put("source", "CACHE (waited)");
+                            reqResult.put("source", "COALESCED (waited)");
+                            reqResult.put("waitMs", loaded.waitNanos() / 1_000_000);
                         }
                     }
 
@@ -318,7 +873,9 @@ public class CacheLabService {
         result.put("concurrentRequests", concurrentRequests);
         result.put("dbHitCount", dbHitCount.get());
         result.put("totalDurationMs", totalDuration);
-        result.put("solution", "락으로 단일 DB 조회 보장. DB 요청: " + dbHitCount.get() + "번");
+        result.put("solution", "Single-Flight로 단일 DB 조회 보장. DB 요청: " + dbHitCount.get() + "번");
+        result.put("coalescing", singleFlight.keyStats(cacheKey));
+        result.put("waitTime", singleFlight.stats().get("waitTime"));
         result.put("requestResults", requestResults);
 
         return result;
@@ -334,12 +891,12 @@ public class CacheLabService {
         String value = "TTL_Test_" + System.currentTimeMillis();
 
         // 캐시 저장
-        localCache.put(cacheKey, new CacheEntry(value, ttlSeconds * 1000L));
+        CacheEntry entry = putEntry(cacheKey, value, ttlSeconds * 1000L);
 
         result.put("key", key);
         result.put("value", value);
         result.put("ttlSeconds", ttlSeconds);
-        result.put("expireAt", System.currentTimeMillis() + (ttlSeconds * 1000L));
+        result.put("expireAt", entry.expireAt);
         result.put("message", ttlSeconds + "초 후에 만료됩니다. 다시 조회해보세요!");
 
         return result;
@@ -357,17 +914,412 @@ public class CacheLabService {
         if (entry == null) {
             result.put("status", "NOT_FOUND");
             result.put("message", "키가 존재하지 않습니다.");
-        } else if (entry.isExpired()) {
+        } else if (entry.isExpired(expiryWheel.now())) {
             result.put("status", "EXPIRED");
             result.put("message", "TTL이 만료되었습니다!");
-            localCache.remove(cacheKey); // 정리
+            // 다음 틱에 타이밍 휠이 회수하기 전이라면 바로 정리
+            if (localCache.remove(cacheKey, entry)) {
+                release(entry);
+            }
         } else {
             result.put("status", "VALID");
-            result.put("value", entry.value);
+            result.put("value", entry.value());
             result.put("remainingMs", entry.expireAt - System.currentTimeMillis());
             result.put("message", "아직 유효합니다.");
         }
 
         return result;
     }
+
+    /**
+     * 축출 정책 변경 (기존 캐시는 비워진다)
+     */
+    public CacheStatsSnapshot changePolicy(String policy, long maxWeight) {
+        localCache = createEngine(CachePolicy.from(policy), maxWeight);
+        log.info("Cache policy changed to {} (maxWeight={})", policy, maxWeight);
+        return resetStats();
+    }
+
+    /**
+     * 값 저장 위치 변경 (기존 캐시는 비워진다)
+     */
+    public CacheStatsSnapshot changeStorage(String storage) {
+        offHeap = STORAGE_OFFHEAP.equals(storageMode(storage));
+        log.info("Cache value storage changed to {}", storage);
+        return resetStats();
+    }
+
+    /**
+     * off-heap 슬랩 사용량 (size class별 사용/빈 청크)
+     */
+    public Map<String, Object> getOffHeapStats() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("storage", offHeap ? STORAGE_OFFHEAP : STORAGE_HEAP);
+        result.put("slabs", offHeapStore.stats());
+        return result;
+    }
+
+    /**
+     * 같은 엔트리 수로 heap / offheap 저장을 채우고 뒤섞어 GC 횟수·시간과 남는 힙 크기 비교
+     * 서비스 캐시와 별도의 엔진/슬랩을 쓰므로 실행 중인 캐시에는 영향이 없다.
+     */
+    public Map<String, Object> compareStorageModes(int entryCount, int valueBytes, int readRounds) {
+        if ((long) entryCount * valueBytes > MAX_COMPARE_BYTES) {
+            throw new IllegalArgumentException("entryCount * valueBytes must be <= " + MAX_COMPARE_BYTES);
+        }
+        String payload = "v".repeat(valueBytes);
+        // 청크 크기(2의 거듭제곱) 기준으로 모든 엔트리가 들어갈 만큼 + 교체분 여유
+        long chunkSize = Long.highestOneBit(valueBytes + 24L) << 1;
+        long capacity = chunkSize * entryCount * 2 + slabSizeKb * 1024L;
+
+        Map<String, Object> modeResults = new LinkedHashMap<>();
+        for (String storage : List.of(STORAGE_HEAP, STORAGE_OFFHEAP)) {
+            OffHeapValueStore store = STORAGE_OFFHEAP.equals(storage)
+                    ? new OffHeapValueStore(slabSizeKb * 1024, capacity)
+                    : null;
+            modeResults.put(storage, runStorageWorkload(store, entryCount, payload, readRounds));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("entryCount", entryCount);
+        result.put("valueBytes", valueBytes);
+        result.put("readRounds", readRounds);
+        result.put("results", modeResults);
+        return result;
+    }
+
+    private Map<String, Object> runStorageWorkload(OffHeapValueStore store, int entryCount, String payload, int readRounds) {
+        CacheEngine<String, CacheEntry> engine = CachePolicy.UNBOUNDED.create(
+                Long.MAX_VALUE, (key, entry) -> entry.weight, RemovalListener.noop());
+        long ttlMs = Duration.ofHours(1).toMillis();
+
+        MemoryFootprint.fullGc();
+        MemoryFootprint before = MemoryFootprint.capture();
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < entryCount; i++) {
+            String key = "lab:cache:storage:" + i;
+            engine.put(key, new CacheEntry(key, i + payload, store, ttlMs, 0));
+        }
+
+        // 조회 + 10% 교체 - 힙 저장이면 교체된 값이 old gen 쓰레기로 남는다
+        Random random = new Random(42);
+        long bytesRead = 0;
+        for (int round = 0; round < readRounds; round++) {
+            for (int j = 0; j < entryCount; j++) {
+                int i = random.nextInt(entryCount);
+                String key = "lab:cache:storage:" + i;
+                String value = engine.get(key).value();
+                bytesRead += value != null ? value.length() : 0;
+                if (random.nextInt(10) == 0) {
+                    CacheEntry previous = engine.put(key, new CacheEntry(key, i + payload, store, ttlMs, 0));
+                    if (previous != null) {
+                        previous.release();
+                    }
+                }
+            }
+        }
+        long durationMs = (System.nanoTime() - startTime) / 1_000_000;
+
+        MemoryFootprint during = MemoryFootprint.capture();
+        // 캐시가 살아 있는 상태의 Full GC - 힙에 있는 값이 많을수록 오래 걸린다
+        long fullGcMs = MemoryFootprint.fullGc();
+        MemoryFootprint after = MemoryFootprint.capture();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("durationMs", durationMs);
+        result.put("bytesRead", bytesRead);
+        result.put("gcCount", during.gcCount() - before.gcCount());
+        result.put("gcTimeMs", during.gcTimeMs() - before.gcTimeMs());
+        result.put("fullGcMs", fullGcMs);
+        result.put("retainedHeapBytes", after.heapUsed() - before.heapUsed());
+        result.put("directBytes", after.directUsed() - before.directUsed());
+        if (store != null) {
+            result.put("slabs", store.stats());
+            store.clear();
+        }
+        engine.clear();
+        return result;
+    }
+
+    private static String storageMode(String storage) {
+        String mode = storage.toLowerCase(Locale.ROOT).replace("-", "");
+        if (!STORAGE_HEAP.equals(mode) && !STORAGE_OFFHEAP.equals(mode)) {
+            throw new IllegalArgumentException("Unknown storage mode: " + storage);
+        }
+        return mode;
+    }
+
+    /**
+     * 정책별 Hit Rate / Eviction 비교 (Zipf 분포 키)
+     */
+    public Map<String, Object> comparePolicies(int capacity, int keySpace, int requestCount, double skew) {
+        ZipfGenerator zipf = new ZipfGenerator(keySpace, skew);
+        List<Map<String, Object>> policyResults = new ArrayList<>();
+
+        for (CachePolicy policy : CachePolicy.values()) {
+            CacheEngine<String, String> engine = policy.create(capacity, Weigher.singleton(), RemovalListener.noop());
+            Random random = new Random(42); // 모든 정책에 동일한 요청 순서
+            long startTime = System.nanoTime();
+
+            for (int i = 0; i < requestCount; i++) {
+                String key = "product_" + zipf.next(random);
+                if (engine.get(key) == null) {
+                    engine.put(key, key);
+                }
+            }
+
+            long hits = engine.hitCount();
+            long total = hits + engine.missCount();
+
+            Map<String, Object> policyResult = new HashMap<>();
+            policyResult.put("policy", engine.policyName());
+            policyResult.put("hitCount", hits);
+            policyResult.put("missCount", engine.missCount());
+            policyResult.put("hitRate", total > 0 ? String.format("%.1f%%", (hits * 100.0) / total) : "0%");
+            policyResult.put("evictionCount", engine.evictionCount());
+            policyResult.put("size", engine.size());
+            policyResult.put("durationMs", (System.nanoTime() - startTime) / 1_000_000);
+            if (engine instanceof WTinyLfuCacheEngine<String, String> tinyLfu) {
+                policyResult.put("admittedCount", tinyLfu.admittedCount());
+                policyResult.put("rejectedCount", tinyLfu.rejectedCount());
+            }
+            policyResults.add(policyResult);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("capacity", capacity);
+        result.put("keySpace", keySpace);
+        result.put("requestCount", requestCount);
+        result.put("skew", skew);
+        result.put("results", policyResults);
+        return result;
+    }
+
+    /**
+     * 짧은 TTL 키 대량 저장 - 타이밍 휠이 메모리를 회수하는지 확인
+     */
+    public Map<String, Object> ttlFlood(int keyCount, int ttlSeconds) {
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < keyCount; i++) {
+            putEntry("lab:cache:ttl:flood_" + i, "TTL_Flood_" + i, ttlSeconds * 1000L);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("keyCount", keyCount);
+        result.put("ttlSeconds", ttlSeconds);
+        result.put("durationMs", System.currentTimeMillis() - startTime);
+        result.put("cacheSize", localCache.size());
+        result.put("expiry", getExpiryStats());
+        result.put("message", ttlSeconds + "초 뒤 /stats에서 cacheSize가 줄어드는지 확인해보세요!");
+        return result;
+    }
+
+    /**
+     * 타이밍 휠 통계
+     */
+    public Map<String, Object> getExpiryStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tickMs", expiryWheel.tickMs());
+        stats.put("scheduled", expiryWheel.scheduledCount());
+        stats.put("cancelled", expiryWheel.cancelledCount());
+        stats.put("expired", expiryWheel.expiredCount());
+        stats.put("reclaimed", reclaimedCount.sum());
+        stats.put("cascaded", expiryWheel.cascadedCount());
+        stats.put("pending", expiryWheel.pendingCount());
+        stats.put("ticks", expiryWheel.tickCount());
+        stats.put("lastTickExpired", expiryWheel.lastTickExpired());
+        stats.put("lastTickMicros", expiryWheel.lastTickMicros());
+        return stats;
+    }
+
+    /**
+     * Single-Flight 병합 통계
+     */
+    public Map<String, Object> getCoalescingStats() {
+        return singleFlight.stats();
+    }
+
+    /**
+     * Near Cache 조회: L1(in-process) → L2(Redis) → DB
+     */
+    public Map<String, Object> nearCacheGet(String key, int dbLatencyMs, int l1TtlSeconds, int l2TtlSeconds) {
+        long startTime = System.nanoTime();
+        String cacheKey = NEAR_PREFIX + key;
+        String value;
+        String source;
+
+        // 1. L1 조회 - 네트워크 왕복 없음
+        value = readValue(localCache.get(cacheKey));
+        if (value != null) {
+            source = "L1";
+            nearCacheStats.recordL1Hit();
+        } else {
+            // 2. L2 조회 - 다른 인스턴스가 채워둔 값 재사용
+            value = l2Get(cacheKey);
+            if (value != null) {
+                source = "L2";
+                nearCacheStats.recordL2Hit();
+                putEntry(cacheKey, value, l1TtlSeconds * 1000L);
+            } else {
+                // 3. DB 조회 후 L2, L1 순서로 채움
+                SingleFlightLoader.Result<String> loaded = singleFlight.load(cacheKey, () -> {
+                    // Double-check - 앞선 리더가 L1까지 채우고 빠진 직후에 들어온 miss면 DB를 다시 읽지 않는다
+                    String current = readValue(localCache.get(cacheKey));
+                    if (current != null) {
+                        return current;
+                    }
+                    simulateDbLatency(dbLatencyMs);
+                    nearCacheStats.recordDbLoad();
+                    String loadedValue = "Product_" + key + "_Data_" + System.currentTimeMillis();
+                    l2Set(cacheKey, loadedValue, l2TtlSeconds * 1000L);
+                    putEntry(cacheKey, loadedValue, l1TtlSeconds * 1000L);
+                    return loadedValue;
+                });
+                value = loaded.value();
+                source = loaded.leader() ? "DATABASE" : "DATABASE (coalesced)";
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("key", key);
+        result.put("value", value);
+        result.put("source", source);
+        result.put("durationMicros", (System.nanoTime() - startTime) / 1_000);
+        result.put("nearCache", getNearCacheStats());
+        return result;
+    }
+
+    /**
+     * Near Cache 갱신: L2에 쓰고 모든 인스턴스의 L1 무효화
+     * remote=true면 다른 인스턴스가 갱신한 상황을 흉내 낸다 (Pub/Sub으로 내 L1이 지워짐)
+     */
+    public Map<String, Object> nearCacheUpdate(String key, String value, int l2TtlSeconds, boolean remote) {
+        String cacheKey = NEAR_PREFIX + key;
+        String originId = remote ? "remote-" + instanceId : instanceId;
+
+        l2Set(cacheKey, value, l2TtlSeconds * 1000L);
+        if (!remote) {
+            // 내 L1은 메시지를 기다리지 않고 바로 지운다
+            invalidateL1(cacheKey);
+        }
+        try {
+            l2Store.publishInvalidation(originId, cacheKey);
+            nearCacheStats.recordInvalidationSent();
+        } catch (Exception e) {
+            log.warn("Failed to publish near cache invalidation: {}", e.getMessage());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("key", key);
+        result.put("value", value);
+        result.put("originId", originId);
+        result.put("l1Present", isValid(localCache.get(cacheKey)));
+        result.put("nearCache", getNearCacheStats());
+        return result;
+    }
+
+    /**
+     * Near Cache 통계
+     */
+    public Map<String, Object> getNearCacheStats() {
+        Map<String, Object> stats = nearCacheStats.toMap();
+        stats.put("l2Store", l2Store.name());
+        stats.put("instanceId", instanceId);
+        return stats;
+    }
+
+    private void onInvalidation(String originId, String cacheKey) {
+        // 내가 보낸 메시지는 이미 처리했으므로 무시
+        if (instanceId.equals(originId)) return;
+        nearCacheStats.recordInvalidationReceived();
+        invalidateL1(cacheKey);
+    }
+
+    private void invalidateL1(String cacheKey) {
+        CacheEntry removed = localCache.remove(cacheKey);
+        if (removed != null) {
+            release(removed);
+        }
+    }
+
+    private String l2Get(String cacheKey) {
+        long start = System.nanoTime();
+        try {
+            return l2Store.get(cacheKey);
+        } catch (Exception e) {
+            log.warn("L2 get failed, falling back to DB: {}", e.getMessage());
+            return null;
+        } finally {
+            nearCacheStats.recordL2RoundTrip(System.nanoTime() - start);
+        }
+    }
+
+    private void l2Set(String cacheKey, String value, long ttlMs) {
+        long start = System.nanoTime();
+        try {
+            l2Store.set(cacheKey, value, ttlMs);
+        } catch (Exception e) {
+            log.warn("L2 set failed: {}", e.getMessage());
+        } finally {
+            nearCacheStats.recordL2RoundTrip(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 갱신 모드별 지연 시간 비교 (plain vs xfetch)
+     * 같은 워크로드를 모드마다 durationSeconds 동안 실행하고 p99를 비교한다.
+     */
+    public Map<String, Object> compareRefreshModes(int durationSeconds, int uniqueKeyCount, int dbLatencyMs,
+                                                   int ttlSeconds, double beta, int requestIntervalMs) {
+        Map<String, Object> modeResults = new HashMap<>();
+
+        for (String mode : List.of(MODE_PLAIN, MODE_XFETCH)) {
+            resetStats();
+            Random random = new Random(42);
+            long deadline = System.currentTimeMillis() + durationSeconds * 1000L;
+            int requests = 0;
+
+            while (System.currentTimeMillis() < deadline) {
+                cacheAside("product_" + random.nextInt(uniqueKeyCount), dbLatencyMs, ttlSeconds, mode, beta);
+                requests++;
+                try {
+                    Thread.sleep(requestIntervalMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            Map<String, Object> modeResult = new HashMap<>();
+            modeResult.put("requests", requests);
+            modeResult.put("missCount", metrics.missCount());
+            modeResult.put("dbQueryCount", metrics.dbQueryCount());
+            modeResult.put("refreshAheadCount", refreshAheadCount.sum());
+            modeResult.put("latency", modeLatencies.get(mode).percentiles());
+            modeResults.put(mode, modeResult);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("durationSeconds", durationSeconds);
+        result.put("uniqueKeys", uniqueKeyCount);
+        result.put("ttlSeconds", ttlSeconds);
+        result.put("beta", beta);
+        result.put("results", modeResults);
+        return result;
+    }
+
+    /**
+     * 갱신 모드별 지연 시간 / 조기 갱신 횟수
+     */
+    public Map<String, Object> getRefreshAheadStats() {
+        Map<String, Object> latency = new HashMap<>();
+        modeLatencies.forEach((mode, recorder) -> latency.put(mode, recorder.percentiles()));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("refreshAheadCount", refreshAheadCount.sum());
+        result.put("refreshing", refreshingKeys.size());
+        result.put("latency", latency);
+        return result;
+    }
 }
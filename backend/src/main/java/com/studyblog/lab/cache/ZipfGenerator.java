@@ -0,0 +1,44 @@
+package com.studyblog.lab.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf 분포 키 생성기 (소수의 인기 키에 요청이 몰리는 실제 트래픽 모사)
+ * 누적 분포를 미리 계산해 두고 이진 탐색으로 순위를 뽑는다.
+ */
+public final class ZipfGenerator {
+
+    private final double[] cdf;
+
+    /**
+     * @param keySpace 키 개수
+     * @param skew     분포 기울기 (0 = 균등, 0.99 = 일반적인 웹 트래픽)
+     */
+    public ZipfGenerator(int keySpace, double skew) {
+        if (keySpace <= 0) {
+            throw new IllegalArgumentException("keySpace must be positive: " + keySpace);
+        }
+        this.cdf = new double[keySpace];
+        double sum = 0;
+        for (int rank = 1; rank <= keySpace; rank++) {
+            sum += 1.0 / Math.pow(rank, skew);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < keySpace; i++) {
+            cdf[i] /= sum;
+        }
+    }
+
+    /**
+     * 0 ~ keySpace-1 사이의 키 인덱스 (0이 가장 인기)
+     */
+    public int next(Random random) {
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return idx >= 0 ? idx : Math.min(-idx - 1, cdf.length - 1);
+    }
+
+    public int keySpace() {
+        return cdf.length;
+    }
+}
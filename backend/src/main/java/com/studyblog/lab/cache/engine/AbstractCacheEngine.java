@@ -0,0 +1,68 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔진 공통 통계 (hit / miss / eviction)
+ */
+abstract class AbstractCacheEngine<K, V> implements CacheEngine<K, V> {
+
+    protected final long maximumWeight;
+    protected final Weigher<K, V> weigher;
+    protected final RemovalListener<K, V> removalListener;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    protected AbstractCacheEngine(long maximumWeight, Weigher<K, V> weigher, RemovalListener<K, V> removalListener) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.removalListener = removalListener;
+    }
+
+    protected V recordAccess(V value) {
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    protected void notifyEviction(K key, V value) {
+        evictions.increment();
+        removalListener.onEviction(key, value);
+    }
+
+    protected int weightOf(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("negative weight for key " + key);
+        }
+        return weight;
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long missCount() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,53 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.Map;
+
+/**
+ * 캐시 저장소 엔진 추상화
+ * 정책(무제한 / LRU / W-TinyLFU)마다 다른 구현을 끼워 넣을 수 있다.
+ */
+public interface CacheEngine<K, V> {
+
+    /**
+     * 조회 (접근 기록 포함)
+     */
+    V get(K key);
+
+    /**
+     * 저장 - 최대 가중치를 넘으면 정책에 따라 축출
+     * 값 하나가 최대 가중치보다 크면 저장하지 않고 그 값을 바로 축출된 것으로 리스너에 알린다
+     * @return 덮어쓴 이전 값 (없으면 null)
+     */
+    V put(K key, V value);
+
+    /**
+     * 삭제
+     */
+    V remove(K key);
+
+    /**
+     * 현재 값이 value일 때만 삭제
+     */
+    boolean remove(K key, V value);
+
+    void clear();
+
+    /**
+     * 정책 기준으로 가장 뜨거운 엔트리부터 최대 limit개 (스냅샷용, 접근 기록은 남기지 않음)
+     */
+    Map<K, V> hottest(int limit);
+
+    int size();
+
+    long weightedSize();
+
+    long maximumWeight();
+
+    long evictionCount();
+
+    long hitCount();
+
+    long missCount();
+
+    String policyName();
+}
@@ -0,0 +1,38 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.Arrays;
+
+/**
+ * 캐시 축출 정책
+ */
+public enum CachePolicy {
+
+    UNBOUNDED("unbounded"),   // 기존 방식: 제한 없음
+    LRU("lru"),               // 최근 사용 순
+    W_TINYLFU("w-tinylfu");   // 빈도 기반 입장 제어 + LRU
+
+    private final String id;
+
+    CachePolicy(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public <K, V> CacheEngine<K, V> create(long maximumWeight, Weigher<K, V> weigher, RemovalListener<K, V> removalListener) {
+        return switch (this) {
+            case UNBOUNDED -> new UnboundedCacheEngine<>(weigher);
+            case LRU -> new LruCacheEngine<>(maximumWeight, weigher, removalListener);
+            case W_TINYLFU -> new WTinyLfuCacheEngine<>(maximumWeight, weigher, removalListener);
+        };
+    }
+
+    public static CachePolicy from(String id) {
+        return Arrays.stream(values())
+            .filter(p -> p.id.equalsIgnoreCase(id) || p.name().equalsIgnoreCase(id))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown cache policy: " + id));
+    }
+}
@@ -0,0 +1,114 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 단순 LRU - access-order LinkedHashMap + 전역 락 (비교 기준선)
+ */
+public class LruCacheEngine<K, V> extends AbstractCacheEngine<K, V> {
+
+    private final LinkedHashMap<K, WeightedValue<V>> data = new LinkedHashMap<>(16, 0.75f, true);
+    private long weightedSize;
+
+    private record WeightedValue<V>(V value, int weight) { }
+
+    public LruCacheEngine(long maximumWeight, Weigher<K, V> weigher, RemovalListener<K, V> removalListener) {
+        super(maximumWeight, weigher, removalListener);
+    }
+
+    @Override
+    public V get(K key) {
+        WeightedValue<V> wv;
+        synchronized (this) {
+            wv = data.get(key);
+        }
+        return recordAccess(wv != null ? wv.value() : null);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int weight = weightOf(key, value);
+        if (weight > maximumWeight) {
+            // 저장하지 않은 새 값은 리스너가 정리하도록 축출로 알림
+            V previous = remove(key);
+            notifyEviction(key, value);
+            return previous;
+        }
+
+        Map<K, V> evicted = new LinkedHashMap<>();
+        WeightedValue<V> old;
+        synchronized (this) {
+            old = data.put(key, new WeightedValue<>(value, weight));
+            weightedSize += weight - (old != null ? old.weight() : 0);
+
+            Iterator<Map.Entry<K, WeightedValue<V>>> it = data.entrySet().iterator();
+            while (weightedSize > maximumWeight && it.hasNext()) {
+                Map.Entry<K, WeightedValue<V>> eldest = it.next();
+                it.remove();
+                weightedSize -= eldest.getValue().weight();
+                evicted.put(eldest.getKey(), eldest.getValue().value());
+            }
+        }
+        evicted.forEach(this::notifyEviction);
+        return old != null ? old.value() : null;
+    }
+
+    @Override
+    public synchronized V remove(K key) {
+        WeightedValue<V> old = data.remove(key);
+        if (old == null) return null;
+        weightedSize -= old.weight();
+        return old.value();
+    }
+
+    @Override
+    public synchronized boolean remove(K key, V value) {
+        WeightedValue<V> current = data.get(key);
+        if (current == null || !Objects.equals(current.value(), value)) return false;
+        data.remove(key);
+        weightedSize -= current.weight();
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        data.clear();
+        weightedSize = 0;
+    }
+
+    /**
+     * 가장 최근에 접근한 순서 (access-order의 역순)
+     */
+    @Override
+    public Map<K, V> hottest(int limit) {
+        List<Map.Entry<K, WeightedValue<V>>> entries;
+        synchronized (this) {
+            entries = new ArrayList<>(data.entrySet());
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        for (int i = entries.size() - 1; i >= 0 && result.size() < limit; i--) {
+            result.put(entries.get(i).getKey(), entries.get(i).getValue().value());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized int size() {
+        return data.size();
+    }
+
+    @Override
+    public synchronized long weightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public String policyName() {
+        return CachePolicy.LRU.id();
+    }
+}
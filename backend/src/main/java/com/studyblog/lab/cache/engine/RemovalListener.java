@@ -0,0 +1,14 @@
+package com.studyblog.lab.cache.engine;
+
+/**
+ * 용량 초과로 엔트리가 축출될 때 호출되는 리스너
+ */
+@FunctionalInterface
+public interface RemovalListener<K, V> {
+
+    void onEviction(K key, V value);
+
+    static <K, V> RemovalListener<K, V> noop() {
+        return (key, value) -> { };
+    }
+}
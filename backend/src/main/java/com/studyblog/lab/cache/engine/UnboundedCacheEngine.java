@@ -0,0 +1,93 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 기존 동작 - 크기 제한 없는 ConcurrentHashMap (비교용)
+ * 가중치는 집계만 하고 축출은 하지 않는다.
+ */
+public class UnboundedCacheEngine<K, V> extends AbstractCacheEngine<K, V> {
+
+    private final ConcurrentHashMap<K, V> data = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Integer> weights = new ConcurrentHashMap<>();
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    public UnboundedCacheEngine(Weigher<K, V> weigher) {
+        super(Long.MAX_VALUE, weigher, RemovalListener.noop());
+    }
+
+    @Override
+    public V get(K key) {
+        return recordAccess(data.get(key));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        int weight = weightOf(key, value);
+        V previous = data.put(key, value);
+        Integer old = weights.put(key, weight);
+        weightedSize.addAndGet(weight - (old != null ? old : 0));
+        return previous;
+    }
+
+    @Override
+    public V remove(K key) {
+        V removed = data.remove(key);
+        releaseWeight(key);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(K key, V value) {
+        if (data.remove(key, value)) {
+            releaseWeight(key);
+            return true;
+        }
+        return false;
+    }
+
+    private void releaseWeight(K key) {
+        Integer old = weights.remove(key);
+        if (old != null) {
+            weightedSize.addAndGet(-old);
+        }
+    }
+
+    @Override
+    public void clear() {
+        data.clear();
+        weights.clear();
+        weightedSize.set(0);
+    }
+
+    /**
+     * 접근 기록이 없으므로 순서는 보장하지 않는다
+     */
+    @Override
+    public Map<K, V> hottest(int limit) {
+        Map<K, V> result = new LinkedHashMap<>();
+        for (Map.Entry<K, V> entry : data.entrySet()) {
+            if (result.size() >= limit) break;
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        return weightedSize.get();
+    }
+
+    @Override
+    public String policyName() {
+        return CachePolicy.UNBOUNDED.id();
+    }
+}
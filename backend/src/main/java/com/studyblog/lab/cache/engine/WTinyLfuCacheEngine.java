@@ -0,0 +1,421 @@
+package com.studyblog.lab.cache.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU 캐시 엔진 (Caffeine 방식 단순화)
+ *
+ * - Window (전체의 1%, LRU): 새로 들어온 엔트리가 먼저 머무는 곳. 갑작스러운 버스트 흡수
+ * - Main (SLRU): Probation 20% + Protected 80%
+ * - Window에서 밀려난 후보는 Probation의 희생자와 빈도(FrequencySketch)를 비교해 입장 여부 결정
+ *
+ * 조회는 ConcurrentHashMap에서 락 없이 수행하고, 순서 갱신/빈도 기록은 tryLock에 성공했을 때만 한다.
+ * (경합 시 접근 기록 일부를 버리는 lossy read buffer와 같은 효과)
+ */
+public class WTinyLfuCacheEngine<K, V> extends AbstractCacheEngine<K, V> {
+
+    private static final double WINDOW_RATIO = 0.01;
+    private static final double PROTECTED_RATIO = 0.80;
+
+    private enum Region { WINDOW, PROBATION, PROTECTED, REMOVED }
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        int weight;
+        Region region;
+        Node<K, V> prev;
+        Node<K, V> next;
+
+        Node(K key, V value, int weight, Region region) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.region = region;
+        }
+    }
+
+    /**
+     * 침습형 이중 연결 리스트 (head = LRU, tail = MRU)
+     */
+    private static final class AccessOrderDeque<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (tail != node) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final FrequencySketch<K> sketch;
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>();
+
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    // 후보 vs 희생자 비교 결과
+    private long admittedCount;
+    private long rejectedCount;
+
+    public WTinyLfuCacheEngine(long maximumWeight, Weigher<K, V> weigher, RemovalListener<K, V> removalListener) {
+        super(maximumWeight, weigher, removalListener);
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_RATIO));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_RATIO);
+        // 가중치가 1보다 큰 경우 엔트리 수는 maximumWeight보다 작으므로 적당히 상한을 둔다
+        this.sketch = new FrequencySketch<>(Math.min(maximumWeight, 1 << 20));
+    }
+
+    @Override
+    public V get(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            recordMissFrequency(key);
+            return recordAccess(null);
+        }
+
+        V value = node.value;
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(key);
+                onAccess(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return recordAccess(value);
+    }
+
+    private void recordMissFrequency(K key) {
+        // miss도 빈도에 반영해야 재요청되는 키가 나중에 입장 경쟁에서 이긴다
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(key);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int weight = weightOf(key, value);
+
+        List<Node<K, V>> evicted;
+        V previous = null;
+        evictionLock.lock();
+        try {
+            if (weight > maximumWeight) {
+                // 단일 엔트리가 전체 용량보다 크면 저장하지 않는다
+                Node<K, V> existing = data.remove(key);
+                if (existing != null) {
+                    unlinkNode(existing);
+                    previous = existing.value;
+                }
+                evicted = List.of();
+            } else {
+                Node<K, V> existing = data.get(key);
+                if (existing != null) {
+                    previous = existing.value;
+                    existing.value = value;
+                    adjustWeight(existing, weight - existing.weight);
+                    existing.weight = weight;
+                    onAccess(existing);
+                } else {
+                    Node<K, V> node = new Node<>(key, value, weight, Region.WINDOW);
+                    data.put(key, node);
+                    window.addLast(node);
+                    windowWeight += weight;
+                }
+                evicted = evictEntries();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+
+        // 리스너는 락 밖에서 호출 (리스너가 다른 락을 잡아도 교착되지 않도록)
+        if (weight > maximumWeight) {
+            // 저장하지 않은 새 값도 축출로 알려 호출 측이 함께 잡은 자원(타이머, off-heap 청크)을 정리하게 한다
+            notifyEviction(key, value);
+        }
+        for (Node<K, V> node : evicted) {
+            notifyEviction(node.key, node.value);
+        }
+        return previous;
+    }
+
+    @Override
+    public V remove(K key) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (node == null) return null;
+            unlinkNode(node);
+            return node.value;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(K key, V value) {
+        evictionLock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            if (node == null || !Objects.equals(node.value, value)) return false;
+            data.remove(key);
+            unlinkNode(node);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            windowWeight = 0;
+            probationWeight = 0;
+            protectedWeight = 0;
+            sketch.clear();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 추정 빈도가 높은 순서 (같으면 Protected → Probation → Window, 각 영역은 MRU부터)
+     */
+    @Override
+    public Map<K, V> hottest(int limit) {
+        List<Node<K, V>> nodes = new ArrayList<>(data.size());
+        int[] frequencies;
+        evictionLock.lock();
+        try {
+            for (AccessOrderDeque<K, V> deque : List.of(protectedQueue, probation, window)) {
+                for (Node<K, V> node = deque.tail; node != null; node = node.prev) {
+                    nodes.add(node);
+                }
+            }
+            frequencies = new int[nodes.size()];
+            for (int i = 0; i < nodes.size(); i++) {
+                frequencies[i] = sketch.frequency(nodes.get(i).key);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+
+        Integer[] order = new Integer[nodes.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(frequencies[b], frequencies[a]));
+
+        Map<K, V> result = new LinkedHashMap<>();
+        for (int i = 0; i < order.length && result.size() < limit; i++) {
+            Node<K, V> node = nodes.get(order[i]);
+            result.put(node.key, node.value);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + probationWeight + protectedWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public String policyName() {
+        return CachePolicy.W_TINYLFU.id();
+    }
+
+    public long admittedCount() {
+        return admittedCount;
+    }
+
+    public long rejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 접근 시 영역별 순서 갱신
+     * Probation에서 다시 접근되면 Protected로 승격
+     */
+    private void onAccess(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                probation.unlink(node);
+                probationWeight -= node.weight;
+                node.region = Region.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                demoteFromProtected();
+            }
+            case PROTECTED -> protectedQueue.moveToBack(node);
+            case REMOVED -> { }
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaximum && protectedQueue.head != null) {
+            Node<K, V> demoted = protectedQueue.head;
+            protectedQueue.unlink(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.region = Region.PROBATION;
+            probation.addLast(demoted);
+            probationWeight += demoted.weight;
+        }
+    }
+
+    private List<Node<K, V>> evictEntries() {
+        // 1. Window 초과분을 Probation 뒤쪽으로 이동 (입장 후보)
+        int candidates = 0;
+        while (windowWeight > windowMaximum && window.head != null) {
+            Node<K, V> node = window.head;
+            window.unlink(node);
+            windowWeight -= node.weight;
+            node.region = Region.PROBATION;
+            probation.addLast(node);
+            probationWeight += node.weight;
+            candidates++;
+        }
+
+        // 2. 전체 용량 초과 시 후보(Probation tail)와 희생자(Probation head)를 빈도로 비교
+        List<Node<K, V>> evicted = new ArrayList<>(0);
+        while (windowWeight + probationWeight + protectedWeight > maximumWeight) {
+            Node<K, V> victim = probation.head;
+            Node<K, V> candidate = candidates > 0 ? probation.tail : null;
+
+            if (victim == null) {
+                // Probation이 비었으면 Protected → Window 순으로 희생자를 찾는다
+                victim = protectedQueue.head != null ? protectedQueue.head : window.head;
+                if (victim == null) break;
+                evict(victim, evicted);
+                continue;
+            }
+
+            if (candidate == null || candidate == victim) {
+                evict(victim, evicted);
+                candidates = Math.max(0, candidates - 1);
+                continue;
+            }
+
+            if (admit(candidate.key, victim.key)) {
+                admittedCount++;
+                evict(victim, evicted);
+            } else {
+                rejectedCount++;
+                evict(candidate, evicted);
+            }
+            candidates--;
+        }
+        return evicted;
+    }
+
+    /**
+     * 후보 빈도가 희생자보다 높을 때만 입장
+     */
+    private boolean admit(K candidateKey, K victimKey) {
+        return sketch.frequency(candidateKey) > sketch.frequency(victimKey);
+    }
+
+    private void evict(Node<K, V> node, List<Node<K, V>> evicted) {
+        data.remove(node.key, node);
+        unlinkNode(node);
+        evicted.add(node);
+    }
+
+    private void unlinkNode(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> {
+                window.unlink(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> {
+                probation.unlink(node);
+                probationWeight -= node.weight;
+            }
+            case PROTECTED -> {
+                protectedQueue.unlink(node);
+                protectedWeight -= node.weight;
+            }
+            case REMOVED -> { }
+        }
+        node.region = Region.REMOVED;
+    }
+
+    private void adjustWeight(Node<K, V> node, int delta) {
+        switch (node.region) {
+            case WINDOW -> windowWeight += delta;
+            case PROBATION -> probationWeight += delta;
+            case PROTECTED -> protectedWeight += delta;
+            case REMOVED -> { }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.studyblog.lab.cache.engine;
+
+/**
+ * 엔트리 가중치 계산 (예: 문자열 길이 기반 대략적인 메모리 크기)
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    int weigh(K key, V value);
+
+    static <K, V> Weigher<K, V> singleton() {
+        return (key, value) -> 1;
+    }
+}
@@ -0,0 +1,10 @@
+package com.studyblog.lab.cache.expiry;
+
+/**
+ * TTL이 지난 항목을 타이밍 휠이 꺼낼 때 호출되는 리스너
+ */
+@FunctionalInterface
+public interface ExpirationListener<T> {
+
+    void onExpired(T item);
+}
@@ -0,0 +1,281 @@
+package com.studyblog.lab.cache.expiry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 계층형 해시 타이밍 휠 (Kafka / Caffeine TimerWheel 방식)
+ *
+ * 레벨마다 64개의 버킷이 있고, 위 레벨로 갈수록 버킷 하나가 덮는 시간이 64배씩 커진다.
+ *   level 0: 128ms 버킷 → 약 8초
+ *   level 1: 8초 버킷   → 약 9분
+ *   level 2: 9분 버킷   → 약 9시간
+ *   level 3: 9시간 버킷 → 약 24일 (그 이상은 마지막 버킷에 두고 다시 계산)
+ *
+ * 등록/취소는 버킷의 이중 연결 리스트에 넣고 빼는 O(1) 연산이다.
+ * advance()는 지나간 버킷만 비우므로 한 틱의 비용은 만료된 항목 수에 비례한다.
+ * 상위 레벨 버킷이 비워질 때 아직 만료되지 않은 항목은 하위 레벨로 내려간다(cascade).
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BUCKETS_PER_LEVEL = 64;
+    private static final int LEVEL_SHIFT = 6;                // log2(64)
+    private static final int LEVELS = 4;
+
+    /**
+     * 휠에 등록된 타이머 (취소 시 핸들로 사용)
+     */
+    public static final class Timer<T> {
+        private final T item;
+        private final long expireAt;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long expireAt) {
+            this.item = item;
+            this.expireAt = expireAt;
+        }
+
+        public T item() {
+            return item;
+        }
+
+        public long expireAt() {
+            return expireAt;
+        }
+
+        boolean isLinked() {
+            return prev != null;
+        }
+    }
+
+    private final int tickShift;
+    private final long[] spans = new long[LEVELS + 1];
+    private final int[] shifts = new int[LEVELS];
+    private final Timer<T>[][] wheel;
+    private final ExpirationListener<T> listener;
+
+    // 마지막으로 advance()한 시각 - 읽기 경로에서 currentTimeMillis() 대신 쓰는 coarse clock
+    private volatile long currentTime;
+
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder cascaded = new LongAdder();
+    private long pending;
+    private long ticks;
+    private volatile long lastTickExpired;
+    private volatile long lastTickNanos;
+
+    /**
+     * @param tickMs 최소 해상도 (2의 거듭제곱으로 올림)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HierarchicalTimingWheel(long tickMs, long startTime, ExpirationListener<T> listener) {
+        this.tickShift = 64 - Long.numberOfLeadingZeros(Math.max(1, tickMs) - 1);
+        for (int i = 0; i < LEVELS; i++) {
+            shifts[i] = tickShift + LEVEL_SHIFT * i;
+            spans[i] = 1L << shifts[i];
+        }
+        spans[LEVELS] = spans[LEVELS - 1] << LEVEL_SHIFT;
+
+        this.wheel = new Timer[LEVELS][BUCKETS_PER_LEVEL];
+        for (int i = 0; i < LEVELS; i++) {
+            for (int j = 0; j < BUCKETS_PER_LEVEL; j++) {
+                Timer<T> sentinel = new Timer<>(null, Long.MAX_VALUE);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheel[i][j] = sentinel;
+            }
+        }
+        this.listener = listener;
+        this.currentTime = startTime;
+    }
+
+    /**
+     * 만료 시각(epoch ms)에 item을 등록
+     */
+    public Timer<T> schedule(T item, long expireAt) {
+        Timer<T> timer = new Timer<>(item, expireAt);
+        synchronized (this) {
+            link(findBucket(expireAt), timer);
+            pending++;
+        }
+        scheduled.increment();
+        return timer;
+    }
+
+    /**
+     * 등록 취소 (이미 만료/취소된 경우 무시)
+     */
+    public void cancel(Timer<T> timer) {
+        if (timer == null) return;
+        synchronized (this) {
+            if (!timer.isLinked()) return;
+            unlink(timer);
+            pending--;
+        }
+        cancelled.increment();
+    }
+
+    /**
+     * now까지 시간을 진행하고 만료된 항목을 리스너로 넘긴다.
+     * 리스너는 휠 락 밖에서 호출되므로 캐시 엔진 락과 교착되지 않는다.
+     */
+    public int advance(long now) {
+        long start = System.nanoTime();
+        List<T> expiredItems = new ArrayList<>();
+
+        synchronized (this) {
+            long previousTime = currentTime;
+            if (now <= previousTime) {
+                return 0;
+            }
+            currentTime = now;
+            ticks++;
+
+            for (int level = 0; level < LEVELS; level++) {
+                long previousTicks = previousTime >>> shifts[level];
+                long currentTicks = now >>> shifts[level];
+                long delta = currentTicks - previousTicks;
+                if (delta <= 0) break;
+                expireBuckets(level, previousTicks, delta, now, expiredItems);
+            }
+        }
+
+        for (T item : expiredItems) {
+            listener.onExpired(item);
+        }
+        expired.add(expiredItems.size());
+        lastTickExpired = expiredItems.size();
+        lastTickNanos = System.nanoTime() - start;
+        return expiredItems.size();
+    }
+
+    private void expireBuckets(int level, long previousTicks, long delta, long now, List<T> expiredItems) {
+        Timer<T>[] buckets = wheel[level];
+        int mask = BUCKETS_PER_LEVEL - 1;
+        int steps = (int) Math.min(1 + delta, BUCKETS_PER_LEVEL);
+        int start = (int) (previousTicks & mask);
+
+        for (int i = start; i < start + steps; i++) {
+            Timer<T> sentinel = buckets[i & mask];
+            Timer<T> timer = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+
+            while (timer != sentinel) {
+                Timer<T> next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+
+                if (timer.expireAt > now) {
+                    // 아직 남았으면 더 촘촘한 레벨로 재배치
+                    link(findBucket(timer.expireAt), timer);
+                    cascaded.increment();
+                } else {
+                    pending--;
+                    expiredItems.add(timer.item);
+                }
+                timer = next;
+            }
+        }
+    }
+
+    private Timer<T> findBucket(long expireAt) {
+        // 이미 지난 시각은 현재 버킷에 넣어 다음 틱에 바로 만료되게 한다
+        long time = Math.max(expireAt, currentTime);
+        long duration = time - currentTime;
+        for (int level = 0; level < LEVELS - 1; level++) {
+            if (duration < spans[level + 1]) {
+                int index = (int) ((time >>> shifts[level]) & (BUCKETS_PER_LEVEL - 1));
+                return wheel[level][index];
+            }
+        }
+        // 최상위 레벨 범위를 넘는 TTL은 첫 버킷에 두고 돌 때마다 다시 계산
+        int top = LEVELS - 1;
+        if (duration >= spans[LEVELS]) {
+            return wheel[top][0];
+        }
+        int index = (int) ((time >>> shifts[top]) & (BUCKETS_PER_LEVEL - 1));
+        return wheel[top][index];
+    }
+
+    private void link(Timer<T> sentinel, Timer<T> timer) {
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    /**
+     * 모든 타이머 제거
+     */
+    public synchronized void clear() {
+        for (Timer<T>[] level : wheel) {
+            for (Timer<T> sentinel : level) {
+                Timer<T> timer = sentinel.next;
+                while (timer != sentinel) {
+                    Timer<T> next = timer.next;
+                    timer.prev = null;
+                    timer.next = null;
+                    timer = next;
+                }
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+        pending = 0;
+    }
+
+    /**
+     * 마지막 틱 시각 (coarse clock)
+     */
+    public long now() {
+        return currentTime;
+    }
+
+    public long tickMs() {
+        return 1L << tickShift;
+    }
+
+    public long scheduledCount() {
+        return scheduled.sum();
+    }
+
+    public long cancelledCount() {
+        return cancelled.sum();
+    }
+
+    public long expiredCount() {
+        return expired.sum();
+    }
+
+    public long cascadedCount() {
+        return cascaded.sum();
+    }
+
+    public synchronized long pendingCount() {
+        return pending;
+    }
+
+    public synchronized long tickCount() {
+        return ticks;
+    }
+
+    public long lastTickExpired() {
+        return lastTickExpired;
+    }
+
+    public long lastTickMicros() {
+        return lastTickNanos / 1_000;
+    }
+}
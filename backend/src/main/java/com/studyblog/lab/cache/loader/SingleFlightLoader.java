@@ -0,0 +1,135 @@
+package com.studyblog.lab.cache.loader;
+
+import com.studyblog.lab.cache.metrics.LatencyRecorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 요청 병합(Single-Flight) 로더
+ *
+ * 같은 키에 대해 동시에 miss가 나면 첫 요청(leader)만 로더를 실행하고,
+ * 나머지(follower)는 진행 중인 CompletableFuture에 붙어 로드가 끝나는 순간 함께 깨어난다.
+ * 로드가 끝나면 in-flight 맵에서 바로 제거되므로 키마다 락이 쌓이지 않는다.
+ */
+public class SingleFlightLoader<K, V> {
+
+    // 키별 통계는 이 개수까지만 추적 (키 공간이 커도 메모리가 늘지 않게)
+    private static final int MAX_TRACKED_KEYS = 1024;
+
+    public record Result<V>(V value, boolean leader, long waitNanos) { }
+
+    private static final class KeyStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder loads = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+    }
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, KeyStats> keyStats = new ConcurrentHashMap<>();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder totalLoads = new LongAdder();
+    private final LatencyRecorder waitTimes = new LatencyRecorder();
+
+    /**
+     * 키에 대한 로드를 실행하거나, 이미 진행 중인 로드 결과를 기다린다.
+     * 로더가 예외를 던지면 기다리던 follower들도 같은 예외(CompletionException)를 받는다.
+     */
+    public Result<V> load(K key, Supplier<V> loader) {
+        long startTime = System.nanoTime();
+        KeyStats stats = statsFor(key);
+        totalRequests.increment();
+        if (stats != null) stats.requests.increment();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing == null) {
+            // leader - 실제 로드 수행
+            totalLoads.increment();
+            if (stats != null) stats.loads.increment();
+            try {
+                V value = loader.get();
+                future.complete(value);
+                return new Result<>(value, true, 0);
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+
+        // follower - 진행 중인 로드에 합류
+        if (stats != null) stats.coalesced.increment();
+        V value = existing.join();
+        long waitNanos = System.nanoTime() - startTime;
+        waitTimes.recordNanos(waitNanos);
+        return new Result<>(value, false, waitNanos);
+    }
+
+    private KeyStats statsFor(K key) {
+        KeyStats stats = keyStats.get(key);
+        if (stats == null && keyStats.size() < MAX_TRACKED_KEYS) {
+            stats = keyStats.computeIfAbsent(key, k -> new KeyStats());
+        }
+        return stats;
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    public void reset() {
+        keyStats.clear();
+        totalRequests.reset();
+        totalLoads.reset();
+        waitTimes.reset();
+    }
+
+    /**
+     * 키별 병합 비율 (coalesced / requests)
+     */
+    public Map<String, Object> keyStats(K key) {
+        Map<String, Object> result = new HashMap<>();
+        KeyStats stats = keyStats.get(key);
+        long requests = stats != null ? stats.requests.sum() : 0;
+        long coalesced = stats != null ? stats.coalesced.sum() : 0;
+        result.put("key", key);
+        result.put("requests", requests);
+        result.put("loads", stats != null ? stats.loads.sum() : 0);
+        result.put("coalesced", coalesced);
+        result.put("coalescingRatio", requests > 0 ? String.format("%.1f%%", coalesced * 100.0 / requests) : "0%");
+        return result;
+    }
+
+    /**
+     * 전체 통계 + follower 대기 시간 백분위
+     */
+    public Map<String, Object> stats() {
+        long requests = totalRequests.sum();
+        long loads = totalLoads.sum();
+
+        List<Map<String, Object>> perKey = new ArrayList<>();
+        for (K key : keyStats.keySet()) {
+            perKey.add(keyStats(key));
+            if (perKey.size() >= 20) break;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("requests", requests);
+        result.put("loads", loads);
+        result.put("coalesced", requests - loads);
+        result.put("coalescingRatio", requests > 0 ? String.format("%.1f%%", (requests - loads) * 100.0 / requests) : "0%");
+        result.put("inFlight", inFlight.size());
+        result.put("waitTime", waitTimes.percentiles());
+        result.put("perKey", perKey);
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+package com.studyblog.lab.cache.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 캐시 요청 통계 - LongAdder 스트라이프 카운터 + 지연 시간 히스토그램
+ * 요청 경로에서는 카운터 증가와 히스토그램 기록만 하고,
+ * 비율 계산이나 문자열 포맷은 스냅샷을 만들 때로 미룬다.
+ */
+public class CacheMetrics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder dbQueries = new LongAdder();
+    private final LatencyRecorder requestLatency = new LatencyRecorder();
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordDbQuery() {
+        dbQueries.increment();
+    }
+
+    public void recordLatency(long nanos) {
+        requestLatency.recordNanos(nanos);
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long dbQueryCount() {
+        return dbQueries.sum();
+    }
+
+    public LatencyRecorder requestLatency() {
+        return requestLatency;
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        dbQueries.reset();
+        requestLatency.reset();
+    }
+}
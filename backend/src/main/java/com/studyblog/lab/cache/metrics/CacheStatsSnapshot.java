@@ -0,0 +1,49 @@
+package com.studyblog.lab.cache.metrics;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 캐시 통계 불변 스냅샷 - 조회 시점에 한 번 만들어 그대로 응답에 사용
+ */
+@Value
+@Builder
+public class CacheStatsSnapshot {
+    long hitCount;
+    long missCount;
+    long totalRequests;
+    double hitRatio;
+    long dbQueryCount;
+
+    // 저장소
+    int cacheSize;
+    String policy;
+    long maxWeight;
+    long weightedSize;
+    long evictionCount;
+    long expiredCount;
+    long pendingExpiry;
+    long refreshAheadCount;
+    String storage;
+    long offHeapUsedBytes;
+
+    // 웜 스타트 (부팅 시 스냅샷 복원)
+    int warmStartRestored;
+    long warmStartLoadMs;
+    double warmStartHitRatio;
+
+    // 요청 지연 (HdrHistogram)
+    double p50LatencyMs;
+    double p99LatencyMs;
+    double maxLatencyMs;
+
+    boolean redisAvailable;
+    String l2Store;
+
+    /**
+     * 화면 표시용 (예: "87.5%") - 직렬화할 때만 포맷
+     */
+    public String getHitRate() {
+        return totalRequests > 0 ? String.format("%.1f%%", hitRatio * 100) : "0%";
+    }
+}
@@ -0,0 +1,57 @@
+package com.studyblog.lab.cache.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 지연 시간 기록기 - HdrHistogram (마이크로초 단위, 유효숫자 3자리)
+ * 기록은 락 없이 수행되고, 백분위는 조회할 때만 계산한다.
+ */
+public class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, Math.min(nanos / 1_000, HIGHEST_TRACKABLE_MICROS));
+        histogram.recordValue(micros);
+    }
+
+    public long count() {
+        return histogram.getTotalCount();
+    }
+
+    public void reset() {
+        histogram.reset();
+    }
+
+    public double percentileMs(double percentile) {
+        return toMs(histogram.getValueAtPercentile(percentile));
+    }
+
+    public double maxMs() {
+        return toMs(histogram.getMaxValue());
+    }
+
+    /**
+     * p50 / p95 / p99 / p99.9 / max (ms)
+     */
+    public Map<String, Object> percentiles() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("count", count());
+        result.put("p50Ms", percentileMs(50));
+        result.put("p95Ms", percentileMs(95));
+        result.put("p99Ms", percentileMs(99));
+        result.put("p999Ms", percentileMs(99.9));
+        result.put("maxMs", maxMs());
+        return result;
+    }
+
+    private static double toMs(long micros) {
+        return Math.round(micros / 10.0) / 100.0;
+    }
+}
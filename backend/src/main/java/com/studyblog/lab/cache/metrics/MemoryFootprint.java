@@ -0,0 +1,39 @@
+package com.studyblog.lab.cache.metrics;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * 힙 / direct 메모리 사용량과 GC 누적 횟수·시간 스냅샷
+ */
+public record MemoryFootprint(long heapUsed, long directUsed, long gcCount, long gcTimeMs) {
+
+    public static MemoryFootprint capture() {
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+
+        long direct = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                direct = pool.getMemoryUsed();
+            }
+        }
+
+        long heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        return new MemoryFootprint(heap, direct, gcCount, gcTime);
+    }
+
+    /**
+     * System.gc() 후 살아남은 양을 측정 - 반환값은 GC에 걸린 시간(ms)
+     */
+    public static long fullGc() {
+        long start = System.nanoTime();
+        System.gc();
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
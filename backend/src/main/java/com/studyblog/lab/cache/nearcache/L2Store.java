@@ -0,0 +1,47 @@
+package com.studyblog.lab.cache.nearcache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Near Cache의 2차(공유) 저장소 - Redis 또는 로컬 대체 구현
+ */
+public interface L2Store {
+
+    String get(String key);
+
+    void set(String key, String value, long ttlMs);
+
+    void delete(String key);
+
+    /**
+     * 여러 키를 한 번의 왕복으로 조회 (없는 키는 결과에서 빠짐)
+     */
+    Map<String, String> multiGet(Collection<String> keys);
+
+    /**
+     * 여러 키를 한 번의 왕복으로 저장
+     */
+    void multiSet(Map<String, String> values, long ttlMs);
+
+    /**
+     * 다른 인스턴스에 L1 무효화 전파
+     */
+    void publishInvalidation(String originId, String key);
+
+    /**
+     * 무효화 메시지 구독 (originId, key)
+     */
+    void subscribeInvalidations(BiConsumer<String, String> listener);
+
+    /**
+     * prefix로 시작하는 키 전부 삭제
+     */
+    void clear(String prefix);
+
+    String name();
+
+    default void close() {
+    }
+}
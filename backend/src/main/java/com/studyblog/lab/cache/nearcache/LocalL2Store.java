@@ -0,0 +1,104 @@
+package com.studyblog.lab.cache.nearcache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis가 없을 때 쓰는 L2 대체 구현
+ * 프로세스 내 맵 + 리스너 목록으로 Redis 저장소와 Pub/Sub을 흉내 내고,
+ * 왕복마다 simulatedRttMs만큼 지연을 넣어 네트워크 비용을 재현한다.
+ */
+public class LocalL2Store implements L2Store {
+
+    private record Value(String value, long expireAt) { }
+
+    private final ConcurrentHashMap<String, Value> data = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, String>> subscribers = new CopyOnWriteArrayList<>();
+    private final int simulatedRttMs;
+
+    public LocalL2Store(int simulatedRttMs) {
+        this.simulatedRttMs = simulatedRttMs;
+    }
+
+    @Override
+    public String get(String key) {
+        roundTrip();
+        Value v = data.get(key);
+        if (v == null) return null;
+        if (System.currentTimeMillis() > v.expireAt()) {
+            data.remove(key, v);
+            return null;
+        }
+        return v.value();
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMs) {
+        roundTrip();
+        data.put(key, new Value(value, System.currentTimeMillis() + ttlMs));
+    }
+
+    @Override
+    public void delete(String key) {
+        roundTrip();
+        data.remove(key);
+    }
+
+    @Override
+    public Map<String, String> multiGet(Collection<String> keys) {
+        roundTrip();
+        long now = System.currentTimeMillis();
+        Map<String, String> result = new HashMap<>();
+        for (String key : keys) {
+            Value v = data.get(key);
+            if (v != null && now <= v.expireAt()) {
+                result.put(key, v.value());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void multiSet(Map<String, String> values, long ttlMs) {
+        roundTrip();
+        long expireAt = System.currentTimeMillis() + ttlMs;
+        values.forEach((key, value) -> data.put(key, new Value(value, expireAt)));
+    }
+
+    @Override
+    public void publishInvalidation(String originId, String key) {
+        roundTrip();
+        for (BiConsumer<String, String> subscriber : subscribers) {
+            subscriber.accept(originId, key);
+        }
+    }
+
+    @Override
+    public void subscribeInvalidations(BiConsumer<String, String> listener) {
+        subscribers.add(listener);
+    }
+
+    @Override
+    public void clear(String prefix) {
+        data.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    @Override
+    public String name() {
+        return "local-standin";
+    }
+
+    private void roundTrip() {
+        if (simulatedRttMs <= 0) return;
+        try {
+            Thread.sleep(simulatedRttMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.studyblog.lab.cache.nearcache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * L1 / L2 / DB 계층별 통계
+ */
+public class NearCacheStats {
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder dbLoads = new LongAdder();
+    private final LongAdder l2RoundTrips = new LongAdder();
+    private final LongAdder l2Nanos = new LongAdder();
+    private final LongAdder invalidationsSent = new LongAdder();
+    private final LongAdder invalidationsReceived = new LongAdder();
+
+    public void recordL1Hit() {
+        l1Hits.increment();
+    }
+
+    public void recordL2Hit() {
+        l2Hits.increment();
+    }
+
+    public void recordDbLoad() {
+        dbLoads.increment();
+    }
+
+    public void recordL2RoundTrip(long nanos) {
+        l2RoundTrips.increment();
+        l2Nanos.add(nanos);
+    }
+
+    public void recordInvalidationSent() {
+        invalidationsSent.increment();
+    }
+
+    public void recordInvalidationReceived() {
+        invalidationsReceived.increment();
+    }
+
+    public void reset() {
+        l1Hits.reset();
+        l2Hits.reset();
+        dbLoads.reset();
+        l2RoundTrips.reset();
+        l2Nanos.reset();
+        invalidationsSent.reset();
+        invalidationsReceived.reset();
+    }
+
+    public Map<String, Object> toMap() {
+        long l1 = l1Hits.sum();
+        long l2 = l2Hits.sum();
+        long db = dbLoads.sum();
+        long total = l1 + l2 + db;
+        long roundTrips = l2RoundTrips.sum();
+        double avgRttMs = roundTrips > 0 ? l2Nanos.sum() / 1_000_000.0 / roundTrips : 0;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("l1Hits", l1);
+        stats.put("l2Hits", l2);
+        stats.put("dbLoads", db);
+        stats.put("totalRequests", total);
+        stats.put("l1HitRate", total > 0 ? String.format("%.1f%%", l1 * 100.0 / total) : "0%");
+        stats.put("l2HitRate", total > 0 ? String.format("%.1f%%", l2 * 100.0 / total) : "0%");
+        stats.put("l2RoundTrips", roundTrips);
+        stats.put("avgL2RoundTripMs", Math.round(avgRttMs * 100) / 100.0);
+        // L1 hit 1건 = L2 왕복 1회 절약
+        stats.put("roundTripsSaved", l1);
+        stats.put("timeSavedMs", Math.round(l1 * avgRttMs));
+        stats.put("invalidationsSent", invalidationsSent.sum());
+        stats.put("invalidationsReceived", invalidationsReceived.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,118 @@
+package com.studyblog.lab.cache.nearcache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis L2 - 값은 String 키로, L1 무효화는 Pub/Sub 채널로 전파
+ * 메시지 형식: "{originId}|{key}"
+ */
+@Slf4j
+public class RedisL2Store implements L2Store {
+
+    static final String INVALIDATION_CHANNEL = "lab:cache:near:invalidate";
+
+    private final StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+
+    public RedisL2Store(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+
+    @Override
+    public void set(String key, String value, long ttlMs) {
+        redisTemplate.opsForValue().set(key, value, Duration.ofMillis(ttlMs));
+    }
+
+    @Override
+    public void delete(String key) {
+        redisTemplate.delete(key);
+    }
+
+    @Override
+    public Map<String, String> multiGet(Collection<String> keys) {
+        List<String> keyList = new ArrayList<>(keys);
+        List<String> values = redisTemplate.opsForValue().multiGet(keyList); // MGET 1회
+        Map<String, String> result = new HashMap<>();
+        if (values == null) return result;
+        for (int i = 0; i < keyList.size(); i++) {
+            if (values.get(i) != null) {
+                result.put(keyList.get(i), values.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void multiSet(Map<String, String> values, long ttlMs) {
+        // MSET은 TTL을 줄 수 없으므로 PSETEX를 파이프라인으로 묶어 한 번에 전송
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisStringCommands commands = connection.stringCommands();
+            values.forEach((key, value) -> commands.pSetEx(
+                    key.getBytes(StandardCharsets.UTF_8), ttlMs, value.getBytes(StandardCharsets.UTF_8)));
+            return null;
+        });
+    }
+
+    @Override
+    public void publishInvalidation(String originId, String key) {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, originId + "|" + key);
+    }
+
+    @Override
+    public void subscribeInvalidations(BiConsumer<String, String> listener) {
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            int sep = body.indexOf('|');
+            if (sep > 0) {
+                listener.accept(body.substring(0, sep), body.substring(sep + 1));
+            }
+        }, new ChannelTopic(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @Override
+    public void clear(String prefix) {
+        Set<String> keys = redisTemplate.keys(prefix + "*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "redis";
+    }
+
+    @Override
+    public void close() {
+        if (listenerContainer == null) return;
+        try {
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            log.warn("Failed to stop Redis invalidation listener", e);
+        }
+    }
+}
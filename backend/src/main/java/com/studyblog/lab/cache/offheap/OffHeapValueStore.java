@@ -0,0 +1,75 @@
+package com.studyblog.lab.cache.offheap;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 캐시 값(String)을 힙 밖 슬랩에 UTF-8로 저장하는 저장소
+ * 키 인덱스(CacheEngine)는 힙에 두고 엔트리에는 long 핸들만 들고 있는다.
+ * 값은 읽을 때마다 힙으로 복사되므로 수명이 짧은 객체만 생기고 old gen에는 쌓이지 않는다.
+ */
+public class OffHeapValueStore {
+
+    public static final long NO_HANDLE = SlabAllocator.NO_SPACE;
+
+    private final SlabAllocator allocator;
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder freed = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+
+    public OffHeapValueStore(int slabSize, long capacityBytes) {
+        this.allocator = new SlabAllocator(slabSize, capacityBytes);
+    }
+
+    /**
+     * 저장 후 핸들 반환 - 슬랩이 가득 찼거나 값이 너무 크면 NO_HANDLE (호출 측이 힙에 저장)
+     */
+    public long put(String value) {
+        long handle = allocator.store(value.getBytes(StandardCharsets.UTF_8));
+        if (handle != NO_HANDLE) {
+            stored.increment();
+        }
+        return handle;
+    }
+
+    /**
+     * 해제된 핸들이면 null (동시에 축출/교체된 경우)
+     */
+    public String get(long handle) {
+        byte[] bytes = allocator.load(handle);
+        if (bytes == null) {
+            staleReads.increment();
+            return null;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public void free(long handle) {
+        if (allocator.free(handle)) {
+            freed.increment();
+        }
+    }
+
+    public void clear() {
+        allocator.clear();
+    }
+
+    public long usedBytes() {
+        return allocator.usedBytes();
+    }
+
+    public void resetStats() {
+        stored.reset();
+        freed.reset();
+        staleReads.reset();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = allocator.stats();
+        stats.put("stored", stored.sum());
+        stats.put("freed", freed.sum());
+        stats.put("staleReads", staleReads.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,283 @@
+package com.studyblog.lab.cache.offheap;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Direct ByteBuffer 슬랩 할당기 (memcached 방식 size class)
+ *
+ * 슬랩(기본 1MB)을 필요할 때 하나씩 확보해 한 size class(64B, 128B, ... 2배씩)에 배정하고
+ * 같은 크기의 청크로 잘라 쓴다. 해제된 청크는 클래스별 free list로 돌아가 재사용된다.
+ *
+ * 청크 앞 8바이트는 [generation:int][length:int] 헤더다.
+ * 핸들에 generation을 함께 담아 두고, 해제할 때 generation을 올리므로
+ * 이미 해제(재사용)된 청크를 읽으면 load()가 null을 돌려준다 (seqlock 방식 검증).
+ * 할당/해제는 락 안에서, 읽기는 락 없이 수행한다.
+ */
+public final class SlabAllocator {
+
+    /** 공간이 없거나 최대 청크보다 큰 값 */
+    public static final long NO_SPACE = -1L;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MIN_CHUNK_SHIFT = 6; // 64B
+    private static final int GEN_BITS = 24;
+    private static final int GEN_MASK = (1 << GEN_BITS) - 1;
+    private static final int OFFSET_MASK = (1 << 24) - 1;
+    private static final int MAX_SLABS = 1 << 15; // 핸들이 음수(NO_SPACE)가 되지 않도록
+
+    // 헤더를 acquire/release 순서로 읽고 쓰기 위한 뷰 (청크가 64B 정렬이라 int 접근이 항상 정렬됨)
+    private static final VarHandle INT =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final SizeClass[] classes;
+
+    private final ByteBuffer[] slabs;
+    private final int[] slabClass;
+    private final int[] slabCarved; // 슬랩별로 잘라낸 끝 위치
+    private int slabCount;
+
+    private long usedBytes;
+    private long payloadBytes;
+    private long allocationFailures;
+
+    private static final class SizeClass {
+        final int chunkSize;
+        long[] free = new long[64]; // (slab << 32) | offset
+        int freeCount;
+        int currentSlab = -1;
+        int slabs;
+        long usedChunks;
+
+        SizeClass(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        void push(long chunk) {
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = chunk;
+        }
+    }
+
+    /**
+     * @param slabSize      슬랩 하나의 크기 (2의 거듭제곱으로 올림, 64KB ~ 1GB)
+     * @param capacityBytes 확보할 수 있는 direct 메모리 총량
+     */
+    public SlabAllocator(int slabSize, long capacityBytes) {
+        int size = Integer.highestOneBit(Math.max(slabSize, 1 << 16) - 1) << 1;
+        this.slabSize = Math.min(size, 1 << 30);
+        this.maxSlabs = (int) Math.max(1, Math.min(capacityBytes / this.slabSize, MAX_SLABS));
+        this.slabs = new ByteBuffer[maxSlabs];
+        this.slabClass = new int[maxSlabs];
+        this.slabCarved = new int[maxSlabs];
+
+        int classCount = Integer.numberOfTrailingZeros(this.slabSize) - MIN_CHUNK_SHIFT + 1;
+        this.classes = new SizeClass[classCount];
+        for (int i = 0; i < classCount; i++) {
+            classes[i] = new SizeClass(1 << (MIN_CHUNK_SHIFT + i));
+        }
+    }
+
+    /**
+     * 바이트 배열을 슬랩에 복사하고 핸들 반환 (공간이 없으면 NO_SPACE)
+     */
+    public long store(byte[] data) {
+        int cls = classFor(data.length + HEADER_BYTES);
+        if (cls < 0) {
+            synchronized (this) {
+                allocationFailures++;
+            }
+            return NO_SPACE;
+        }
+
+        synchronized (this) {
+            long chunk = takeChunk(cls);
+            if (chunk == NO_SPACE) {
+                allocationFailures++;
+                return NO_SPACE;
+            }
+            int slab = (int) (chunk >>> 32);
+            int offset = (int) chunk;
+            ByteBuffer buffer = slabs[slab];
+
+            buffer.putInt(offset + 4, data.length);
+            buffer.put(offset + HEADER_BYTES, data);
+            int generation = (int) INT.get(buffer, offset) & GEN_MASK;
+
+            classes[cls].usedChunks++;
+            usedBytes += classes[cls].chunkSize;
+            payloadBytes += data.length;
+            return encode(slab, offset, generation);
+        }
+    }
+
+    /**
+     * 핸들이 가리키는 바이트 복사본 (이미 해제/재사용된 청크면 null)
+     */
+    public byte[] load(long handle) {
+        if (handle == NO_SPACE) return null;
+        int slab = slabOf(handle);
+        int offset = offsetOf(handle);
+        int generation = generationOf(handle);
+        ByteBuffer buffer = slabs[slab];
+
+        if (((int) INT.getAcquire(buffer, offset) & GEN_MASK) != generation) {
+            return null;
+        }
+        int length = buffer.getInt(offset + 4);
+        if (length < 0 || length > classes[slabClass[slab]].chunkSize - HEADER_BYTES) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        buffer.get(offset + HEADER_BYTES, data);
+
+        // 복사하는 사이에 해제되지 않았는지 다시 확인
+        VarHandle.acquireFence();
+        if (((int) INT.getVolatile(buffer, offset) & GEN_MASK) != generation) {
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * 청크 반환 - 이미 해제된 핸들이면 false
+     */
+    public synchronized boolean free(long handle) {
+        if (handle == NO_SPACE) return false;
+        int slab = slabOf(handle);
+        int offset = offsetOf(handle);
+        ByteBuffer buffer = slabs[slab];
+
+        int current = (int) INT.get(buffer, offset);
+        if ((current & GEN_MASK) != generationOf(handle)) {
+            return false;
+        }
+        int length = buffer.getInt(offset + 4);
+        bumpGeneration(buffer, offset, current);
+
+        SizeClass sizeClass = classes[slabClass[slab]];
+        sizeClass.push(((long) slab << 32) | offset);
+        sizeClass.usedChunks--;
+        usedBytes -= sizeClass.chunkSize;
+        payloadBytes -= length;
+        return true;
+    }
+
+    /**
+     * 모든 청크 해제 - 슬랩은 그대로 두고 free list만 다시 만든다
+     */
+    public synchronized void clear() {
+        for (SizeClass sizeClass : classes) {
+            sizeClass.freeCount = 0;
+            sizeClass.usedChunks = 0;
+        }
+        for (int slab = 0; slab < slabCount; slab++) {
+            SizeClass sizeClass = classes[slabClass[slab]];
+            ByteBuffer buffer = slabs[slab];
+            for (int offset = 0; offset < slabCarved[slab]; offset += sizeClass.chunkSize) {
+                bumpGeneration(buffer, offset, (int) INT.get(buffer, offset));
+                sizeClass.push(((long) slab << 32) | offset);
+            }
+        }
+        usedBytes = 0;
+        payloadBytes = 0;
+    }
+
+    public long capacityBytes() {
+        return (long) maxSlabs * slabSize;
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized Map<String, Object> stats() {
+        List<Map<String, Object>> classStats = new ArrayList<>();
+        for (SizeClass sizeClass : classes) {
+            if (sizeClass.slabs == 0) continue;
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("chunkSize", sizeClass.chunkSize);
+            stat.put("slabs", sizeClass.slabs);
+            stat.put("usedChunks", sizeClass.usedChunks);
+            stat.put("freeChunks", (long) sizeClass.slabs * (slabSize / sizeClass.chunkSize) - sizeClass.usedChunks);
+            classStats.add(stat);
+        }
+
+        long reserved = (long) slabCount * slabSize;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("slabSize", slabSize);
+        stats.put("slabCount", slabCount);
+        stats.put("maxSlabs", maxSlabs);
+        stats.put("capacityBytes", capacityBytes());
+        stats.put("reservedBytes", reserved);
+        stats.put("usedBytes", usedBytes);
+        stats.put("freeBytes", capacityBytes() - usedBytes);
+        stats.put("payloadBytes", payloadBytes);
+        // 청크 크기 반올림으로 버려지는 비율
+        stats.put("internalFragmentation", usedBytes > 0 ? 1.0 - (double) payloadBytes / usedBytes : 0.0);
+        stats.put("allocationFailures", allocationFailures);
+        stats.put("sizeClasses", classStats);
+        return stats;
+    }
+
+    private long takeChunk(int cls) {
+        SizeClass sizeClass = classes[cls];
+        if (sizeClass.freeCount > 0) {
+            return sizeClass.free[--sizeClass.freeCount];
+        }
+
+        int slab = sizeClass.currentSlab;
+        if (slab < 0 || slabCarved[slab] + sizeClass.chunkSize > slabSize) {
+            if (slabCount == maxSlabs) {
+                return NO_SPACE;
+            }
+            slab = slabCount++;
+            slabs[slab] = ByteBuffer.allocateDirect(slabSize).order(ByteOrder.nativeOrder());
+            slabClass[slab] = cls;
+            sizeClass.currentSlab = slab;
+            sizeClass.slabs++;
+        }
+        int offset = slabCarved[slab];
+        slabCarved[slab] += sizeClass.chunkSize;
+        return ((long) slab << 32) | offset;
+    }
+
+    private int classFor(int size) {
+        if (size > slabSize) return -1;
+        int rounded = Math.max(size, 1 << MIN_CHUNK_SHIFT);
+        return 32 - Integer.numberOfLeadingZeros(rounded - 1) - MIN_CHUNK_SHIFT;
+    }
+
+    private static void bumpGeneration(ByteBuffer buffer, int offset, int current) {
+        // 다음 데이터 쓰기보다 generation 변경이 먼저 보이도록
+        INT.setVolatile(buffer, offset, current + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private static long encode(int slab, int offset, int generation) {
+        return ((long) slab << 48) | ((long) (offset >>> MIN_CHUNK_SHIFT) << GEN_BITS) | generation;
+    }
+
+    private static int slabOf(long handle) {
+        return (int) (handle >>> 48);
+    }
+
+    private static int offsetOf(long handle) {
+        return (int) ((handle >>> GEN_BITS) & OFFSET_MASK) << MIN_CHUNK_SHIFT;
+    }
+
+    private static int generationOf(long handle) {
+        return (int) (handle & GEN_MASK);
+    }
+}
@@ -0,0 +1,122 @@
+package com.studyblog.lab.cache.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 캐시 스냅샷 바이너리 파일 (memory-mapped I/O)
+ *
+ * [magic:int][version:int][count:int][writtenAt:long]
+ * 레코드 × count: [expireAt:long][deltaMs:int][keyLen:int][valueLen:int][key][value] (UTF-8)
+ *
+ * 임시 파일에 전부 쓴 뒤 force() 하고 원자적으로 이름을 바꾸므로
+ * 쓰는 도중 죽어도 이전 스냅샷은 그대로 남는다.
+ */
+public final class CacheSnapshotFile {
+
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 4 + 8;
+    private static final int RECORD_HEADER_BYTES = 8 + 4 + 4 + 4;
+
+    private CacheSnapshotFile() {
+    }
+
+    /**
+     * @return 기록한 파일 크기 (bytes)
+     */
+    public static long write(Path path, List<SnapshotEntry> entries) throws IOException {
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        List<byte[]> values = new ArrayList<>(entries.size());
+        long size = HEADER_BYTES;
+        for (SnapshotEntry entry : entries) {
+            byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+            byte[] value = entry.value().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            values.add(value);
+            size += RECORD_HEADER_BYTES + key.length + value.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large to map: " + size + " bytes");
+        }
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            buffer.putInt(entries.size());
+            buffer.putLong(System.currentTimeMillis());
+            for (int i = 0; i < entries.size(); i++) {
+                SnapshotEntry entry = entries.get(i);
+                buffer.putLong(entry.expireAt());
+                buffer.putInt((int) Math.min(entry.deltaMs(), Integer.MAX_VALUE));
+                buffer.putInt(keys.get(i).length);
+                buffer.putInt(values.get(i).length);
+                buffer.put(keys.get(i));
+                buffer.put(values.get(i));
+            }
+            buffer.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * 파일이 없으면 빈 스냅샷
+     */
+    public static Snapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return new Snapshot(List.of(), 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt snapshot: size " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a cache snapshot (or unsupported version): " + path);
+            }
+            int count = buffer.getInt();
+            long writtenAt = buffer.getLong();
+
+            List<SnapshotEntry> entries = new ArrayList<>(Math.max(0, Math.min(count, 1 << 20)));
+            try {
+                for (int i = 0; i < count; i++) {
+                    long expireAt = buffer.getLong();
+                    int deltaMs = buffer.getInt();
+                    int keyLength = buffer.getInt();
+                    int valueLength = buffer.getInt();
+                    if (keyLength < 0 || valueLength < 0 || (long) keyLength + valueLength > buffer.remaining()) {
+                        throw new IOException("Corrupt snapshot: bad record length at entry " + i);
+                    }
+                    byte[] key = new byte[keyLength];
+                    byte[] value = new byte[valueLength];
+                    buffer.get(key);
+                    buffer.get(value);
+                    entries.add(new SnapshotEntry(new String(key, StandardCharsets.UTF_8),
+                            new String(value, StandardCharsets.UTF_8), expireAt, deltaMs));
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Corrupt snapshot: truncated record", e);
+            }
+            return new Snapshot(entries, writtenAt, size);
+        }
+    }
+
+    public record Snapshot(List<SnapshotEntry> entries, long writtenAt, long fileBytes) { }
+}
@@ -0,0 +1,6 @@
+package com.studyblog.lab.cache.snapshot;
+
+/**
+ * 스냅샷 레코드 - 만료 시각은 절대 시간(epoch ms)으로 저장해 다시 읽을 때 남은 TTL을 계산한다
+ */
+public record SnapshotEntry(String key, String value, long expireAt, long deltaMs) { }
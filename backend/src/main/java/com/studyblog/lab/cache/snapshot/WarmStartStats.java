@@ -0,0 +1,96 @@
+package com.studyblog.lab.cache.snapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 웜 스타트 통계
+ * - 부팅 시 스냅샷 로드 결과 (복원/만료 건수, 로드 시간)
+ * - 부팅 직후 windowSize건 조회의 hit rate (cold start라면 0%에서 시작)
+ * - 주기적 스냅샷 기록 결과
+ */
+public class WarmStartStats {
+
+    private final int windowSize;
+    private final AtomicLong lookups = new AtomicLong();
+    private final LongAdder windowHits = new LongAdder();
+    private final LongAdder restoredHits = new LongAdder();
+
+    private volatile int restoredEntries;
+    private volatile int expiredEntries;
+    private volatile long loadTimeMs;
+    private volatile long loadedFileBytes;
+    private volatile long snapshotAgeMs;
+
+    private volatile long lastSnapshotAt;
+    private volatile int lastSnapshotEntries;
+    private volatile long lastSnapshotBytes;
+    private volatile long lastSnapshotMs;
+
+    public WarmStartStats(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    public void recordLoad(int restored, int expired, long loadTimeMs, long fileBytes, long snapshotAgeMs) {
+        this.restoredEntries = restored;
+        this.expiredEntries = expired;
+        this.loadTimeMs = loadTimeMs;
+        this.loadedFileBytes = fileBytes;
+        this.snapshotAgeMs = snapshotAgeMs;
+    }
+
+    /**
+     * @param restored 스냅샷에서 복원된 엔트리로 hit 했는지
+     */
+    public void recordLookup(boolean hit, boolean restored) {
+        if (hit && restored) {
+            restoredHits.increment();
+        }
+        if (lookups.get() < windowSize && lookups.incrementAndGet() <= windowSize && hit) {
+            windowHits.increment();
+        }
+    }
+
+    public void recordSnapshot(int entries, long bytes, long durationMs) {
+        this.lastSnapshotAt = System.currentTimeMillis();
+        this.lastSnapshotEntries = entries;
+        this.lastSnapshotBytes = bytes;
+        this.lastSnapshotMs = durationMs;
+    }
+
+    public int restoredEntries() {
+        return restoredEntries;
+    }
+
+    public long loadTimeMs() {
+        return loadTimeMs;
+    }
+
+    /**
+     * 부팅 후 첫 windowSize건의 hit rate
+     */
+    public double hitRatio() {
+        long counted = Math.min(lookups.get(), windowSize);
+        return counted > 0 ? (double) windowHits.sum() / counted : 0;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("restoredEntries", restoredEntries);
+        stats.put("expiredEntries", expiredEntries);
+        stats.put("loadTimeMs", loadTimeMs);
+        stats.put("loadedFileBytes", loadedFileBytes);
+        stats.put("snapshotAgeMs", snapshotAgeMs);
+        stats.put("windowSize", windowSize);
+        stats.put("windowLookups", Math.min(lookups.get(), windowSize));
+        stats.put("warmStartHitRate", String.format("%.1f%%", hitRatio() * 100));
+        stats.put("restoredHits", restoredHits.sum());
+        stats.put("lastSnapshotAt", lastSnapshotAt);
+        stats.put("lastSnapshotEntries", lastSnapshotEntries);
+        stats.put("lastSnapshotBytes", lastSnapshotBytes);
+        stats.put("lastSnapshotMs", lastSnapshotMs);
+        return stats;
+    }
+}
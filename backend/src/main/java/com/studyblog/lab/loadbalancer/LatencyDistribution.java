@@ -0,0 +1,61 @@
+package com.studyblog.lab.loadbalancer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 시뮬레이션 서버의 처리 시간 분포 - 평균은 서버 latency로 같고 꼬리 모양만 다르다
+ */
+public enum LatencyDistribution {
+    /** 항상 평균 */
+    CONSTANT("constant"),
+    /** 평균의 0.5 ~ 1.5배 균등 */
+    UNIFORM("uniform"),
+    /** 지수 분포 - 대기열 모델의 기본 가정 */
+    EXPONENTIAL("exponential"),
+    /** 로그 정규 (σ = 1) - 대부분 빠르고 가끔 몇 배 느린 실제 서비스에 가까운 긴 꼬리 */
+    LOGNORMAL("lognormal"),
+    /** 95%는 평균의 약 0.5배, 5%는 10배 (GC 멈춤 같은 간헐적 지연) */
+    BIMODAL("bimodal");
+
+    private static final double LOGNORMAL_SIGMA = 1.0;
+    private static final double BIMODAL_SLOW_RATIO = 0.05;
+    private static final double BIMODAL_SLOW_FACTOR = 10.0;
+
+    private final String label;
+
+    LatencyDistribution(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * 평균이 meanNanos인 처리 시간 하나
+     */
+    public long sampleNanos(double meanNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double sample = switch (this) {
+            case CONSTANT -> meanNanos;
+            case UNIFORM -> meanNanos * (0.5 + random.nextDouble());
+            case EXPONENTIAL -> -meanNanos * Math.log(1 - random.nextDouble());
+            case LOGNORMAL -> Math.exp(Math.log(meanNanos) - LOGNORMAL_SIGMA * LOGNORMAL_SIGMA / 2
+                    + LOGNORMAL_SIGMA * random.nextGaussian());
+            case BIMODAL -> random.nextDouble() < BIMODAL_SLOW_RATIO
+                    ? meanNanos * BIMODAL_SLOW_FACTOR
+                    // 평균이 meanNanos가 되도록 빠른 쪽을 줄인다
+                    : meanNanos * (1 - BIMODAL_SLOW_RATIO * BIMODAL_SLOW_FACTOR) / (1 - BIMODAL_SLOW_RATIO);
+        };
+        return (long) sample;
+    }
+
+    public static LatencyDistribution forName(String name) {
+        for (LatencyDistribution distribution : values()) {
+            if (distribution.label.equalsIgnoreCase(name)) {
+                return distribution;
+            }
+        }
+        throw new IllegalArgumentException("Unknown latency distribution: " + name);
+    }
+}
@@ -43,13 +43,25 @@ public class LoadBalancerController {
     }
 
     /**
-     * Weighted Round Robin
+     * Weighted Round Robin (strategy: smooth, alias)
      */
     @PostMapping("/weighted-round-robin")
     public ResponseEntity<Map<String, Object>> weightedRoundRobin(
-            @RequestParam(defaultValue = "30") int requestCount
+            @RequestParam(defaultValue = "30") int requestCount,
+            @RequestParam(defaultValue = "smooth") String strategy
+    ) {
+        return ResponseEntity.ok(loadBalancerService.weightedRoundRobin(requestCount, strategy));
+    }
+
+    /**
+     * 가중치 선택기 비교 (동시 선택 처리량, 분포 오차, burstiness)
+     */
+    @PostMapping("/weighted-round-robin/compare")
+    public ResponseEntity<Map<String, Object>> compareWeightedSelectors(
+            @RequestParam(defaultValue = "1000000") int selections,
+            @RequestParam(defaultValue = "4") int threads
     ) {
-        return ResponseEntity.ok(loadBalancerService.weightedRoundRobin(requestCount));
+        return ResponseEntity.ok(loadBalancerService.compareWeightedSelectors(selections, threads));
     }
 
     /**
@@ -63,14 +75,78 @@ public class LoadBalancerController {
     }
 
     /**
-     * IP Hash (Sticky Session)
+     * 한 서버가 느릴 때 꼬리 지연 비교 (Round Robin, Least Connections, P2C, Peak EWMA - 동시 요청)
+     */
+    @PostMapping("/latency-aware/compare")
+    public ResponseEntity<Map<String, Object>> compareLatencyAware(
+            @RequestParam(defaultValue = "2000") int requestCount,
+            @RequestParam(defaultValue = "32") int concurrency,
+            @RequestParam(defaultValue = "server-1") String slowServer,
+            @RequestParam(defaultValue = "10") int slowFactor
+    ) {
+        return ResponseEntity.ok(loadBalancerService.compareLatencyAware(requestCount, concurrency, slowServer, slowFactor));
+    }
+
+    /**
+     * 개방형 부하 테스트 (algorithm: round-robin, weighted, least-connections, p2c, peak-ewma)
+     */
+    @PostMapping("/load-test")
+    public ResponseEntity<Map<String, Object>> loadTest(
+            @RequestParam(defaultValue = "p2c") String algorithm,
+            @RequestParam(defaultValue = "2000") int targetRps,
+            @RequestParam(defaultValue = "3000") long durationMs,
+            @RequestParam(defaultValue = "exponential") String distribution,
+            @RequestParam(defaultValue = "4") int slotsPerWeight
+    ) {
+        return ResponseEntity.ok(loadBalancerService.loadTest(algorithm, targetRps, durationMs, distribution, slotsPerWeight));
+    }
+
+    /**
+     * 같은 부하에서 알고리즘별 지연 비교
+     */
+    @PostMapping("/load-test/compare")
+    public ResponseEntity<Map<String, Object>> compareUnderLoad(
+            @RequestParam(defaultValue = "2000") int targetRps,
+            @RequestParam(defaultValue = "3000") long durationMs,
+            @RequestParam(defaultValue = "exponential") String distribution,
+            @RequestParam(defaultValue = "4") int slotsPerWeight
+    ) {
+        return ResponseEntity.ok(loadBalancerService.compareUnderLoad(targetRps, durationMs, distribution, slotsPerWeight));
+    }
+
+    /**
+     * IP Hash (Sticky Session) - Consistent Hashing 링
      */
     @PostMapping("/ip-hash")
     public ResponseEntity<Map<String, Object>> ipHash(
             @RequestParam(defaultValue = "30") int requestCount,
-            @RequestParam(defaultValue = "5") int uniqueClients
+            @RequestParam(defaultValue = "5") int uniqueClients,
+            @RequestParam(defaultValue = "false") boolean bounded
+    ) {
+        return ResponseEntity.ok(loadBalancerService.ipHash(requestCount, uniqueClients, bounded));
+    }
+
+    /**
+     * Consistent Hashing 링 설정 (가상 노드 수, Bounded Loads ε)
+     */
+    @PostMapping("/consistent-hash/config")
+    public ResponseEntity<Map<String, Object>> configureHashRing(
+            @RequestParam(defaultValue = "160") int virtualNodes,
+            @RequestParam(defaultValue = "0.25") double epsilon
+    ) {
+        return ResponseEntity.ok(loadBalancerService.configureHashRing(virtualNodes, epsilon));
+    }
+
+    /**
+     * 서버 하나가 빠질 때 옮겨지는 키 비율 (모듈러 vs Consistent Hashing vs Bounded Loads)
+     */
+    @PostMapping("/consistent-hash/remap")
+    public ResponseEntity<Map<String, Object>> compareHashRemapping(
+            @RequestParam(defaultValue = "100000") int keyCount,
+            @RequestParam(defaultValue = "160") int virtualNodes,
+            @RequestParam(defaultValue = "0.25") double epsilon
     ) {
-        return ResponseEntity.ok(loadBalancerService.ipHash(requestCount, uniqueClients));
+        return ResponseEntity.ok(loadBalancerService.compareHashRemapping(keyCount, virtualNodes, epsilon));
     }
 
     /**
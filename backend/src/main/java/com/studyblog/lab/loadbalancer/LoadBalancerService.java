@@ -1,11 +1,17 @@
 package com.studyblog.lab.loadbalancer;
 
+import com.studyblog.lab.cache.metrics.LatencyRecorder;
+import com.studyblog.lab.loadbalancer.selector.ConsistentHashRing;
+import com.studyblog.lab.loadbalancer.selector.Murmur3;
+import com.studyblog.lab.loadbalancer.selector.PeakEwma;
+import com.studyblog.lab.loadbalancer.selector.WeightedSelector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
@@ -16,10 +22,12 @@ public class LoadBalancerService {
         public String id;
         public int weight;
         public int latencyMs;
-        public boolean healthy;
+        public volatile boolean healthy;
         public AtomicInteger activeConnections = new AtomicInteger(0);
         public AtomicInteger totalRequests = new AtomicInteger(0);
         public AtomicInteger failedHealthChecks = new AtomicInteger(0);
+        // 응답 시간 추정 (P2C / Peak EWMA가 읽는다)
+        public final PeakEwma latencyEwma = new PeakEwma(LATENCY_DECAY_NANOS);
 
         public Server(String id, int weight, int latencyMs) {
             this.id = id;
@@ -36,30 +44,68 @@ public class LoadBalancerService {
             map.put("healthy", healthy);
             map.put("activeConnections", activeConnections.get());
             map.put("totalRequests", totalRequests.get());
+            map.put("latencyEwmaMs", Math.round(latencyEwma.costNanos() / 10_000) / 100.0);
             return map;
         }
     }
 
+    // Peak EWMA 감쇠 시간 상수 - 실험이 몇 초 안에 끝나므로 Finagle 기본값(10초)보다 짧게
+    private static final long LATENCY_DECAY_NANOS = TimeUnit.SECONDS.toNanos(2);
+    // 관측 전인 서버에 요청이 몰려 있으면 피하도록 주는 큰 비용 (Finagle과 같은 방식)
+    private static final double UNKNOWN_LATENCY_PENALTY = 1e12;
+
+    // 부하 테스트 상한 (가상 스레드가 없으면 스레드 수는 LoadGenerator.MAX_PLATFORM_THREADS로 묶이고 나머지는 대기열에 쌓인다)
+    private static final List<String> LOAD_TEST_ALGORITHMS =
+            List.of("round-robin", "weighted", "least-connections", "p2c", "peak-ewma");
+    private static final int MAX_LOAD_TEST_RPS = 20_000;
+    private static final long MAX_LOAD_TEST_DURATION_MS = 30_000;
+    // 가중치 선택기 비교의 스레드 상한 (요청마다 고정 스레드 풀을 만들므로)
+    private static final int MAX_SELECTOR_THREADS = 64;
+    // 지연 인지 비교 상한 (알고리즘 4개를 차례로, 요청마다 sleep하는 고정 스레드 풀로 돌리므로)
+    private static final int MAX_LATENCY_AWARE_CONCURRENCY = 256;
+    private static final int MAX_LATENCY_AWARE_REQUESTS = 20_000;
+
     private final List<Server> servers = new CopyOnWriteArrayList<>();
     private final AtomicInteger roundRobinIndex = new AtomicInteger(0);
-    private final Map<String, String> stickySessionMap = new ConcurrentHashMap<>();
+
+    // 선택 경로가 읽는 healthy 서버 스냅샷 - 상태/구성이 바뀔 때만 새 배열로 교체 (요청마다 필터링하지 않음)
+    private volatile Server[] healthySnapshot = new Server[0];
+    private final Object snapshotLock = new Object();
+
+    // 가중치 선택기 - 스냅샷과 함께 다시 만든다 (각 선택기가 자기 서버 목록을 들고 있어 스냅샷과 어긋나지 않음)
+    private static final List<String> WEIGHTED_STRATEGIES = List.of("smooth", "alias");
+    private volatile Map<String, WeightedSelector<Server>> weightedSelectors = buildWeightedSelectors(List.of());
+
+    // IP Hash용 Consistent Hashing 링 - 스냅샷과 함께 다시 만든다
+    private static final int DEFAULT_VIRTUAL_NODES = 160;
+    private static final double DEFAULT_BOUNDED_LOAD_EPSILON = 0.25;
+    private volatile int virtualNodes = DEFAULT_VIRTUAL_NODES;
+    private volatile double boundedLoadEpsilon = DEFAULT_BOUNDED_LOAD_EPSILON;
+    private volatile ConsistentHashRing<Server> hashRing = new ConsistentHashRing<>(List.of(), s -> s.id, DEFAULT_VIRTUAL_NODES);
 
     /**
      * 서버 풀 초기화
      */
     public Map<String, Object> initServers() {
         servers.clear();
-        stickySessionMap.clear();
         roundRobinIndex.set(0);
-
-        // 다양한 성능의 서버 3대
-        servers.add(new Server("server-1", 3, 50));   // 고성능
-        servers.add(new Server("server-2", 2, 100));  // 중간
-        servers.add(new Server("server-3", 1, 150));  // 저성능
+        servers.addAll(defaultServers());
+        refreshHealthySnapshot();
 
         return getStats();
     }
 
+    /**
+     * 다양한 성능의 서버 3대 (매번 새 인스턴스)
+     */
+    private static List<Server> defaultServers() {
+        return List.of(
+                new Server("server-1", 3, 50),   // 고성능
+                new Server("server-2", 2, 100),  // 중간
+                new Server("server-3", 1, 150)   // 저성능
+        );
+    }
+
     /**
      * 서버 상태 변경 (Health Check 시뮬레이션)
      */
@@ -73,6 +119,7 @@ public class LoadBalancerService {
                 break;
             }
         }
+        refreshHealthySnapshot();
         return getStats();
     }
 
@@ -96,39 +143,205 @@ public class LoadBalancerService {
     }
 
     private Server selectRoundRobin() {
-        List<Server> healthyServers = getHealthyServers();
-        if (healthyServers.isEmpty()) return null;
+        return selectRoundRobin(healthySnapshot, roundRobinIndex);
+    }
+
+    private static Server selectRoundRobin(Server[] pool, AtomicInteger index) {
+        if (pool.length == 0) return null;
 
-        int idx = roundRobinIndex.getAndIncrement() % healthyServers.size();
-        return healthyServers.get(idx);
+        // 카운터가 int 범위를 넘어 음수가 돼도 인덱스가 0 이상이 되도록 floorMod
+        int idx = Math.floorMod(index.getAndIncrement(), pool.length);
+        return pool[idx];
     }
 
     /**
      * Weighted Round Robin 알고리즘
+     * @param strategy smooth (nginx 방식, 결정적) 또는 alias (가중치 랜덤, O(1))
      */
-    public Map<String, Object> weightedRoundRobin(int requestCount) {
+    public Map<String, Object> weightedRoundRobin(int requestCount, String strategy) {
         if (servers.isEmpty()) initServers();
+        weightedSelector(strategy); // 알 수 없는 strategy면 요청 전에 실패
 
         List<Map<String, Object>> results = new ArrayList<>();
+        List<String> sequence = new ArrayList<>(requestCount);
         long startTime = System.currentTimeMillis();
 
-        // weight에 따라 서버 목록 확장
-        List<Server> weightedList = new ArrayList<>();
-        for (Server s : getHealthyServers()) {
-            for (int w = 0; w < s.weight; w++) {
-                weightedList.add(s);
+        for (int i = 0; i < requestCount; i++) {
+            // 매번 현재 선택기를 읽어 도중의 health 변경을 반영
+            Server selected = weightedSelector(strategy).select();
+            if (selected != null) {
+                results.add(executeRequest(selected, i + 1));
+                sequence.add(selected.id);
             }
         }
 
-        for (int i = 0; i < requestCount; i++) {
-            if (!weightedList.isEmpty()) {
-                int idx = i % weightedList.size();
-                Server selected = weightedList.get(idx);
-                results.add(executeRequest(selected, i + 1));
+        String algorithm = strategy.equals("smooth") ? "Smooth Weighted Round Robin" : "Weighted Random (Alias Method)";
+        Map<String, Object> result = buildResult(algorithm, results, System.currentTimeMillis() - startTime);
+        result.put("strategy", strategy);
+        result.put("burstiness", burstiness(sequence, healthySnapshot));
+        return result;
+    }
+
+    public Map<String, Object> weightedRoundRobin(int requestCount) {
+        return weightedRoundRobin(requestCount, "smooth");
+    }
+
+    /**
+     * 가중치 선택기 비교 - 요청 실행 없이 선택만 threads개 스레드에서 동시에 반복
+     * 분포가 가중치와 얼마나 맞는지, 초당 선택 수, 연속 선택(burstiness)을 본다.
+     */
+    public Map<String, Object> compareWeightedSelectors(int selections, int threads) {
+        if (servers.isEmpty()) initServers();
+        validateSelectorComparison(selections, threads);
+        Server[] healthyServers = healthySnapshot;
+        if (healthyServers.length == 0) {
+            throw new IllegalStateException("No healthy servers to select from");
+        }
+        long totalWeight = 0;
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (Server server : healthyServers) {
+            totalWeight += server.weight;
+            weights.put(server.id, server.weight);
+        }
+
+        Map<String, Object> strategies = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (String strategy : WEIGHTED_STRATEGIES) {
+                WeightedSelector<Server> selector = WeightedSelector.forName(
+                        strategy, Arrays.asList(healthyServers), s -> s.weight);
+
+                // 서버별 카운터를 미리 만들어 선택 루프 안에서는 할당이 없게
+                Map<Server, LongAdder> counts = new HashMap<>();
+                for (Server server : healthyServers) {
+                    counts.put(server, new LongAdder());
+                }
+                // 나머지는 앞쪽 스레드가 하나씩 더 맡아 정확히 selections번 선택
+                int perThread = selections / threads;
+                int remainder = selections % threads;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> workers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int quota = perThread + (t < remainder ? 1 : 0);
+                    workers.add(executor.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < quota; i++) {
+                            counts.get(selector.select()).increment();
+                        }
+                        return null;
+                    }));
+                }
+                long startNanos = System.nanoTime();
+                start.countDown();
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+                long elapsedNanos = System.nanoTime() - startNanos;
+
+                Map<String, Object> distribution = new LinkedHashMap<>();
+                double maxShareError = 0;
+                long total = selections;
+                for (Server server : healthyServers) {
+                    long count = counts.get(server).sum();
+                    double share = (double) count / total;
+                    double expected = (double) server.weight / totalWeight;
+                    maxShareError = Math.max(maxShareError, Math.abs(share - expected));
+                    distribution.put(server.id, count);
+                }
+
+                // 연속 선택은 새 선택기로 한 스레드에서 본다 (동시 호출이면 순서가 섞인다)
+                WeightedSelector<Server> sequential = WeightedSelector.forName(
+                        strategy, Arrays.asList(healthyServers), s -> s.weight);
+                List<String> sequence = new ArrayList<>();
+                for (int i = 0; i < Math.min(selections, 10_000); i++) {
+                    sequence.add(sequential.select().id);
+                }
+
+                Map<String, Object> stat = new HashMap<>();
+                stat.put("selections", total);
+                stat.put("distribution", distribution);
+                stat.put("maxShareErrorPercent", maxShareError * 100);
+                stat.put("selectionsPerSec", elapsedNanos > 0 ? total * 1_000_000_000L / elapsedNanos : 0);
+                stat.put("burstiness", burstiness(sequence, healthyServers));
+                strategies.put(strategy, stat);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while comparing selectors", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Selector benchmark failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("threads", threads);
+        result.put("weights", weights);
+        result.put("strategies", strategies);
+        return result;
+    }
+
+    private void validateSelectorComparison(int selections, int threads) {
+        if (threads <= 0 || threads > MAX_SELECTOR_THREADS) {
+            throw new IllegalArgumentException("threads must be between 1 and " + MAX_SELECTOR_THREADS);
+        }
+        if (selections < threads) {
+            throw new IllegalArgumentException("selections must be at least threads (" + threads + ")");
+        }
+    }
+
+    private WeightedSelector<Server> weightedSelector(String strategy) {
+        WeightedSelector<Server> selector = weightedSelectors.get(strategy);
+        if (selector == null) {
+            throw new IllegalArgumentException("Unknown weighted selector: " + strategy);
+        }
+        return selector;
+    }
+
+    private static Map<String, WeightedSelector<Server>> buildWeightedSelectors(List<Server> healthyServers) {
+        Map<String, WeightedSelector<Server>> selectors = new HashMap<>();
+        for (String strategy : WEIGHTED_STRATEGIES) {
+            selectors.put(strategy, WeightedSelector.forName(strategy, healthyServers, s -> s.weight));
+        }
+        return Map.copyOf(selectors);
+    }
+
+    /**
+     * 선택 순서가 얼마나 몰리는지
+     * maxConsecutive = 같은 서버가 연달아 뽑힌 최대 횟수,
+     * maxDeviation = 앞에서부터 t번째까지 서버별 선택 수가 기대값(t × weight / 합)에서 벗어난 최대 폭
+     */
+    private Map<String, Object> burstiness(List<String> sequence, Server[] healthyServers) {
+        Map<String, Double> expectedShare = new HashMap<>();
+        long totalWeight = 0;
+        for (Server server : healthyServers) {
+            totalWeight += server.weight;
+        }
+        for (Server server : healthyServers) {
+            expectedShare.put(server.id, totalWeight == 0 ? 0 : (double) server.weight / totalWeight);
+        }
+
+        Map<String, Integer> counts = new HashMap<>();
+        int maxConsecutive = 0;
+        int run = 0;
+        double maxDeviation = 0;
+        String previous = null;
+        for (int t = 0; t < sequence.size(); t++) {
+            String id = sequence.get(t);
+            run = id.equals(previous) ? run + 1 : 1;
+            maxConsecutive = Math.max(maxConsecutive, run);
+            previous = id;
+            counts.merge(id, 1, Integer::sum);
+            for (Map.Entry<String, Double> entry : expectedShare.entrySet()) {
+                double deviation = Math.abs(counts.getOrDefault(entry.getKey(), 0) - (t + 1) * entry.getValue());
+                maxDeviation = Math.max(maxDeviation, deviation);
             }
         }
 
-        return buildResult("Weighted Round Robin", results, System.currentTimeMillis() - startTime);
+        Map<String, Object> result = new HashMap<>();
+        result.put("maxConsecutive", maxConsecutive);
+        result.put("maxDeviation", Math.round(maxDeviation * 100) / 100.0);
+        return result;
     }
 
     /**
@@ -141,7 +354,7 @@ public class LoadBalancerService {
         long startTime = System.currentTimeMillis();
 
         for (int i = 0; i < requestCount; i++) {
-            Server selected = selectLeastConnections();
+            Server selected = selectLeastConnections(healthySnapshot);
             if (selected != null) {
                 selected.activeConnections.incrementAndGet();
                 results.add(executeRequest(selected, i + 1));
@@ -152,53 +365,417 @@ public class LoadBalancerService {
         return buildResult("Least Connections", results, System.currentTimeMillis() - startTime);
     }
 
-    private Server selectLeastConnections() {
-        return getHealthyServers().stream()
-            .min(Comparator.comparingInt(s -> s.activeConnections.get()))
-            .orElse(null);
+    private static Server selectLeastConnections(Server[] pool) {
+        Server selected = null;
+        int leastConnections = Integer.MAX_VALUE;
+        for (Server server : pool) {
+            int connections = server.activeConnections.get();
+            if (connections < leastConnections) {
+                selected = server;
+                leastConnections = connections;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Power of Two Choices - 무작위로 고른 두 서버 중 비용(응답 시간 추정 × (진행 중 요청 + 1))이 낮은 쪽
+     * 전체를 훑지 않고도(O(1)) 최악의 서버를 거의 피하고, 모든 요청이 같은 "최소" 서버로 몰리는 현상(herding)도 없다.
+     */
+    private static Server selectP2C(Server[] pool) {
+        if (pool.length == 0) return null;
+        if (pool.length == 1) return pool[0];
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(pool.length);
+        int second = random.nextInt(pool.length - 1);
+        if (second >= first) second++;
+        return latencyCost(pool[first]) <= latencyCost(pool[second]) ? pool[first] : pool[second];
     }
 
     /**
-     * IP Hash (Sticky Session) 알고리즘
+     * Peak EWMA - 전체 서버 중 비용이 가장 낮은 서버 (O(n))
      */
-    public Map<String, Object> ipHash(int requestCount, int uniqueClients) {
+    private static Server selectPeakEwma(Server[] pool) {
+        Server selected = null;
+        double lowestCost = Double.MAX_VALUE;
+        for (Server server : pool) {
+            double cost = latencyCost(server);
+            if (cost < lowestCost) {
+                selected = server;
+                lowestCost = cost;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * 응답 시간 추정 × (진행 중 요청 + 1) - 느리거나 밀려 있는 서버일수록 크다
+     */
+    private static double latencyCost(Server server) {
+        double cost = server.latencyEwma.costNanos();
+        int active = server.activeConnections.get();
+        if (cost == 0 && active > 0) {
+            return UNKNOWN_LATENCY_PENALTY + active;
+        }
+        return cost * (active + 1);
+    }
+
+    /**
+     * 비교 실험용 서버 풀 - 기본 구성으로 새로 만든 서버와 자기 스냅샷/선택기를 쓴다
+     * 공유 풀(servers)의 카운터와 health 상태를 초기화하지 않으므로 실험 중에도 다른 요청에 영향이 없다.
+     */
+    private static final class ExperimentPool {
+        private final Server[] servers = defaultServers().toArray(Server[]::new);
+        private final AtomicInteger roundRobinIndex = new AtomicInteger(0);
+        private final WeightedSelector<Server> weighted =
+                WeightedSelector.forName("smooth", Arrays.asList(servers), s -> s.weight);
+
+        Server select(String algorithm) {
+            return switch (algorithm) {
+                case "round-robin" -> selectRoundRobin(servers, roundRobinIndex);
+                case "weighted" -> weighted.select();
+                case "least-connections" -> selectLeastConnections(servers);
+                case "p2c" -> selectP2C(servers);
+                case "peak-ewma" -> selectPeakEwma(servers);
+                default -> throw new IllegalArgumentException("Unknown balancing algorithm: " + algorithm);
+            };
+        }
+
+        Server server(String id) {
+            for (Server server : servers) {
+                if (server.id.equals(id)) {
+                    return server;
+                }
+            }
+            throw new IllegalArgumentException("Unknown server: " + id);
+        }
+    }
+
+    /**
+     * 지연 인지 밸런싱 비교 - 한 서버가 느려졌을 때 알고리즘별 꼬리 지연
+     * concurrency개 스레드가 동시에 요청을 보내므로 진행 중 요청 수와 응답 시간 추정이 실제로 쌓인다.
+     */
+    public Map<String, Object> compareLatencyAware(int requestCount, int concurrency, String slowServerId, int slowFactor) {
+        if (requestCount <= 0 || requestCount > MAX_LATENCY_AWARE_REQUESTS) {
+            throw new IllegalArgumentException("requestCount must be between 1 and " + MAX_LATENCY_AWARE_REQUESTS);
+        }
+        if (concurrency <= 0 || concurrency > MAX_LATENCY_AWARE_CONCURRENCY) {
+            throw new IllegalArgumentException("concurrency must be between 1 and " + MAX_LATENCY_AWARE_CONCURRENCY);
+        }
+        if (slowFactor <= 0) {
+            throw new IllegalArgumentException("slowFactor must be positive");
+        }
+
+        Map<String, Object> algorithms = new LinkedHashMap<>();
+        for (String algorithm : List.of("round-robin", "least-connections", "p2c", "peak-ewma")) {
+            ExperimentPool pool = new ExperimentPool(); // 알고리즘마다 카운터와 응답 시간 추정이 새로 시작
+            Server slow = pool.server(slowServerId);
+            algorithms.put(algorithm, runConcurrent(pool, algorithm, requestCount, concurrency, slow, slowFactor));
+        }
+
+        // 꼬리 지연 비율 (Round Robin = 1) - 처음 요청들은 추정이 없어 느린 서버로도 가므로 p95와 p99를 함께 본다
+        Map<?, ?> roundRobinLatency = (Map<?, ?>) ((Map<?, ?>) algorithms.get("round-robin")).get("latency");
+        Map<String, Object> tailVsRoundRobin = new LinkedHashMap<>();
+        algorithms.forEach((algorithm, stat) -> {
+            Map<?, ?> latency = (Map<?, ?>) ((Map<?, ?>) stat).get("latency");
+            Map<String, Object> ratio = new LinkedHashMap<>();
+            for (String percentile : List.of("p95Ms", "p99Ms")) {
+                double baseline = (double) roundRobinLatency.get(percentile);
+                double value = (double) latency.get(percentile);
+                ratio.put(percentile, baseline > 0 ? Math.round(value / baseline * 1000) / 1000.0 : 0);
+            }
+            tailVsRoundRobin.put(algorithm, ratio);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("requestCount", requestCount);
+        result.put("concurrency", concurrency);
+        result.put("slowServer", slowServerId);
+        result.put("slowFactor", slowFactor);
+        result.put("algorithms", algorithms);
+        result.put("tailVsRoundRobin", tailVsRoundRobin);
+        return result;
+    }
+
+    private static Map<String, Object> runConcurrent(ExperimentPool pool, String algorithm, int requestCount,
+                                                     int concurrency, Server slow, int slowFactor) {
+        LatencyRecorder latency = new LatencyRecorder();
+        AtomicInteger issued = new AtomicInteger();
+        Map<String, AtomicInteger> peakConcurrency = new TreeMap<>();
+        for (Server server : pool.servers) {
+            peakConcurrency.put(server.id, new AtomicInteger());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long startNanos = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < concurrency; t++) {
+                workers.add(executor.submit(() -> {
+                    while (issued.getAndIncrement() < requestCount) {
+                        Server selected = pool.select(algorithm);
+                        if (selected == null) {
+                            throw new IllegalStateException("No healthy servers");
+                        }
+                        int active = selected.activeConnections.incrementAndGet();
+                        peakConcurrency.get(selected.id).accumulateAndGet(active, Math::max);
+                        long start = System.nanoTime();
+                        try {
+                            int serviceMs = selected == slow ? selected.latencyMs * slowFactor / 10 : selected.latencyMs / 10;
+                            Thread.sleep(serviceMs);
+                        } finally {
+                            long rtt = System.nanoTime() - start;
+                            selected.activeConnections.decrementAndGet();
+                            selected.latencyEwma.observe(rtt);
+                            selected.totalRequests.incrementAndGet();
+                            latency.recordNanos(rtt);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running " + algorithm, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(algorithm + " run failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Map<String, Integer> distribution = new TreeMap<>();
+        for (Server server : pool.servers) {
+            distribution.put(server.id, server.totalRequests.get());
+        }
+        Map<String, Object> stat = new HashMap<>();
+        stat.put("latency", latency.percentiles());
+        stat.put("distribution", distribution);
+        stat.put("peakConcurrency", peakConcurrency);
+        stat.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        stat.put("requestsPerSec", requestCount * 1_000_000_000L / Math.max(1, elapsedNanos));
+        stat.put("servers", Arrays.stream(pool.servers).map(Server::toMap).toList());
+        return stat;
+    }
+
+    /**
+     * 개방형 부하 테스트 - targetRps로 durationMs 동안 동시에 요청을 보내며 algorithm으로 분산
+     * 서버는 weight × slotsPerWeight개 슬롯만큼 동시에 처리하고, 처리 시간은 distribution을 따른다 (평균 = latencyMs / 10).
+     */
+    public Map<String, Object> loadTest(String algorithm, int targetRps, long durationMs,
+                                        String distribution, int slotsPerWeight) {
+        validateLoadTest(algorithm, targetRps, durationMs);
+        LatencyDistribution latencyDistribution = LatencyDistribution.forName(distribution);
+        ExperimentPool pool = new ExperimentPool(); // 공유 풀과 별개로 카운터와 응답 시간 추정이 새로 시작
+
+        LoadGenerator generator = new LoadGenerator(
+                List.of(pool.servers), () -> pool.select(algorithm), latencyDistribution, slotsPerWeight);
+        Map<String, Object> result = generator.run(targetRps, durationMs);
+        result.put("algorithm", algorithm);
+        return result;
+    }
+
+    /**
+     * 같은 부하에서 알고리즘별 지연 비교
+     */
+    public Map<String, Object> compareUnderLoad(int targetRps, long durationMs, String distribution, int slotsPerWeight) {
+        Map<String, Object> algorithms = new LinkedHashMap<>();
+        Map<String, Object> p99Ms = new LinkedHashMap<>();
+        for (String algorithm : LOAD_TEST_ALGORITHMS) {
+            Map<String, Object> run = loadTest(algorithm, targetRps, durationMs, distribution, slotsPerWeight);
+            algorithms.put(algorithm, run);
+            p99Ms.put(algorithm, ((Map<?, ?>) run.get("latency")).get("p99Ms"));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("targetRps", targetRps);
+        result.put("durationMs", durationMs);
+        result.put("distribution", distribution);
+        result.put("slotsPerWeight", slotsPerWeight);
+        result.put("algorithms", algorithms);
+        result.put("p99Ms", p99Ms);
+        return result;
+    }
+
+    private void validateLoadTest(String algorithm, int targetRps, long durationMs) {
+        if (!LOAD_TEST_ALGORITHMS.contains(algorithm)) {
+            throw new IllegalArgumentException("Unknown balancing algorithm: " + algorithm);
+        }
+        if (targetRps <= 0 || targetRps > MAX_LOAD_TEST_RPS) {
+            throw new IllegalArgumentException("targetRps must be between 1 and " + MAX_LOAD_TEST_RPS);
+        }
+        if (durationMs <= 0 || durationMs > MAX_LOAD_TEST_DURATION_MS) {
+            throw new IllegalArgumentException("durationMs must be between 1 and " + MAX_LOAD_TEST_DURATION_MS);
+        }
+    }
+
+    /**
+     * IP Hash (Sticky Session) 알고리즘 - Consistent Hashing 링으로 같은 IP는 같은 서버로 (세션 맵 없음)
+     * @param bounded true면 처음 보는 클라이언트를 배정할 때 평균 배정 클라이언트 수의 (1 + ε)배를 넘은 서버는 건너뛴다 (Bounded Loads)
+     *                - 요청을 순서대로 보내므로 활성 연결은 늘 0이라 부하로 쓸 수 없다. 배정된 클라이언트는 그 서버에 머문다.
+     */
+    public Map<String, Object> ipHash(int requestCount, int uniqueClients, boolean bounded) {
         if (servers.isEmpty()) initServers();
 
         List<Map<String, Object>> results = new ArrayList<>();
+        Map<String, Set<String>> clientsPerServer = new TreeMap<>();
+        Map<String, Server> boundedAssignments = new HashMap<>();
         long startTime = System.currentTimeMillis();
 
         for (int i = 0; i < requestCount; i++) {
             String clientIp = "192.168.1." + (i % uniqueClients);
-            Server selected = selectByIpHash(clientIp);
+            Server selected = bounded
+                    ? boundedAssignments.computeIfAbsent(clientIp, ip -> assignBounded(ip, boundedAssignments))
+                    : hashRing.get(clientIp);
             if (selected != null) {
+                selected.activeConnections.incrementAndGet();
                 Map<String, Object> result = executeRequest(selected, i + 1);
+                selected.activeConnections.decrementAndGet();
                 result.put("clientIp", clientIp);
                 results.add(result);
+                clientsPerServer.computeIfAbsent(selected.id, id -> new TreeSet<>()).add(clientIp);
             }
         }
 
-        return buildResult("IP Hash (Sticky Session)", results, System.currentTimeMillis() - startTime);
+        String algorithm = bounded ? "IP Hash (Consistent Hashing, Bounded Loads)" : "IP Hash (Consistent Hashing)";
+        Map<String, Object> result = buildResult(algorithm, results, System.currentTimeMillis() - startTime);
+        result.put("virtualNodes", hashRing.virtualNodes());
+        result.put("bounded", bounded);
+        if (bounded) {
+            result.put("epsilon", boundedLoadEpsilon);
+        }
+        result.put("clientsPerServer", clientsPerServer);
+        return result;
     }
 
-    private Server selectByIpHash(String clientIp) {
-        // 캐시된 세션 확인
-        String cached = stickySessionMap.get(clientIp);
-        if (cached != null) {
-            for (Server s : servers) {
-                if (s.id.equals(cached) && s.healthy) {
-                    return s;
-                }
-            }
+    public Map<String, Object> ipHash(int requestCount, int uniqueClients) {
+        return ipHash(requestCount, uniqueClients, false);
+    }
+
+    /**
+     * 처음 보는 클라이언트의 서버 - 서버마다 지금까지 배정된 클라이언트 수를 부하로 본다 (assignRing과 같은 방식)
+     */
+    private Server assignBounded(String clientIp, Map<String, Server> assignments) {
+        Map<String, Integer> loads = new HashMap<>();
+        for (Server server : assignments.values()) {
+            loads.merge(server.id, 1, Integer::sum);
         }
+        ConsistentHashRing<Server> ring = hashRing;
+        return ring.get(clientIp, s -> loads.getOrDefault(s.id, 0),
+                ring.capacity(assignments.size(), boundedLoadEpsilon));
+    }
 
-        // 새로 해시해서 선택
-        List<Server> healthyServers = getHealthyServers();
-        if (healthyServers.isEmpty()) return null;
+    /**
+     * 링 설정 변경 - 가상 노드 수와 Bounded Loads의 ε
+     */
+    public Map<String, Object> configureHashRing(int virtualNodes, double epsilon) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("epsilon must not be negative: " + epsilon);
+        }
+        this.virtualNodes = virtualNodes;
+        this.boundedLoadEpsilon = epsilon;
+        refreshHealthySnapshot();
 
-        int hash = Math.abs(clientIp.hashCode());
-        Server selected = healthyServers.get(hash % healthyServers.size());
-        stickySessionMap.put(clientIp, selected.id);
-        return selected;
+        Map<String, Object> result = getStats();
+        result.put("virtualNodes", virtualNodes);
+        result.put("epsilon", epsilon);
+        return result;
+    }
+
+    /**
+     * 서버 하나가 빠질 때 옮겨지는 키 비율 비교 - 모듈러 해시 vs Consistent Hashing vs Bounded Loads
+     * 이상적인 값은 빠진 서버가 갖고 있던 키의 비율(약 1/n)이다.
+     */
+    public Map<String, Object> compareHashRemapping(int keyCount, int virtualNodes, double epsilon) {
+        if (servers.isEmpty()) initServers();
+        if (keyCount <= 0) {
+            throw new IllegalArgumentException("keyCount must be positive: " + keyCount);
+        }
+        List<Server> before = Arrays.asList(healthySnapshot);
+        if (before.size() < 2) {
+            throw new IllegalStateException("At least two healthy servers are needed to remove one");
+        }
+        Server leaving = before.get(0);
+        List<Server> after = before.subList(1, before.size());
+
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "10." + ((i >>> 16) & 0xff) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff);
+        }
+
+        ConsistentHashRing<Server> ringBefore = new ConsistentHashRing<>(before, s -> s.id, virtualNodes);
+        ConsistentHashRing<Server> ringAfter = new ConsistentHashRing<>(after, s -> s.id, virtualNodes);
+
+        Map<String, Object> methods = new LinkedHashMap<>();
+        methods.put("modulo", remapStats(assignModulo(keys, before), assignModulo(keys, after), leaving.id));
+        methods.put("consistentHash", remapStats(
+                assignRing(keys, ringBefore, -1), assignRing(keys, ringAfter, -1), leaving.id));
+        methods.put("boundedLoads", remapStats(
+                assignRing(keys, ringBefore, epsilon), assignRing(keys, ringAfter, epsilon), leaving.id));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("keyCount", keyCount);
+        result.put("virtualNodes", virtualNodes);
+        result.put("epsilon", epsilon);
+        result.put("serversBefore", before.size());
+        result.put("removedServer", leaving.id);
+        result.put("methods", methods);
+        return result;
+    }
+
+    private static String[] assignModulo(String[] keys, List<Server> pool) {
+        String[] owners = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            owners[i] = pool.get((int) Math.floorMod(Murmur3.hash64(keys[i]), (long) pool.size())).id;
+        }
+        return owners;
+    }
+
+    /**
+     * 키를 순서대로 링에 배정 - epsilon >= 0이면 지금까지 배정된 키 수를 부하로 보고 상한을 넘은 서버는 건너뛴다
+     */
+    private static String[] assignRing(String[] keys, ConsistentHashRing<Server> ring, double epsilon) {
+        String[] owners = new String[keys.length];
+        Map<String, Integer> loads = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            Server owner = epsilon < 0
+                    ? ring.get(keys[i])
+                    : ring.get(keys[i], s -> loads.getOrDefault(s.id, 0), ring.capacity(i, epsilon));
+            loads.merge(owner.id, 1, Integer::sum);
+            owners[i] = owner.id;
+        }
+        return owners;
+    }
+
+    private static Map<String, Object> remapStats(String[] before, String[] after, String leavingId) {
+        Map<String, Integer> distribution = new TreeMap<>();
+        int remapped = 0;
+        int ownedByLeaving = 0;
+        for (int i = 0; i < before.length; i++) {
+            distribution.merge(before[i], 1, Integer::sum);
+            if (!before[i].equals(after[i])) {
+                remapped++;
+            }
+            if (before[i].equals(leavingId)) {
+                ownedByLeaving++;
+            }
+        }
+        int maxLoad = distribution.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+        double averageLoad = (double) before.length / distribution.size();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("distribution", distribution);
+        stats.put("maxToAverageLoad", Math.round(maxLoad / averageLoad * 1000) / 1000.0);
+        stats.put("remappedPercent", Math.round(remapped * 10000.0 / before.length) / 100.0);
+        stats.put("minimumRemappedPercent", Math.round(ownedByLeaving * 10000.0 / before.length) / 100.0);
+        return stats;
     }
 
     /**
@@ -256,10 +833,11 @@ public class LoadBalancerService {
 
             checkResults.add(check);
         }
+        refreshHealthySnapshot();
 
         Map<String, Object> result = new HashMap<>();
         result.put("checks", checkResults);
-        result.put("healthyServers", getHealthyServers().size());
+        result.put("healthyServers", healthySnapshot.length);
         result.put("totalServers", servers.size());
         return result;
     }
@@ -277,6 +855,7 @@ public class LoadBalancerService {
             // 10번째 요청에서 server-1 장애 발생
             if (i == 10) {
                 servers.get(0).healthy = false;
+                refreshHealthySnapshot();
                 events.add(Map.of(
                     "requestId", i,
                     "event", "server-1 장애 발생!",
@@ -287,6 +866,7 @@ public class LoadBalancerService {
             // 20번째 요청에서 server-1 복구
             if (i == 20) {
                 servers.get(0).healthy = true;
+                refreshHealthySnapshot();
                 events.add(Map.of(
                     "requestId", i,
                     "event", "server-1 복구!",
@@ -311,22 +891,39 @@ public class LoadBalancerService {
     public Map<String, Object> getStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("servers", servers.stream().map(Server::toMap).toList());
-        stats.put("healthyCount", getHealthyServers().size());
+        stats.put("healthyCount", healthySnapshot.length);
         stats.put("totalCount", servers.size());
         return stats;
     }
 
-    private List<Server> getHealthyServers() {
-        return servers.stream().filter(s -> s.healthy).toList();
+    /**
+     * healthy 서버 스냅샷 재생성 - 서버 구성이나 healthy가 바뀐 직후 호출
+     * 잠금 안에서 현재 상태로 다시 만들므로 동시에 바뀌어도 마지막 재생성이 모든 변경을 반영한다.
+     */
+    private void refreshHealthySnapshot() {
+        synchronized (snapshotLock) {
+            int count = 0;
+            Server[] healthyServers = new Server[servers.size()];
+            for (Server server : servers) {
+                if (server.healthy && count < healthyServers.length) {
+                    healthyServers[count++] = server;
+                }
+            }
+            healthySnapshot = Arrays.copyOf(healthyServers, count);
+            weightedSelectors = buildWeightedSelectors(Arrays.asList(healthySnapshot));
+            hashRing = new ConsistentHashRing<>(Arrays.asList(healthySnapshot), s -> s.id, virtualNodes);
+        }
     }
 
     private Map<String, Object> executeRequest(Server server, int requestId) {
+        long start = System.nanoTime();
         try {
             Thread.sleep(server.latencyMs / 10); // 실제 지연 시뮬레이션 (축약)
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
         }
 
+        server.latencyEwma.observe(System.nanoTime() - start);
         server.totalRequests.incrementAndGet();
 
         Map<String, Object> result = new HashMap<>();
@@ -0,0 +1,263 @@
+package com.studyblog.lab.loadbalancer;
+
+import com.studyblog.lab.cache.metrics.LatencyRecorder;
+import com.studyblog.lab.loadbalancer.LoadBalancerService.Server;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * 개방형(open-loop) 부하 생성기 - 응답을 기다리지 않고 목표 RPS 간격대로 요청을 보낸다
+ *
+ * 닫힌 루프(스레드 N개가 응답을 받아야 다음 요청)는 서버가 느려지면 보내는 속도도 함께 줄어 대기열이 드러나지 않는다.
+ * 여기서는 i번째 요청의 예정 시각을 시작 + i / rps로 고정하고 지연을 예정 시각부터 잰다 (coordinated omission 보정).
+ * 요청마다 스레드 하나 - JVM이 가상 스레드를 지원하면(Java 21+) 가상 스레드, 아니면 MAX_PLATFORM_THREADS개짜리 플랫폼 스레드 풀.
+ * 풀이 다 차면 요청은 풀 대기열에서 기다리고, 그 시간도 예정 시각부터 재는 지연에 들어간다.
+ * 서버는 weight × slotsPerWeight개 슬롯으로 동시 처리 수가 제한되어, 처리량보다 많이 받으면 슬롯 대기열이 쌓인다.
+ */
+final class LoadGenerator {
+
+    // Java 17로 빌드하므로 리플렉션으로 찾는다 (없거나 쓸 수 없으면 null - 19/20은 --enable-preview 없이 호출하면 실패한다)
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutor();
+    // 가상 스레드가 없을 때 동시에 띄우는 플랫폼 스레드 상한 (RPS만큼 네이티브 스레드를 만들지 않도록)
+    static final int MAX_PLATFORM_THREADS = 512;
+    // 발행이 끝난 뒤 밀린 요청을 기다리는 최대 시간
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+    // 시간 초과로 인터럽트한 요청이 지연을 기록하고 끝나기를 기다리는 시간
+    private static final long INTERRUPT_GRACE_MS = 1_000;
+
+    /**
+     * 서버별 시뮬레이션 상태 - 처리 슬롯과 서버 기준 지표
+     */
+    private static final class Backend {
+        final Semaphore slots;
+        final int slotCount;
+        final long meanServiceNanos;
+        final LatencyRecorder latency = new LatencyRecorder();
+        final AtomicInteger peakConcurrency = new AtomicInteger();
+        final LongAdder concurrencySum = new LongAdder();
+        final LongAdder requests = new LongAdder();
+
+        Backend(Server server, int slotsPerWeight) {
+            this.slotCount = Math.max(1, server.weight * slotsPerWeight);
+            this.slots = new Semaphore(slotCount, true);
+            // 다른 실습과 같은 축약 (latencyMs / 10)
+            this.meanServiceNanos = TimeUnit.MILLISECONDS.toNanos(server.latencyMs) / 10;
+        }
+    }
+
+    private final List<Server> servers;
+    private final Supplier<Server> balancer;
+    private final LatencyDistribution distribution;
+    private final Map<Server, Backend> backends = new IdentityHashMap<>();
+
+    private final LatencyRecorder latency = new LatencyRecorder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * 예정 시각을 들고 있는 요청 - 드레인 시간 초과로 시작도 못 한 요청의 지연도 기록할 수 있게
+     */
+    private final class Request implements Runnable {
+        final long intendedNanos;
+
+        Request(long intendedNanos) {
+            this.intendedNanos = intendedNanos;
+        }
+
+        @Override
+        public void run() {
+            handle(intendedNanos);
+        }
+    }
+
+    LoadGenerator(List<Server> servers, Supplier<Server> balancer, LatencyDistribution distribution, int slotsPerWeight) {
+        if (slotsPerWeight <= 0) {
+            throw new IllegalArgumentException("slotsPerWeight must be positive: " + slotsPerWeight);
+        }
+        this.servers = servers;
+        this.balancer = balancer;
+        this.distribution = distribution;
+        for (Server server : servers) {
+            backends.put(server, new Backend(server, slotsPerWeight));
+        }
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    /**
+     * targetRps로 durationMs 동안 발행하고, 밀린 요청이 끝날 때까지(최대 DRAIN_TIMEOUT_MS) 기다린 뒤 결과 반환
+     * 그때까지 끝나지 않은 요청은 예정 시각부터 그 순간까지의 지연으로 기록한다 (과부하일수록 빠지면 p99가 낮아 보이므로).
+     */
+    Map<String, Object> run(int targetRps, long durationMs) {
+        long total = targetRps * durationMs / 1000;
+        double intervalNanos = 1_000_000_000.0 / targetRps;
+
+        ExecutorService executor = newPerRequestExecutor();
+        long startNanos = System.nanoTime();
+        long issueEndNanos;
+        boolean completed;
+        try {
+            for (long i = 0; i < total; i++) {
+                long intendedNanos = startNanos + (long) (i * intervalNanos);
+                long waitNanos = intendedNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    LockSupport.parkNanos(waitNanos);
+                }
+                executor.execute(new Request(intendedNanos));
+            }
+            issueEndNanos = System.nanoTime();
+            executor.shutdown();
+            completed = executor.awaitTermination(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            if (!completed) {
+                // 진행 중인 요청은 인터럽트되며 스스로 기록하고, 풀 대기열에서 시작도 못 한 요청은 여기서 기록
+                for (Runnable pending : executor.shutdownNow()) {
+                    recordTimedOut(((Request) pending).intendedNanos, null);
+                }
+                executor.awaitTermination(INTERRUPT_GRACE_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating load", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        List<Map<String, Object>> serverStats = new ArrayList<>();
+        for (Server server : servers) {
+            Backend backend = backends.get(server);
+            long requests = backend.requests.sum();
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("id", server.id);
+            stat.put("requests", requests);
+            stat.put("slots", backend.slotCount);
+            stat.put("meanServiceMs", backend.meanServiceNanos / 1_000_000.0);
+            stat.put("peakConcurrency", backend.peakConcurrency.get());
+            // 요청이 도착한 순간의 진행 중 요청 수 평균
+            stat.put("averageConcurrency", requests == 0 ? 0
+                    : Math.round(backend.concurrencySum.sum() * 100.0 / requests) / 100.0);
+            stat.put("latency", backend.latency.percentiles());
+            serverStats.add(stat);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("threadModel", virtualThreadsAvailable() ? "virtual" : "platform (max " + MAX_PLATFORM_THREADS + ")");
+        result.put("distribution", distribution.label());
+        result.put("targetRps", targetRps);
+        result.put("achievedRps", total * 1_000_000_000L / Math.max(1, issueEndNanos - startNanos));
+        result.put("requests", total);
+        result.put("failed", failed.sum());
+        result.put("timedOut", timedOut.sum());
+        result.put("completed", completed);
+        result.put("durationMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        result.put("latency", latency.percentiles());
+        result.put("servers", serverStats);
+        return result;
+    }
+
+    private void handle(long intendedNanos) {
+        Server server = balancer.get();
+        if (server == null) {
+            failed.increment();
+            return;
+        }
+        Backend backend = backends.get(server);
+        int active = server.activeConnections.incrementAndGet();
+        backend.peakConcurrency.accumulateAndGet(active, Math::max);
+        backend.concurrencySum.add(active);
+        long dispatchedNanos = System.nanoTime();
+        try {
+            backend.slots.acquire();
+            try {
+                TimeUnit.NANOSECONDS.sleep(distribution.sampleNanos(backend.meanServiceNanos));
+            } finally {
+                backend.slots.release();
+            }
+        } catch (InterruptedException e) {
+            // 드레인 시간 초과로 중단된 요청
+            Thread.currentThread().interrupt();
+            server.activeConnections.decrementAndGet();
+            recordTimedOut(intendedNanos, backend);
+            return;
+        }
+        long doneNanos = System.nanoTime();
+        server.activeConnections.decrementAndGet();
+        // 밸런서가 보는 응답 시간 = 보낸 순간부터 (슬롯 대기 포함)
+        server.latencyEwma.observe(doneNanos - dispatchedNanos);
+        server.totalRequests.incrementAndGet();
+        backend.requests.increment();
+        latency.recordNanos(doneNanos - intendedNanos);
+        backend.latency.recordNanos(doneNanos - intendedNanos);
+    }
+
+    /**
+     * 끝나지 못한 요청 - 예정 시각부터 지금까지를 지연으로 (backend는 서버를 고르기 전이면 null)
+     */
+    private void recordTimedOut(long intendedNanos, Backend backend) {
+        long elapsedNanos = System.nanoTime() - intendedNanos;
+        timedOut.increment();
+        latency.recordNanos(elapsedNanos);
+        if (backend != null) {
+            backend.latency.recordNanos(elapsedNanos);
+        }
+    }
+
+    private static ExecutorService newPerRequestExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            ExecutorService executor = newVirtualThreadExecutor(NEW_VIRTUAL_THREAD_EXECUTOR);
+            if (executor != null) {
+                return executor;
+            }
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(MAX_PLATFORM_THREADS, r -> {
+            Thread t = new Thread(r, "lb-load-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 한 번 만들어 보고 되는 경우에만 쓴다 - 메서드가 있어도 preview 기능이면 호출이 실패한다
+     */
+    private static Method findVirtualThreadExecutor() {
+        Method method;
+        try {
+            method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        ExecutorService probe = newVirtualThreadExecutor(method);
+        if (probe == null) {
+            return null;
+        }
+        probe.shutdown();
+        return method;
+    }
+
+    /**
+     * @return 만들 수 없으면 null (플랫폼 스레드 풀로 대신한다)
+     */
+    private static ExecutorService newVirtualThreadExecutor(Method method) {
+        try {
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * 가중치 랜덤 선택 - Vose alias method
+ *
+ * 만들 때 O(n)으로 칸마다 (확률, 대체 서버) 표를 만들고, 선택은 칸 하나를 고른 뒤 동전 한 번으로 끝난다 (O(1)).
+ * 표는 만든 뒤 바뀌지 않고 난수는 ThreadLocalRandom이라 동시 호출에 잠금이 없다.
+ * 장기 비율은 가중치와 같지만 순서는 무작위라 같은 서버가 연달아 뽑힐 수 있다.
+ */
+public class AliasMethodSelector<T> implements WeightedSelector<T> {
+
+    private final Object[] items;
+    private final double[] probability;
+    private final int[] alias;
+    // 가중치 합이 0이면 고를 서버가 없다
+    private final boolean empty;
+
+    public AliasMethodSelector(List<T> items, ToIntFunction<T> weight) {
+        int n = items.size();
+        this.items = items.toArray();
+        this.probability = new double[n];
+        this.alias = new int[n];
+
+        long total = 0;
+        for (T item : items) {
+            int w = weight.applyAsInt(item);
+            if (w < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + w);
+            }
+            total += w;
+        }
+        this.empty = total == 0;
+        if (empty) {
+            return;
+        }
+
+        // 평균이 1이 되도록 늘린 뒤 1보다 작은 칸(small)을 1보다 큰 칸(large)의 몫으로 채운다
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = (double) weight.applyAsInt(items.get(i)) * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 남은 칸은 부동소수점 오차만 남은 것 - 항상 자기 자신
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "alias";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T select() {
+        if (empty) {
+            return null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int column = random.nextInt(items.length);
+        return (T) items[random.nextDouble() < probability[column] ? column : alias[column]];
+    }
+}
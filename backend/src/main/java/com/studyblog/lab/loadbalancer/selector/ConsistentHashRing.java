@@ -0,0 +1,106 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Consistent Hashing 링 - 서버마다 가상 노드 virtualNodes개를 링에 흩어 놓고 키는 시계 방향 첫 노드로 간다
+ *
+ * 서버가 빠지면 그 서버 몫의 키(약 1/n)만 옮겨지고 나머지 키는 그대로다 (모듈러 해시는 거의 전부 옮겨짐).
+ * 가상 노드가 많을수록 서버별 몫이 고르게 된다 (표준편차 ~ 1/sqrt(virtualNodes)).
+ * 링은 만든 뒤 바뀌지 않는 정렬 배열이라 동시 조회에 잠금이 없고, 조회는 이진 탐색 O(log(n × virtualNodes)).
+ * 키 → 서버가 매번 같은 결과로 계산되므로 sticky 세션 맵 없이도 같은 클라이언트가 같은 서버로 간다.
+ */
+public class ConsistentHashRing<T> {
+
+    private final Object[] items;
+    private final int virtualNodes;
+    // 링 위치(오름차순)와 그 위치의 서버 번호
+    private final long[] points;
+    private final int[] owners;
+
+    public ConsistentHashRing(List<T> items, Function<T, String> nodeId, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive: " + virtualNodes);
+        }
+        this.items = items.toArray();
+        this.virtualNodes = virtualNodes;
+
+        int size = this.items.length * virtualNodes;
+        long[][] ring = new long[size][];
+        for (int i = 0; i < this.items.length; i++) {
+            String id = nodeId.apply(items.get(i));
+            for (int v = 0; v < virtualNodes; v++) {
+                ring[i * virtualNodes + v] = new long[]{Murmur3.hash64(id + "#" + v), i};
+            }
+        }
+        Arrays.sort(ring, (a, b) -> Long.compare(a[0], b[0]));
+        this.points = new long[size];
+        this.owners = new int[size];
+        for (int i = 0; i < size; i++) {
+            points[i] = ring[i][0];
+            owners[i] = (int) ring[i][1];
+        }
+    }
+
+    public int virtualNodes() {
+        return virtualNodes;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * 키가 속한 서버 (서버가 없으면 null)
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        return (T) items[owners[firstPointAtOrAfter(Murmur3.hash64(key))]];
+    }
+
+    /**
+     * Consistent Hashing with Bounded Loads - 시계 방향으로 돌며 부하가 capacity 미만인 첫 서버
+     * capacity = ceil((1 + ε) × 평균 부하) 로 잡으면 어떤 서버도 평균의 1+ε배를 넘지 않고,
+     * 넘친 키만 다음 서버로 밀려나므로 서버 변경 시 옮겨지는 키는 여전히 적다.
+     * 모든 서버가 가득 차 있으면 원래 서버를 돌려준다.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String key, ToIntFunction<T> load, long capacity) {
+        if (points.length == 0) {
+            return null;
+        }
+        int start = firstPointAtOrAfter(Murmur3.hash64(key));
+        for (int i = 0; i < points.length; i++) {
+            T candidate = (T) items[owners[(start + i) % points.length]];
+            if (load.applyAsInt(candidate) < capacity) {
+                return candidate;
+            }
+        }
+        return (T) items[owners[start]];
+    }
+
+    /**
+     * 평균 부하의 (1 + epsilon)배 - 새 키 하나를 더한 뒤의 평균으로 잡아 적어도 한 서버는 항상 받을 수 있다
+     */
+    public long capacity(long totalLoad, double epsilon) {
+        if (epsilon < 0) {
+            throw new IllegalArgumentException("epsilon must not be negative: " + epsilon);
+        }
+        return (long) Math.ceil((1 + epsilon) * (totalLoad + 1) / Math.max(1, items.length));
+    }
+
+    private int firstPointAtOrAfter(long hash) {
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        // 마지막 노드 뒤면 링을 한 바퀴 돌아 처음으로
+        return index == points.length ? 0 : index;
+    }
+}
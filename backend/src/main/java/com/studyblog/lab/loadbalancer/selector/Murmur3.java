@@ -0,0 +1,99 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MurmurHash3 x64_128의 앞 64비트 - 암호학적 해시보다 훨씬 빠르고 비트가 고르게 퍼진다
+ * (String.hashCode는 비슷한 IP끼리 값이 몰려 링 위치가 뭉친다)
+ */
+public final class Murmur3 {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private Murmur3() {
+    }
+
+    public static long hash64(String key) {
+        return hash64(key.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    public static long hash64(byte[] data, int seed) {
+        int length = data.length;
+        long h1 = seed & 0xffffffffL;
+        long h2 = seed & 0xffffffffL;
+
+        // 16바이트 블록
+        int blocks = length >>> 4;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLongLittleEndian(data, i << 4);
+            long k2 = getLongLittleEndian(data, (i << 4) + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        // 남은 바이트 (0~15)
+        int tail = blocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = length - 1; i >= tail; i--) {
+            int shift = ((i - tail) & 7) << 3;
+            if (i - tail >= 8) {
+                k2 ^= (long) (data[i] & 0xff) << shift;
+            } else {
+                k1 ^= (long) (data[i] & 0xff) << shift;
+            }
+        }
+        if (length - tail > 8) {
+            h2 ^= mixK2(k2);
+        }
+        if (length - tail > 0) {
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLongLittleEndian(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+}
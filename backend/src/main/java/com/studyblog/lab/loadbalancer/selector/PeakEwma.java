@@ -0,0 +1,49 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+/**
+ * 서버별 응답 시간 추정 - Peak EWMA (Finagle / Linkerd 방식)
+ *
+ * 관측값이 추정보다 크면 바로 그 값으로 올리고(peak), 작으면 지난 시간에 비례한 지수 가중치로 천천히 내린다.
+ * 느려진 서버는 즉시 피하고 회복은 천천히 믿는다.
+ * 조회할 때도 0을 관측한 것처럼 감쇠시키므로 요청을 받지 못한 느린 서버도 시간이 지나면 다시 시도된다.
+ */
+public class PeakEwma {
+
+    private final double decayNanos;
+    private long stampNanos = System.nanoTime();
+    private double costNanos;
+
+    /**
+     * @param decayNanos 감쇠 시간 상수 - 이만큼 지나면 이전 추정의 가중치가 1/e로 줄어든다
+     */
+    public PeakEwma(long decayNanos) {
+        if (decayNanos <= 0) {
+            throw new IllegalArgumentException("decayNanos must be positive: " + decayNanos);
+        }
+        this.decayNanos = decayNanos;
+    }
+
+    public synchronized void observe(long rttNanos) {
+        update(rttNanos);
+    }
+
+    /**
+     * 현재 추정 (ns) - 아직 관측이 없으면 0
+     */
+    public synchronized double costNanos() {
+        return update(0);
+    }
+
+    private double update(long rttNanos) {
+        long now = System.nanoTime();
+        double elapsed = Math.max(0, now - stampNanos);
+        stampNanos = now;
+        if (rttNanos > costNanos) {
+            costNanos = rttNanos;
+        } else {
+            double weight = Math.exp(-elapsed / decayNanos);
+            costNanos = costNanos * weight + rttNanos * (1 - weight);
+        }
+        return costNanos;
+    }
+}
@@ -0,0 +1,59 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Smooth Weighted Round Robin (nginx upstream 방식)
+ *
+ * 매 선택마다 모든 서버의 current에 weight를 더하고, current가 가장 큰 서버를 고른 뒤 그 서버에서 가중치 합을 뺀다.
+ * 가중치 3:2:1이면 a a a b b c 대신 a b a c a b 순서가 되어 한 서버로 요청이 몰리지 않고,
+ * 가중치 합 길이의 목록을 만들지 않으므로 메모리는 서버 수에만 비례한다.
+ * 선택이 O(서버 수)라 서버가 수십 대 이하일 때 쓴다 - current 갱신은 잠금 안에서 한다.
+ */
+public class SmoothWeightedRoundRobin<T> implements WeightedSelector<T> {
+
+    private final Object[] items;
+    private final int[] weights;
+    private final long[] current;
+    private final long totalWeight;
+
+    public SmoothWeightedRoundRobin(List<T> items, ToIntFunction<T> weight) {
+        this.items = items.toArray();
+        this.weights = new int[this.items.length];
+        this.current = new long[this.items.length];
+        long total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weight.applyAsInt(items.get(i));
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + weights[i]);
+            }
+            total += weights[i];
+        }
+        this.totalWeight = total;
+    }
+
+    @Override
+    public String name() {
+        return "smooth";
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T select() {
+        if (totalWeight == 0) {
+            return null;
+        }
+        synchronized (current) {
+            int best = 0;
+            for (int i = 0; i < current.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= totalWeight;
+            return (T) items[best];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.studyblog.lab.loadbalancer.selector;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * 가중치 비례 서버 선택 전략
+ *
+ * 만들 때 받은 서버 목록과 가중치로 고정되고, 목록이 바뀌면 새로 만든다.
+ * 여러 요청 스레드가 동시에 select를 불러도 된다.
+ */
+public interface WeightedSelector<T> {
+
+    String name();
+
+    T select();
+
+    static <T> WeightedSelector<T> forName(String name, List<T> items, ToIntFunction<T> weight) {
+        return switch (name) {
+            case "smooth" -> new SmoothWeightedRoundRobin<>(items, weight);
+            case "alias" -> new AliasMethodSelector<>(items, weight);
+            default -> throw new IllegalArgumentException("Unknown weighted selector: " + name);
+        };
+    }
+}
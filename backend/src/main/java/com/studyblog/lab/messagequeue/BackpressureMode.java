@@ -0,0 +1,32 @@
+package com.studyblog.lab.messagequeue;
+
+/**
+ * 브로커 버퍼가 한도를 넘었을 때 Producer를 다루는 방식
+ */
+public enum BackpressureMode {
+    /** Consumer가 따라잡을 때까지 최대 maxBlockMs 대기, 그래도 넘으면 실패 */
+    BLOCK("block"),
+    /** 바로 실패 */
+    FAIL_FAST("fail-fast"),
+    /** 가장 느린 Consumer Group의 오프셋을 앞으로 밀어 오래된 메시지를 버린다 */
+    DROP_OLDEST("drop-oldest");
+
+    private final String label;
+
+    BackpressureMode(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static BackpressureMode forName(String name) {
+        for (BackpressureMode mode : values()) {
+            if (mode.label.equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown backpressure mode: " + name);
+    }
+}
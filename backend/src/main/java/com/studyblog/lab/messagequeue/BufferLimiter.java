@@ -0,0 +1,391 @@
+package com.studyblog.lab.messagequeue;
+
+import com.studyblog.lab.messagequeue.log.LogRecord;
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+import com.studyblog.lab.messagequeue.log.TopicPartition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntToLongFunction;
+
+/**
+ * 브로커 버퍼 한도와 Producer backpressure
+ *
+ * 버퍼 = 파티션마다 가장 느린 Consumer Group이 아직 커밋하지 않은 바이트.
+ * 발행 전에 파티션 한도와 브로커 전체 한도를 확인하고, 넘으면 mode에 따라 기다리거나(BLOCK), 바로 실패하거나(FAIL_FAST),
+ * 느린 그룹의 오프셋을 밀어 오래된 메시지를 버린다(DROP_OLDEST).
+ * 멈춘 Consumer Group이 있어도 보관량이 한도에서 멈추므로 링 버퍼 힙과 로그 page cache가 평평하게 유지된다.
+ * Consumer Group이 없는 파티션은 기다릴 대상이 없으므로 제한하지 않는다 (retention만 적용).
+ *
+ * 확인과 append 사이에 다른 Producer가 끼어들지 않도록, 확인을 통과하면 append가 끝날 때까지 그 바이트를
+ * 파티션/브로커 예약 카운터에 CAS로 잡아 둔다 (append 후에는 로그 쪽 버퍼로 잡히므로 예약을 푼다).
+ * 동시에 확인을 통과한 Producer들이 함께 한도를 넘는 일은 없고, 잠깐 두 번 세어 한도보다 일찍 막힐 수는 있다.
+ */
+final class BufferLimiter {
+
+    /**
+     * 커밋 오프셋이 offset보다 뒤처진 그룹을 offset으로 옮기고 건너뛴 메시지 수 반환
+     */
+    @FunctionalInterface
+    interface OffsetSkipper {
+        long skipTo(int partition, long offset);
+    }
+
+    // 커밋 알림을 받지 않고 짧게 쉬며 다시 확인 (Consumer 커밋 경로를 건드리지 않는다)
+    private static final long BLOCK_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Map<Integer, TopicPartition> partitions;
+    // 파티션별 가장 느린 그룹의 커밋 오프셋 (그룹이 없으면 -1)
+    private final IntToLongFunction slowestCommitted;
+    private final OffsetSkipper skipper;
+
+    private volatile long partitionLimitBytes = -1;
+    private volatile long brokerLimitBytes = -1;
+    private volatile BackpressureMode mode = BackpressureMode.BLOCK;
+    private volatile long maxBlockMs;
+
+    // append 중인(확인은 통과했지만 아직 로그에 없는) 바이트
+    private final Map<Integer, AtomicLong> reservedBytes = new ConcurrentHashMap<>();
+    private final AtomicLong brokerReservedBytes = new AtomicLong();
+
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder blockedProducers = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private final LongAdder droppedRecords = new LongAdder();
+
+    BufferLimiter(Map<Integer, TopicPartition> partitions, IntToLongFunction slowestCommitted, OffsetSkipper skipper) {
+        this.partitions = partitions;
+        this.slowestCommitted = slowestCommitted;
+        this.skipper = skipper;
+    }
+
+    /**
+     * @param partitionLimitBytes 파티션당 버퍼 상한 (-1이면 무제한)
+     * @param brokerLimitBytes    전체 파티션 합 상한 (-1이면 무제한)
+     */
+    void configure(long partitionLimitBytes, long brokerLimitBytes, BackpressureMode mode, long maxBlockMs) {
+        if (maxBlockMs < 0) {
+            throw new IllegalArgumentException("maxBlockMs must not be negative: " + maxBlockMs);
+        }
+        this.partitionLimitBytes = partitionLimitBytes;
+        this.brokerLimitBytes = brokerLimitBytes;
+        this.mode = mode;
+        this.maxBlockMs = maxBlockMs;
+    }
+
+    long maxBlockMs() {
+        return maxBlockMs;
+    }
+
+    boolean enabled() {
+        return partitionLimitBytes >= 0 || brokerLimitBytes >= 0;
+    }
+
+    /**
+     * partition에 bytes를 더 써도 되는지 확인하고 예약 - 필요하면 기다리거나 오래된 메시지를 버린다
+     * append가 끝나면(실패해도) 반환값으로 release를 불러야 한다.
+     * @return 예약한 바이트 (한도가 꺼져 있으면 0)
+     * @throws IllegalStateException FAIL_FAST로 거절됐거나 BLOCK이 maxBlockMs 안에 풀리지 않았을 때
+     */
+    long acquire(int partition, long bytes) {
+        if (!enabled()) {
+            return 0;
+        }
+        if (tryReserve(partition, bytes)) {
+            return bytes;
+        }
+        long limit = Math.min(partitionLimitBytes >= 0 ? partitionLimitBytes : Long.MAX_VALUE,
+                brokerLimitBytes >= 0 ? brokerLimitBytes : Long.MAX_VALUE);
+        if (bytes > limit) {
+            throw new IllegalArgumentException("Append of " + bytes + " bytes exceeds buffer limit " + limit);
+        }
+        switch (mode) {
+            case FAIL_FAST -> {
+                rejectedCount.increment();
+                throw new IllegalStateException("Buffer full for partition " + partition + " ("
+                        + bufferedBytes(partition) + " bytes unconsumed)");
+            }
+            case DROP_OLDEST -> dropOldest(partition, bytes);
+            case BLOCK -> block(partition, bytes);
+        }
+        return bytes;
+    }
+
+    /**
+     * append가 끝난 바이트의 예약 해제 (이제 로그의 버퍼로 잡힌다)
+     */
+    void release(int partition, long reserved) {
+        if (reserved == 0) {
+            return;
+        }
+        reserved(partition).addAndGet(-reserved);
+        brokerReservedBytes.addAndGet(-reserved);
+    }
+
+    /**
+     * 한도 안이면 bytes를 예약하고 true
+     * 예약 카운터를 먼저 읽고 로그 버퍼를 나중에 읽는다 - 그 사이 예약을 푼 append는 이미 로그에 있으므로 빠뜨리지 않는다.
+     * 읽은 뒤 다른 예약/해제가 있었으면 CAS가 실패해 처음부터 다시 확인한다.
+     */
+    private boolean tryReserve(int partition, long bytes) {
+        AtomicLong partitionReserved = reserved(partition);
+        while (true) {
+            long partitionPending = partitionReserved.get();
+            long brokerPending = brokerReservedBytes.get();
+            if (overLimit(partition, partitionPending + bytes, brokerPending + bytes)) {
+                return false;
+            }
+            if (!partitionReserved.compareAndSet(partitionPending, partitionPending + bytes)) {
+                continue;
+            }
+            if (brokerReservedBytes.compareAndSet(brokerPending, brokerPending + bytes)) {
+                return true;
+            }
+            partitionReserved.addAndGet(-bytes);
+        }
+    }
+
+    private AtomicLong reserved(int partition) {
+        return reservedBytes.computeIfAbsent(partition, p -> new AtomicLong());
+    }
+
+    private void block(int partition, long bytes) {
+        blockedProducers.increment();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxBlockMs);
+        try {
+            while (!tryReserve(partition, bytes)) {
+                if (System.nanoTime() - deadline >= 0) {
+                    rejectedCount.increment();
+                    throw new IllegalStateException("Timed out after " + maxBlockMs
+                            + " ms waiting for consumers to drain partition " + partition);
+                }
+                LockSupport.parkNanos(BLOCK_POLL_NANOS);
+            }
+        } finally {
+            blockedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 파티션 한도를 넘었으면 그 파티션에서, 브로커 한도를 넘었으면 버퍼가 가장 큰 파티션에서 앞부분을 버린다
+     */
+    private void dropOldest(int partition, long bytes) {
+        for (int attempt = 0; attempt <= partitions.size(); attempt++) {
+            if (tryReserve(partition, bytes)) {
+                return;
+            }
+            long partitionExcess = partitionLimitBytes >= 0
+                    ? bufferedBytes(partition) + reserved(partition).get() + bytes - partitionLimitBytes : 0;
+            if (partitionExcess > 0) {
+                droppedRecords.add(skipper.skipTo(partition, offsetToFree(partition, partitionExcess)));
+            } else {
+                int largest = largestBuffer();
+                long brokerExcess = bufferedBytes() + brokerReservedBytes.get() + bytes - brokerLimitBytes;
+                droppedRecords.add(skipper.skipTo(largest, offsetToFree(largest, brokerExcess)));
+            }
+        }
+        if (!tryReserve(partition, bytes)) {
+            rejectedCount.increment();
+            throw new IllegalStateException("Could not free buffer space for partition " + partition);
+        }
+    }
+
+    /**
+     * 앞에서부터 excess 바이트 이상을 비우는 가장 작은 오프셋 (bytesFrom이 단조 감소하므로 이진 탐색)
+     */
+    private long offsetToFree(int partition, long excess) {
+        TopicPartition partitionLog = partitions.get(partition);
+        long low = Math.max(slowestCommitted.applyAsLong(partition), partitionLog.logStartOffset());
+        long high = partitionLog.logEndOffset();
+        long keepBytes = partitionLog.bytesFrom(low) - excess;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (partitionLog.bytesFrom(mid) <= keepBytes) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private int largestBuffer() {
+        int largest = -1;
+        long largestBytes = -1;
+        for (int partition : partitions.keySet()) {
+            long bytes = bufferedBytes(partition);
+            if (bytes > largestBytes) {
+                largest = partition;
+                largestBytes = bytes;
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * @param partitionBytes 파티션 버퍼에 더할 바이트 (다른 Producer의 예약 포함)
+     * @param brokerBytes    브로커 전체 버퍼에 더할 바이트 (다른 Producer의 예약 포함)
+     */
+    private boolean overLimit(int partition, long partitionBytes, long brokerBytes) {
+        long partitionLimit = partitionLimitBytes;
+        long brokerLimit = brokerLimitBytes;
+        return (partitionLimit >= 0 && bufferedBytes(partition) + partitionBytes > partitionLimit)
+                || (brokerLimit >= 0 && bufferedBytes() + brokerBytes > brokerLimit);
+    }
+
+    long bufferedBytes(int partition) {
+        TopicPartition partitionLog = partitions.get(partition);
+        long slowest = slowestCommitted.applyAsLong(partition);
+        return partitionLog == null || slowest < 0 ? 0 : partitionLog.bytesFrom(slowest);
+    }
+
+    long bufferedBytes() {
+        long total = 0;
+        for (int partition : partitions.keySet()) {
+            total += bufferedBytes(partition);
+        }
+        return total;
+    }
+
+    /**
+     * 추가 전에 acquire, 추가 후에 release를 거치는 파티션 뷰 (produce와 배치 Producer의 Sender가 쓴다)
+     */
+    TopicPartition guard(int partition) {
+        TopicPartition delegate = partitions.get(partition);
+        if (delegate == null) {
+            return null;
+        }
+        return new GuardedPartition(partition, delegate);
+    }
+
+    void resetStats() {
+        blockedNanos.reset();
+        blockedProducers.reset();
+        rejectedCount.reset();
+        droppedRecords.reset();
+    }
+
+    Map<String, Object> stats() {
+        Map<Integer, Long> partitionBytes = new TreeMap<>();
+        for (int partition : partitions.keySet()) {
+            partitionBytes.put(partition, bufferedBytes(partition));
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("mode", mode.label());
+        stats.put("partitionLimitBytes", partitionLimitBytes);
+        stats.put("brokerLimitBytes", brokerLimitBytes);
+        stats.put("maxBlockMs", maxBlockMs);
+        stats.put("bufferBytes", partitionBytes.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("partitionBufferBytes", partitionBytes);
+        stats.put("reservedBytes", brokerReservedBytes.get());
+        stats.put("blockedProducerMs", TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()));
+        stats.put("blockedProducers", blockedProducers.sum());
+        stats.put("rejectedCount", rejectedCount.sum());
+        stats.put("droppedRecords", droppedRecords.sum());
+        return stats;
+    }
+
+    /**
+     * append 전에 버퍼 한도를 확인하는 것 말고는 그대로 위임
+     */
+    private final class GuardedPartition implements TopicPartition {
+
+        private final int partition;
+        private final TopicPartition delegate;
+
+        GuardedPartition(int partition, TopicPartition delegate) {
+            this.partition = partition;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String type() {
+            return delegate.type();
+        }
+
+        @Override
+        public long append(List<SimpleRecord> records) throws IOException {
+            long bytes = 0;
+            for (SimpleRecord record : records) {
+                bytes += RecordBatch.estimateSize(record.key(), record.value());
+            }
+            long reserved = acquire(partition, bytes);
+            try {
+                return delegate.append(records);
+            } finally {
+                release(partition, reserved);
+            }
+        }
+
+        @Override
+        public long appendBatch(ByteBuffer batch) throws IOException {
+            long reserved = acquire(partition, batch.remaining());
+            try {
+                return delegate.appendBatch(batch);
+            } finally {
+                release(partition, reserved);
+            }
+        }
+
+        @Override
+        public List<LogRecord> read(long offset, int maxRecords) {
+            return delegate.read(offset, maxRecords);
+        }
+
+        @Override
+        public boolean awaitAppend(long offset, long timeoutNanos) throws InterruptedException {
+            return delegate.awaitAppend(offset, timeoutNanos);
+        }
+
+        @Override
+        public long logStartOffset() {
+            return delegate.logStartOffset();
+        }
+
+        @Override
+        public long logEndOffset() {
+            return delegate.logEndOffset();
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return delegate.sizeInBytes();
+        }
+
+        @Override
+        public long bytesFrom(long offset) {
+            return delegate.bytesFrom(offset);
+        }
+
+        @Override
+        public int applyRetention(long now) throws IOException {
+            return delegate.applyRetention(now);
+        }
+
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+
+        @Override
+        public void delete() throws IOException {
+            delegate.delete();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.studyblog.lab.messagequeue;
+
+import com.studyblog.lab.messagequeue.log.LogRecord;
+import com.studyblog.lab.messagequeue.log.TopicPartition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Consumer Group 하나의 백그라운드 소비 실행기
+ *
+ * 할당된 (Consumer, 파티션)마다 워커 하나가 poll 루프를 돈다 - 최대 maxPollRecords개를 읽고,
+ * 레코드마다 처리 시간을 흉내 낸 뒤 위치를 전진시키고, autoCommit이면 poll 단위로 커밋한다.
+ * 파티션은 한 번에 한 워커만 담당하므로 파티션 수만큼 병렬로 소비한다.
+ * 리밸런싱 때는 회수할 파티션의 워커만 멈추고 (처리 중인 레코드까지는 마친다) 처리한 위치를 커밋한 뒤,
+ * 새 할당에서 워커가 없는 파티션에만 워커를 띄운다. 옮기지 않는 파티션의 워커는 그대로 돈다.
+ */
+@Slf4j
+final class ConsumerGroupRuntime {
+
+    private static final long POLL_BACKOFF_MS = 10;
+    private static final long POLL_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    /**
+     * @param processingTimeMs 레코드 하나 처리 시간 (시뮬레이션)
+     * @param maxPollRecords   poll 한 번에 가져오는 최대 레코드 수
+     * @param autoCommit       poll마다 처리한 위치까지 자동 커밋
+     */
+    record Settings(int processingTimeMs, int maxPollRecords, boolean autoCommit) {
+
+        Settings {
+            if (maxPollRecords <= 0) {
+                throw new IllegalArgumentException("maxPollRecords must be positive: " + maxPollRecords);
+            }
+        }
+    }
+
+    private final String groupId;
+    private final Settings settings;
+    private final IntFunction<TopicPartition> logs;
+    private final MessageQueueService.GroupOffsets offsets;
+    private final ExecutorService executor;
+    private final LongAdder totalConsumed;
+
+    // 파티션 → 담당 워커
+    private final Map<Integer, PartitionWorker> workers = new TreeMap<>();
+    private final LongAdder consumed = new LongAdder();
+    private final long startedNanos = System.nanoTime();
+
+    ConsumerGroupRuntime(String groupId, Settings settings, IntFunction<TopicPartition> logs,
+                         MessageQueueService.GroupOffsets offsets, ExecutorService executor, LongAdder totalConsumed) {
+        this.groupId = groupId;
+        this.settings = settings;
+        this.logs = logs;
+        this.offsets = offsets;
+        this.executor = executor;
+        this.totalConsumed = totalConsumed;
+    }
+
+    /**
+     * 현재 할당에서 워커가 없는 파티션에 워커 시작
+     * @return 새로 시작한 워커 수
+     */
+    synchronized int assign(List<MessageQueueService.ConsumerInfo> consumers) {
+        int started = 0;
+        for (MessageQueueService.ConsumerInfo consumer : consumers) {
+            for (int partition : consumer.assignedPartitions) {
+                if (workers.containsKey(partition)) continue;
+                PartitionWorker worker = new PartitionWorker(consumer, partition);
+                worker.future = executor.submit(worker);
+                workers.put(partition, worker);
+                started++;
+            }
+        }
+        log.debug("Group {} started {} partition workers ({} running)", groupId, started, workers.size());
+        return started;
+    }
+
+    /**
+     * 모든 워커를 멈추고 처리한 위치까지 커밋 (종료 시)
+     */
+    synchronized void revoke() {
+        revoke(new ArrayList<>(workers.keySet()));
+    }
+
+    /**
+     * 지정한 파티션의 워커만 멈추고 처리한 위치까지 커밋 (리밸런싱 전)
+     */
+    synchronized void revoke(Collection<Integer> partitions) {
+        List<PartitionWorker> stopping = new ArrayList<>();
+        for (int partition : partitions) {
+            PartitionWorker worker = workers.remove(partition);
+            if (worker != null) {
+                worker.running = false;
+                stopping.add(worker);
+            }
+        }
+        for (PartitionWorker worker : stopping) {
+            try {
+                worker.future.get(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("Worker for partition {} of group {} did not stop in time", worker.partition, groupId);
+                worker.future.cancel(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Worker for partition {} of group {} failed: {}", worker.partition, groupId, e.getMessage());
+            }
+            if (settings.autoCommit() && worker.lastProcessedOffset >= 0) {
+                offsets.commit(worker.partition, worker.lastProcessedOffset + 1);
+            }
+        }
+    }
+
+    Settings settings() {
+        return settings;
+    }
+
+    synchronized Map<String, Object> status() {
+        List<Map<String, Object>> workerStats = new ArrayList<>();
+        for (PartitionWorker worker : workers.values()) {
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("consumerId", worker.consumer.consumerId);
+            stat.put("partition", worker.partition);
+            stat.put("consumedCount", worker.consumed.sum());
+            stat.put("lastProcessedOffset", worker.lastProcessedOffset);
+            stat.put("paused", worker.consumer.paused);
+            workerStats.add(stat);
+        }
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+
+        Map<String, Object> status = new HashMap<>();
+        status.put("groupId", groupId);
+        status.put("processingTimeMs", settings.processingTimeMs());
+        status.put("maxPollRecords", settings.maxPollRecords());
+        status.put("autoCommit", settings.autoCommit());
+        status.put("consumedCount", consumed.sum());
+        status.put("recordsPerSec", seconds > 0 ? consumed.sum() / seconds : 0);
+        status.put("workers", workerStats);
+        return status;
+    }
+
+    /**
+     * 파티션 하나를 맡는 poll 루프
+     */
+    private final class PartitionWorker implements Runnable {
+
+        private final MessageQueueService.ConsumerInfo consumer;
+        private final int partition;
+        private final LongAdder consumed = new LongAdder();
+        private volatile boolean running = true;
+        private volatile long lastProcessedOffset = -1;
+        private Future<?> future;
+
+        PartitionWorker(MessageQueueService.ConsumerInfo consumer, int partition) {
+            this.consumer = consumer;
+            this.partition = partition;
+        }
+
+        @Override
+        public void run() {
+            TopicPartition partitionLog = logs.apply(partition);
+            if (partitionLog == null) return;
+            try {
+                while (running) {
+                    if (consumer.paused) {
+                        Thread.sleep(POLL_BACKOFF_MS);
+                        continue;
+                    }
+                    long position = offsets.position(partition, partitionLog.logStartOffset());
+                    List<LogRecord> records = partitionLog.read(position, settings.maxPollRecords());
+                    if (records.isEmpty()) {
+                        // 새 레코드가 추가될 때까지 대기 (로그는 모니터, 링 버퍼는 대기 전략)
+                        partitionLog.awaitAppend(position, POLL_TIMEOUT_NANOS);
+                        continue;
+                    }
+                    for (LogRecord record : records) {
+                        // 멈추라는 신호가 오면 처리 중인 레코드까지만 하고 나머지는 다음 담당자에게
+                        if (!running) break;
+                        process(record);
+                    }
+                    if (settings.autoCommit() && lastProcessedOffset >= 0) {
+                        offsets.commit(partition, lastProcessedOffset + 1);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void process(LogRecord record) throws InterruptedException {
+            if (settings.processingTimeMs() > 0) {
+                Thread.sleep(settings.processingTimeMs());
+            }
+            offsets.seek(partition, record.offset() + 1);
+            lastProcessedOffset = record.offset();
+            consumer.consumedCount.increment();
+            consumer.lastConsumedOffset = record.offset();
+            consumed.increment();
+            ConsumerGroupRuntime.this.consumed.increment();
+            totalConsumed.increment();
+        }
+    }
+}
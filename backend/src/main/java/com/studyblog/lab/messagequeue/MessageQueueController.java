@@ -1,9 +1,16 @@
 package com.studyblog.lab.messagequeue;
 
+import com.studyblog.lab.messagequeue.log.FileSlice;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.channels.Channels;
 import java.util.Map;
 
 @RestController
@@ -11,6 +18,12 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class MessageQueueController {
 
+    // Tomcat sendfile 요청 속성 (DefaultServlet과 같은 방식)
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     private final MessageQueueService messageQueueService;
 
     /**
@@ -18,9 +31,11 @@ public class MessageQueueController {
      */
     @PostMapping("/topic/init")
     public ResponseEntity<Map<String, Object>> initTopic(
-            @RequestParam(defaultValue = "3") int partitions
+            @RequestParam(defaultValue = "3") int partitions,
+            @RequestParam(defaultValue = "log") String type,
+            @RequestParam(defaultValue = "blocking") String waitStrategy
     ) {
-        return ResponseEntity.ok(messageQueueService.initTopic(partitions));
+        return ResponseEntity.ok(messageQueueService.initTopic(partitions, type, waitStrategy));
     }
 
     /**
@@ -45,6 +60,34 @@ public class MessageQueueController {
         return ResponseEntity.ok(messageQueueService.produceBulk(messageCount, keyCount));
     }
 
+    /**
+     * 배치 Producer로 대량 발행 (batchSize/linger/압축)
+     */
+    @PostMapping("/produce/batched")
+    public ResponseEntity<Map<String, Object>> produceBatched(
+            @RequestParam(defaultValue = "10000") int messageCount,
+            @RequestParam(defaultValue = "10") int keyCount,
+            @RequestParam(defaultValue = "16384") int batchSize,
+            @RequestParam(defaultValue = "5") long lingerMs,
+            @RequestParam(defaultValue = "none") String compression
+    ) {
+        return ResponseEntity.ok(messageQueueService.produceBatched(messageCount, keyCount, batchSize, lingerMs, compression));
+    }
+
+    /**
+     * 단건 발행 vs 배치 발행 처리량 비교
+     */
+    @PostMapping("/produce/compare")
+    public ResponseEntity<Map<String, Object>> compareProducers(
+            @RequestParam(defaultValue = "10000") int messageCount,
+            @RequestParam(defaultValue = "10") int keyCount,
+            @RequestParam(defaultValue = "16384") int batchSize,
+            @RequestParam(defaultValue = "5") long lingerMs,
+            @RequestParam(defaultValue = "deflate") String compression
+    ) {
+        return ResponseEntity.ok(messageQueueService.compareProducers(messageCount, keyCount, batchSize, lingerMs, compression));
+    }
+
     /**
      * Consumer 등록
      */
@@ -78,6 +121,164 @@ public class MessageQueueController {
         return ResponseEntity.ok(messageQueueService.consume(groupId, processingTimeMs, autoCommit));
     }
 
+    /**
+     * 파티션 할당 전략 변경 (round-robin | cooperative-sticky)
+     */
+    @PostMapping("/consumer/assignor")
+    public ResponseEntity<Map<String, Object>> setAssignor(
+            @RequestParam(defaultValue = "cooperative-sticky") String strategy
+    ) {
+        return ResponseEntity.ok(messageQueueService.setAssignor(strategy));
+    }
+
+    /**
+     * 최근 리밸런싱 비용 (파티션 이동 수, 멈춘 시간)
+     */
+    @GetMapping("/rebalance/history")
+    public ResponseEntity<Map<String, Object>> getRebalanceHistory(
+            @RequestParam(required = false) String groupId
+    ) {
+        return ResponseEntity.ok(messageQueueService.getRebalanceHistory(groupId));
+    }
+
+    /**
+     * 할당 전략별 리밸런싱 비용 비교 (Consumer 증감 시나리오)
+     */
+    @GetMapping("/rebalance/compare")
+    public ResponseEntity<Map<String, Object>> compareAssignors(
+            @RequestParam(defaultValue = "120") int partitions,
+            @RequestParam(defaultValue = "12") int maxConsumers
+    ) {
+        return ResponseEntity.ok(messageQueueService.compareAssignors(partitions, maxConsumers));
+    }
+
+    /**
+     * 백그라운드 소비 시작 (할당된 파티션마다 워커 스레드)
+     */
+    @PostMapping("/consume/start")
+    public ResponseEntity<Map<String, Object>> startConsuming(
+            @RequestParam(defaultValue = "group-1") String groupId,
+            @RequestParam(defaultValue = "10") int processingTimeMs,
+            @RequestParam(defaultValue = "100") int maxPollRecords,
+            @RequestParam(defaultValue = "true") boolean autoCommit
+    ) {
+        return ResponseEntity.ok(messageQueueService.startConsuming(groupId, processingTimeMs, maxPollRecords, autoCommit));
+    }
+
+    /**
+     * 백그라운드 소비 종료
+     */
+    @PostMapping("/consume/stop")
+    public ResponseEntity<Map<String, Object>> stopConsuming(
+            @RequestParam(defaultValue = "group-1") String groupId
+    ) {
+        return ResponseEntity.ok(messageQueueService.stopConsuming(groupId));
+    }
+
+    /**
+     * 백그라운드 소비 상태
+     */
+    @GetMapping("/consume/status")
+    public ResponseEntity<Map<String, Object>> getConsumerRuntime(
+            @RequestParam(defaultValue = "group-1") String groupId
+    ) {
+        return ResponseEntity.ok(messageQueueService.getConsumerRuntime(groupId));
+    }
+
+    /**
+     * Consumer 일시 정지
+     */
+    @PostMapping("/consumer/pause")
+    public ResponseEntity<Map<String, Object>> pauseConsumer(
+            @RequestParam String consumerId
+    ) {
+        return ResponseEntity.ok(messageQueueService.pauseConsumer(consumerId, true));
+    }
+
+    /**
+     * Consumer 재개
+     */
+    @PostMapping("/consumer/resume")
+    public ResponseEntity<Map<String, Object>> resumeConsumer(
+            @RequestParam String consumerId
+    ) {
+        return ResponseEntity.ok(messageQueueService.pauseConsumer(consumerId, false));
+    }
+
+    /**
+     * 수동 오프셋 커밋 (autoCommit=false로 소비한 경우)
+     */
+    @PostMapping("/commit")
+    public ResponseEntity<Map<String, Object>> commit(
+            @RequestParam(defaultValue = "group-1") String groupId
+    ) {
+        return ResponseEntity.ok(messageQueueService.commit(groupId));
+    }
+
+    /**
+     * Consumer Lag 조회 (로그 끝 - 커밋된 오프셋)
+     */
+    @GetMapping("/lag")
+    public ResponseEntity<Map<String, Object>> getLag(
+            @RequestParam(defaultValue = "group-1") String groupId
+    ) {
+        return ResponseEntity.ok(messageQueueService.getLag(groupId));
+    }
+
+    /**
+     * 오프셋 지정 읽기 (메시지를 지우지 않음)
+     */
+    @GetMapping("/fetch")
+    public ResponseEntity<Map<String, Object>> fetch(
+            @RequestParam(defaultValue = "0") int partition,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "10") int maxRecords
+    ) {
+        return ResponseEntity.ok(messageQueueService.fetch(partition, offset, maxRecords));
+    }
+
+    /**
+     * 바이너리 fetch - 세그먼트 구간을 RecordBatch 프레임 그대로 전송 (per-message Map/JSON 변환 없음)
+     * 본문 = [baseOffset:8][batchLength:4][batchLength bytes] 반복, 첫 배치에서 offset 앞의 레코드는 받는 쪽이 건너뛴다.
+     * Tomcat이 sendfile을 지원하면 파일 이름과 구간만 넘겨 커널이 페이지 캐시에서 소켓으로 바로 보낸다 (zero-copy).
+     * 경로는 컴팩션이 덮어쓰지 않고 빠진 세그먼트도 유예 시간 뒤에 지우므로 Tomcat이 열 때까지 같은 내용이다.
+     * sendfile이 없으면 빌려 둔 세그먼트 채널에서 서블릿 스트림으로 복사한다 (JDK 버퍼를 거치지만 JSON 변환은 없다).
+     */
+    @GetMapping("/fetch/binary")
+    public ResponseEntity<StreamingResponseBody> fetchBinary(
+            @RequestParam(defaultValue = "0") int partition,
+            @RequestParam(defaultValue = "0") long offset,
+            @RequestParam(defaultValue = "1048576") int maxBytes,
+            HttpServletRequest request
+    ) throws IOException {
+        FileSlice slice = messageQueueService.fetchSlice(partition, offset, maxBytes);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentLength(slice.sizeInBytes());
+        headers.set("X-Partition", String.valueOf(partition));
+        headers.set("X-First-Offset", String.valueOf(slice.firstOffset()));
+        headers.set("X-Next-Offset", String.valueOf(slice.nextOffset()));
+        headers.set("X-Log-End-Offset", String.valueOf(slice.logEndOffset()));
+        if (slice.sizeInBytes() == 0) {
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat은 경로로 다시 열므로 빌린 채널은 바로 반납한다 (파일은 유예 시간 동안 남는다)
+            try (slice) {
+                request.setAttribute(SENDFILE_FILENAME, slice.file().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, slice.position());
+                request.setAttribute(SENDFILE_END, slice.position() + slice.sizeInBytes());
+            }
+            return ResponseEntity.ok().headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers)
+                .body(out -> {
+                    try (slice) {
+                        slice.transferTo(Channels.newChannel(out));
+                    }
+                });
+    }
+
     /**
      * 메시지 보장 수준 시뮬레이션
      */
@@ -90,6 +291,29 @@ public class MessageQueueController {
         return ResponseEntity.ok(messageQueueService.simulateDeliveryGuarantee(guaranteeType, messageCount, failRate));
     }
 
+    /**
+     * 보장 수준별 유실/중복과 처리량 비용 비교
+     */
+    @PostMapping("/guarantee/compare")
+    public ResponseEntity<Map<String, Object>> compareDeliveryGuarantees(
+            @RequestParam(defaultValue = "100000") int messageCount,
+            @RequestParam(defaultValue = "10") int failRate
+    ) {
+        return ResponseEntity.ok(messageQueueService.compareDeliveryGuarantees(messageCount, failRate));
+    }
+
+    /**
+     * 큐 구현별 전달 비교 (LinkedBlockingQueue / ArrayBlockingQueue / 링 버퍼 대기 전략별)
+     */
+    @PostMapping("/queue/compare")
+    public ResponseEntity<Map<String, Object>> compareQueues(
+            @RequestParam(defaultValue = "1000000") int messageCount,
+            @RequestParam(defaultValue = "1") int producers,
+            @RequestParam(defaultValue = "1024") int bufferSize
+    ) {
+        return ResponseEntity.ok(messageQueueService.compareQueues(messageCount, producers, bufferSize));
+    }
+
     /**
      * 통계 조회
      */
@@ -97,4 +321,33 @@ public class MessageQueueController {
     public ResponseEntity<Map<String, Object>> getStats() {
         return ResponseEntity.ok(messageQueueService.getStats());
     }
+
+    /**
+     * 브로커 버퍼 한도와 backpressure 방식 (block / fail-fast / drop-oldest, -1 = 무제한)
+     */
+    @PostMapping("/backpressure")
+    public ResponseEntity<Map<String, Object>> setBackpressure(
+            @RequestParam(defaultValue = "block") String mode,
+            @RequestParam(defaultValue = "-1") long partitionBytes,
+            @RequestParam(defaultValue = "-1") long brokerBytes,
+            @RequestParam(defaultValue = "5000") long maxBlockMs
+    ) {
+        return ResponseEntity.ok(messageQueueService.setBackpressure(mode, partitionBytes, brokerBytes, maxBlockMs));
+    }
+
+    /**
+     * 닫힌 세그먼트 컴팩션 (키마다 마지막 값만 남김)
+     */
+    @PostMapping("/log/compact")
+    public ResponseEntity<Map<String, Object>> compactLogs() {
+        return ResponseEntity.ok(messageQueueService.compactLogs());
+    }
+
+    /**
+     * 파티션 로그 세그먼트 상태
+     */
+    @GetMapping("/log/stats")
+    public ResponseEntity<Map<String, Object>> getLogStats() {
+        return ResponseEntity.ok(messageQueueService.getLogStats());
+    }
 }
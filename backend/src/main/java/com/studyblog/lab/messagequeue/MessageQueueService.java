@@ -1,33 +1,117 @@
 package com.studyblog.lab.messagequeue;
 
+import com.studyblog.lab.messagequeue.assignor.CooperativeStickyAssignor;
+import com.studyblog.lab.messagequeue.assignor.PartitionAssignor;
+import com.studyblog.lab.messagequeue.log.CompactionResult;
+import com.studyblog.lab.messagequeue.log.CompressionType;
+import com.studyblog.lab.messagequeue.log.FileSlice;
+import com.studyblog.lab.messagequeue.log.LogConfig;
+import com.studyblog.lab.messagequeue.log.LogRecord;
+import com.studyblog.lab.messagequeue.log.PartitionLog;
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+import com.studyblog.lab.messagequeue.log.TopicPartition;
+import com.studyblog.lab.messagequeue.producer.BatchingProducer;
+import com.studyblog.lab.messagequeue.producer.ProducerConfig;
+import com.studyblog.lab.messagequeue.producer.RecordMetadata;
+import com.studyblog.lab.messagequeue.ring.ProducerType;
+import com.studyblog.lab.messagequeue.ring.QueueHandoffBenchmark;
+import com.studyblog.lab.messagequeue.ring.RingBufferPartition;
+import com.studyblog.lab.messagequeue.ring.WaitStrategy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Service
 @Slf4j
 public class MessageQueueService {
 
-    // 파티션별 메시지 큐
-    private final Map<Integer, BlockingQueue<Message>> partitions = new ConcurrentHashMap<>();
-    // Consumer Group별 오프셋
-    private final Map<String, Map<Integer, Long>> consumerOffsets = new ConcurrentHashMap<>();
-    // 메시지 통계
-    private final AtomicLong producedCount = new AtomicLong(0);
-    private final AtomicLong consumedCount = new AtomicLong(0);
+    // 파티션 저장소 - "log": append-only 커밋 로그 (mmap 세그먼트 + sparse index, 재시작 후에도 유지)
+    //               "ring": 메모리 링 버퍼 (최근 capacity개만 보관)
+    private final Map<Integer, TopicPartition> partitions = new ConcurrentHashMap<>();
+    // Consumer Group별 오프셋 - 읽기 위치(position)와 커밋된 오프셋(committed)을 따로 관리
+    private final Map<String, GroupOffsets> consumerOffsets = new ConcurrentHashMap<>();
+
+    @Value("${lab.mq.log.dir:${java.io.tmpdir}/study-blog/mq}")
+    private String logDir;
+    @Value("${lab.mq.log.segment-bytes:1048576}")
+    private int segmentBytes;
+    @Value("${lab.mq.log.index-interval-bytes:4096}")
+    private int indexIntervalBytes;
+    @Value("${lab.mq.log.retention-bytes:67108864}")
+    private long retentionBytes;
+    @Value("${lab.mq.log.retention-ms:3600000}")
+    private long retentionMs;
+    @Value("${lab.mq.log.compaction.enabled:false}")
+    private volatile boolean compactionEnabled;
+    @Value("${lab.mq.backpressure.mode:block}")
+    private String backpressureMode;
+    @Value("${lab.mq.backpressure.partition-bytes:-1}")
+    private long partitionBufferBytes;
+    @Value("${lab.mq.backpressure.broker-bytes:-1}")
+    private long brokerBufferBytes;
+    @Value("${lab.mq.backpressure.max-block-ms:5000}")
+    private long maxBlockMs;
+    @Value("${lab.mq.ring.capacity:65536}")
+    private int ringCapacity;
+    private volatile String partitionType = "log";
+    private volatile String ringWaitStrategy = "blocking";
+    // 메시지 통계 (여러 Producer 스레드가 같은 카운터 캐시 라인을 두고 경합하지 않도록 LongAdder)
+    private final LongAdder producedCount = new LongAdder();
+    private final LongAdder consumedCount = new LongAdder();
     private final AtomicLong duplicateCount = new AtomicLong(0);
     private final AtomicLong lostCount = new AtomicLong(0);
 
     // Consumer 상태
     private final Map<String, ConsumerInfo> consumers = new ConcurrentHashMap<>();
-    private volatile boolean isConsuming = false;
-    private ExecutorService consumerExecutor;
+    // Consumer Group별 백그라운드 소비 실행기 (startConsuming ~ stopConsuming)
+    private final Map<String, ConsumerGroupRuntime> runtimes = new ConcurrentHashMap<>();
+    // 파티션 할당 전략과 최근 리밸런싱 기록
+    private volatile PartitionAssignor assignor = new CooperativeStickyAssignor();
+    private final Map<String, AtomicInteger> generations = new ConcurrentHashMap<>();
+    private final Deque<RebalanceEvent> rebalanceHistory = new ConcurrentLinkedDeque<>();
+    private static final int REBALANCE_HISTORY_SIZE = 50;
+    private final ExecutorService consumerExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "mq-consumer-worker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 로그 컴팩션은 전용 스레드 하나에서만 (스케줄러 스레드나 요청 스레드를 오래 잡지 않는다)
+    private final ExecutorService logCleaner = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mq-log-cleaner");
+        t.setDaemon(true);
+        return t;
+    });
+    private final LongAdder compactionRuns = new LongAdder();
+    private final LongAdder compactedBytesReclaimed = new LongAdder();
+    private final LongAdder compactedRecordsRemoved = new LongAdder();
+
+    // 바이너리 fetch (세그먼트 구간을 그대로 전송)
+    private final LongAdder binaryFetchCount = new LongAdder();
+    private final LongAdder binaryFetchBytes = new LongAdder();
+
+    // 가장 느린 Consumer Group이 커밋하지 않은 바이트 한도 (발행 전에 확인)
+    private final BufferLimiter bufferLimiter =
+            new BufferLimiter(partitions, this::slowestCommittedOffset, this::skipConsumersTo);
 
     private int partitionCount = 3;
+    private static final int GUARANTEE_POLL_RECORDS = 100;
+    // idempotent producerId 발급 - 재시작 전에 쓰인 id와 겹치지 않도록 부팅 시각에서 시작 (로그에 producer 상태가 남는다)
+    private final AtomicLong producerIds = new AtomicLong(System.currentTimeMillis());
 
     public static class Message {
         public long offset;
@@ -37,11 +121,67 @@ public class MessageQueueService {
         public int partition;
 
         public Message(long offset, String key, String value, int partition) {
+            this(offset, key, value, partition, System.currentTimeMillis());
+        }
+
+        public Message(long offset, String key, String value, int partition, long timestamp) {
             this.offset = offset;
             this.key = key;
             this.value = value;
             this.partition = partition;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
+        }
+
+        static Message from(LogRecord record, int partition) {
+            return new Message(record.offset(), record.key(), record.value(), partition, record.timestamp());
+        }
+    }
+
+    /**
+     * Consumer Group 하나의 파티션별 오프셋
+     * position = 다음에 읽을 오프셋, committed = 처리 완료로 확정된 오프셋 (다음에 처리할 오프셋)
+     * 리밸런싱되면 position을 committed로 되돌리므로, 커밋하지 않은 메시지는 새 담당 Consumer가 다시 읽는다.
+     */
+    public static class GroupOffsets {
+        private final Map<Integer, Long> position = new ConcurrentHashMap<>();
+        private final Map<Integer, Long> committed = new ConcurrentHashMap<>();
+
+        long position(int partition, long logStartOffset) {
+            Long offset = position.get(partition);
+            if (offset == null) {
+                offset = committed.get(partition);
+            }
+            // retention으로 지워진 구간이면 남아 있는 가장 앞부터
+            return offset == null ? logStartOffset : Math.max(offset, logStartOffset);
+        }
+
+        void seek(int partition, long offset) {
+            position.put(partition, offset);
+        }
+
+        void commit(int partition, long offset) {
+            committed.merge(partition, offset, Math::max);
+        }
+
+        /**
+         * 현재 읽기 위치를 모두 커밋
+         */
+        Map<Integer, Long> commitPositions() {
+            position.forEach(this::commit);
+            return new TreeMap<>(committed);
+        }
+
+        /**
+         * 옮겨지는 파티션의 커밋하지 않은 읽기 위치를 버린다 (리밸런싱)
+         */
+        void resetToCommitted(Collection<Integer> partitions) {
+            for (int partition : partitions) {
+                position.remove(partition);
+            }
+        }
+
+        Long committed(int partition) {
+            return committed.get(partition);
         }
     }
 
@@ -49,56 +189,261 @@ public class MessageQueueService {
         public String consumerId;
         public String groupId;
         public List<Integer> assignedPartitions;
-        public long consumedCount;
-        public long lastConsumedOffset;
-        public String status;
+        // 파티션 워커 여러 개가 동시에 갱신
+        public final LongAdder consumedCount = new LongAdder();
+        public volatile long lastConsumedOffset;
+        public volatile String status;
+        // 일시 정지 - 할당은 유지한 채 poll만 멈춘다 (리밸런싱 없음)
+        public volatile boolean paused;
 
         public ConsumerInfo(String consumerId, String groupId) {
             this.consumerId = consumerId;
             this.groupId = groupId;
-            this.assignedPartitions = new ArrayList<>();
-            this.consumedCount = 0;
+            this.assignedPartitions = new CopyOnWriteArrayList<>();
             this.status = "ACTIVE";
         }
     }
 
     /**
-     * 토픽 초기화
+     * 재시작 시 디스크에 남은 파티션 로그 복구
+     */
+    @PostConstruct
+    public void init() {
+        bufferLimiter.configure(partitionBufferBytes, brokerBufferBytes,
+                BackpressureMode.forName(backpressureMode), maxBlockMs);
+        Path topicDir = topicDir();
+        if (!Files.isDirectory(topicDir)) return;
+        try (var dirs = Files.list(topicDir)) {
+            for (Path dir : dirs.filter(d -> d.getFileName().toString().startsWith("partition-")).toList()) {
+                int partition = Integer.parseInt(dir.getFileName().toString().substring("partition-".length()));
+                partitions.put(partition, PartitionLog.open(dir, logConfig()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Could not recover message queue logs from {}: {}", topicDir, e.getMessage());
+        }
+        if (!partitions.isEmpty()) {
+            partitionCount = partitions.size();
+            log.info("Recovered {} partitions ({} messages) from {}", partitionCount, getTotalRetainedMessages(), topicDir);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stopAllConsumers();
+        consumerExecutor.shutdownNow();
+        logCleaner.shutdownNow();
+        closeLogs();
+    }
+
+    /**
+     * 보관 기간/크기를 넘은 오래된 세그먼트 삭제
+     */
+    @Scheduled(fixedDelay = 10000)
+    public void applyRetention() {
+        long now = System.currentTimeMillis();
+        partitions.forEach((partition, partitionLog) -> {
+            try {
+                int deleted = partitionLog.applyRetention(now);
+                if (deleted > 0) {
+                    log.debug("Retention deleted {} segments from partition {}", deleted, partition);
+                }
+            } catch (IOException e) {
+                log.warn("Retention failed for partition {}: {}", partition, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 주기적 로그 컴팩션 - 켜져 있으면 cleaner 스레드에 맡기고 바로 돌아온다
+     */
+    @Scheduled(fixedDelayString = "${lab.mq.log.compaction.interval-ms:30000}",
+            initialDelayString = "${lab.mq.log.compaction.interval-ms:30000}")
+    public void scheduleCompaction() {
+        if (compactionEnabled) {
+            logCleaner.submit(this::compactPartitions);
+        }
+    }
+
+    /**
+     * 지금 바로 컴팩션하고 결과 반환 (cleaner 스레드에서 실행, producer는 계속 쓴다)
+     */
+    public Map<String, Object> compactLogs() {
+        Map<Integer, CompactionResult> results;
+        try {
+            results = logCleaner.submit(this::compactPartitions).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while compacting", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Compaction failed", e.getCause());
+        }
+
+        Map<Integer, Object> partitionResults = new TreeMap<>();
+        long bytesBefore = 0;
+        long bytesReclaimed = 0;
+        long recordsRead = 0;
+        long recordsRetained = 0;
+        long durationNanos = 0;
+        for (Map.Entry<Integer, CompactionResult> entry : results.entrySet()) {
+            CompactionResult compaction = entry.getValue();
+            partitionResults.put(entry.getKey(), compactionStats(compaction));
+            bytesBefore += compaction.bytesBefore();
+            bytesReclaimed += compaction.bytesReclaimed();
+            recordsRead += compaction.recordsRead();
+            recordsRetained += compaction.recordsRetained();
+            durationNanos += compaction.durationNanos();
+        }
+        double seconds = Math.max(durationNanos, 1) / 1_000_000_000.0;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("partitions", partitionResults);
+        result.put("bytesReclaimed", bytesReclaimed);
+        result.put("recordsRemoved", recordsRead - recordsRetained);
+        result.put("durationMs", durationNanos / 1_000_000.0);
+        result.put("megabytesPerSec", bytesBefore / 1_048_576.0 / seconds);
+        result.put("recordsPerSec", recordsRead / seconds);
+        result.put("partitionDistribution", getPartitionSizes());
+        return result;
+    }
+
+    private Map<Integer, CompactionResult> compactPartitions() {
+        Map<Integer, CompactionResult> results = new TreeMap<>();
+        partitions.forEach((partition, partitionLog) -> {
+            // 링 버퍼 파티션은 덮어쓰기로만 비우므로 대상이 아니다
+            if (!(partitionLog instanceof PartitionLog segmented)) return;
+            try {
+                CompactionResult compaction = segmented.compact();
+                results.put(partition, compaction);
+                if (compaction.segmentsCleaned() > 0) {
+                    log.debug("Compacted partition {}: {} segments, {} bytes reclaimed in {} ms", partition,
+                            compaction.segmentsCleaned(), compaction.bytesReclaimed(), compaction.durationNanos() / 1_000_000);
+                }
+            } catch (IOException e) {
+                log.warn("Compaction failed for partition {}: {}", partition, e.getMessage());
+            }
+        });
+        compactionRuns.increment();
+        results.values().forEach(compaction -> {
+            compactedBytesReclaimed.add(compaction.bytesReclaimed());
+            compactedRecordsRemoved.add(compaction.recordsRead() - compaction.recordsRetained());
+        });
+        return results;
+    }
+
+    private static Map<String, Object> compactionStats(CompactionResult compaction) {
+        Map<String, Object> stat = new HashMap<>();
+        stat.put("segmentsCleaned", compaction.segmentsCleaned());
+        stat.put("segmentsDeleted", compaction.segmentsDeleted());
+        stat.put("recordsRead", compaction.recordsRead());
+        stat.put("recordsRetained", compaction.recordsRetained());
+        stat.put("distinctKeys", compaction.distinctKeys());
+        stat.put("bytesBefore", compaction.bytesBefore());
+        stat.put("bytesAfter", compaction.bytesAfter());
+        stat.put("bytesReclaimed", compaction.bytesReclaimed());
+        stat.put("durationMs", compaction.durationNanos() / 1_000_000.0);
+        stat.put("megabytesPerSec", compaction.megabytesPerSec());
+        stat.put("recordsPerSec", compaction.recordsPerSec());
+        return stat;
+    }
+
+    private Path topicDir() {
+        return Path.of(logDir, "topic");
+    }
+
+    private LogConfig logConfig() {
+        return new LogConfig(segmentBytes, indexIntervalBytes, retentionBytes, retentionMs);
+    }
+
+    private void closeLogs() {
+        for (TopicPartition partitionLog : partitions.values()) {
+            try {
+                partitionLog.close();
+            } catch (IOException e) {
+                log.warn("Failed to close partition log: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 토픽 초기화 (현재 파티션 구현 유지)
      */
     public Map<String, Object> initTopic(int numPartitions) {
+        return initTopic(numPartitions, partitionType, ringWaitStrategy);
+    }
+
+    /**
+     * 토픽 초기화 - 파티션 구현 선택 (log | ring), ring이면 소비자 대기 전략 (busy-spin | yield | blocking)
+     */
+    public Map<String, Object> initTopic(int numPartitions, String type, String waitStrategy) {
+        if (!"log".equals(type) && !"ring".equals(type)) {
+            throw new IllegalArgumentException("Unknown partition type: " + type);
+        }
+        WaitStrategy.forName(waitStrategy);
+        stopAllConsumers();
         this.partitionCount = numPartitions;
-        partitions.clear();
+        this.partitionType = type;
+        this.ringWaitStrategy = waitStrategy;
+        try {
+            for (TopicPartition partitionLog : partitions.values()) {
+                partitionLog.delete();
+            }
+            partitions.clear();
+            for (int i = 0; i < numPartitions; i++) {
+                partitions.put(i, newPartition(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create topic logs", e);
+        }
         consumerOffsets.clear();
         consumers.clear();
-        producedCount.set(0);
-        consumedCount.set(0);
+        generations.clear();
+        rebalanceHistory.clear();
+        producedCount.reset();
+        consumedCount.reset();
         duplicateCount.set(0);
         lostCount.set(0);
-
-        for (int i = 0; i < numPartitions; i++) {
-            partitions.put(i, new LinkedBlockingQueue<>());
-        }
+        bufferLimiter.resetStats();
 
         Map<String, Object> result = new HashMap<>();
         result.put("partitionCount", numPartitions);
+        result.put("partitionType", type);
+        if ("ring".equals(type)) {
+            result.put("ringCapacity", ringCapacity);
+            result.put("waitStrategy", waitStrategy);
+        }
         result.put("status", "CREATED");
         return result;
     }
 
+    private TopicPartition newPartition(int partition) throws IOException {
+        if ("ring".equals(partitionType)) {
+            // produce()는 여러 요청 스레드에서 동시에 호출되므로 MULTI 생산자
+            return new RingBufferPartition(ringCapacity, ProducerType.MULTI, WaitStrategy.forName(ringWaitStrategy));
+        }
+        return PartitionLog.open(topicDir().resolve("partition-" + partition), logConfig());
+    }
+
     /**
      * 메시지 발행
      */
     public Map<String, Object> produce(String key, String value) {
-        int partition = key != null ? Math.abs(key.hashCode()) % partitionCount :
-                                      new Random().nextInt(partitionCount);
+        int partition = partitionFor(key);
 
         if (!partitions.containsKey(partition)) {
             initTopic(partitionCount);
         }
 
-        long offset = producedCount.incrementAndGet();
-        Message message = new Message(offset, key, value, partition);
-        partitions.get(partition).offer(message);
+        // 오프셋은 파티션 로그가 매긴다 - 파티션마다 독립적으로 증가하고, 잠금도 파티션 단위
+        long timestamp = System.currentTimeMillis();
+        long offset;
+        try {
+            // 버퍼 한도 확인과 예약은 guard가 append를 감싸서 한다
+            offset = bufferLimiter.guard(partition).append(List.of(new SimpleRecord(timestamp, key, value)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to partition " + partition, e);
+        }
+        producedCount.increment();
+        Message message = new Message(offset, key, value, partition, timestamp);
 
         Map<String, Object> result = new HashMap<>();
         result.put("offset", offset);
@@ -108,29 +453,146 @@ public class MessageQueueService {
         return result;
     }
 
+    private int partitionFor(String key) {
+        return key != null ? Math.floorMod(key.hashCode(), partitionCount) :
+                             ThreadLocalRandom.current().nextInt(partitionCount);
+    }
+
     /**
      * 대량 메시지 발행
      */
     public Map<String, Object> produceBulk(int messageCount, int keyCount) {
         List<Map<String, Object>> results = new ArrayList<>();
         long startTime = System.currentTimeMillis();
+        String rejected = null;
 
         for (int i = 0; i < messageCount; i++) {
             String key = "key_" + (i % keyCount);
             String value = "Message_" + i + "_" + System.currentTimeMillis();
-            results.add(produce(key, value));
+            try {
+                results.add(produce(key, value));
+            } catch (IllegalStateException e) {
+                // 버퍼 한도에 걸리면 (fail-fast / block 시간 초과) 거기서 멈춘다
+                rejected = e.getMessage();
+                break;
+            }
         }
 
-        long duration = System.currentTimeMillis() - startTime;
+        long duration = Math.max(System.currentTimeMillis() - startTime, 1);
 
         Map<String, Object> result = new HashMap<>();
-        result.put("producedCount", messageCount);
+        result.put("producedCount", results.size());
+        result.put("requestedCount", messageCount);
+        if (rejected != null) {
+            result.put("rejected", rejected);
+        }
         result.put("durationMs", duration);
-        result.put("throughput", messageCount * 1000.0 / duration);
+        result.put("throughput", results.size() * 1000.0 / duration);
+        result.put("partitionDistribution", getPartitionSizes());
+        return result;
+    }
+
+    /**
+     * 배치 Producer로 대량 발행 - 파티션별로 batchSize/linger만큼 모아 (압축해서) 한 번에 추가
+     */
+    public Map<String, Object> produceBatched(int messageCount, int keyCount,
+                                              int batchSize, long lingerMs, String compression) {
+        if (partitions.isEmpty()) {
+            initTopic(partitionCount);
+        }
+        ProducerConfig config = new ProducerConfig(batchSize, lingerMs, CompressionType.forName(compression),
+                false, 0, 0, ProducerConfig.DEFAULT_BUFFER_MEMORY, bufferLimiter.maxBlockMs());
+        long logBytesBefore = totalLogBytes();
+        long payloadBytes = 0;
+        List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>(messageCount);
+
+        long startTime = System.nanoTime();
+        // Sender는 브로커 버퍼 한도에 막히고, 그동안 send()는 bufferMemory가 찰 때까지만 쌓는다
+        BatchingProducer producer = new BatchingProducer(bufferLimiter::guard, config);
+        String rejected = null;
+        try {
+            for (int i = 0; i < messageCount; i++) {
+                String key = "key_" + (i % keyCount);
+                String value = "Message_" + i + "_" + System.currentTimeMillis();
+                payloadBytes += key.length() + value.length();
+                futures.add(producer.send(partitionFor(key), key, value));
+            }
+            producer.flush();
+        } catch (IllegalStateException e) {
+            rejected = e.getMessage();
+        } finally {
+            producer.close();
+        }
+        long failed = futures.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        long durationNanos = System.nanoTime() - startTime;
+        producedCount.add(messageCount - failed);
+
+        Map<String, Object> result = throughput(messageCount, payloadBytes, durationNanos);
+        result.put("mode", "batched");
+        result.put("batchSize", batchSize);
+        result.put("lingerMs", lingerMs);
+        result.put("compression", config.compression().name().toLowerCase());
+        result.put("failedCount", failed);
+        if (rejected != null) {
+            result.put("rejected", rejected);
+        }
+        result.put("producerBlockedMs", producer.blockedTimeMs());
+        result.put("batchCount", producer.batchesSent());
+        result.put("avgRecordsPerBatch", producer.batchesSent() > 0
+                ? (double) producer.recordsSent() / producer.batchesSent() : 0);
+        result.put("compressionRatio", producer.bytesWritten() > 0
+                ? (double) producer.uncompressedBytes() / producer.bytesWritten() : 1.0);
+        result.put("logBytesWritten", totalLogBytes() - logBytesBefore);
         result.put("partitionDistribution", getPartitionSizes());
         return result;
     }
 
+    /**
+     * 단건 발행(produceBulk) vs 배치 발행 처리량 비교 - 각각 빈 토픽에서 같은 메시지 수로 측정
+     */
+    public Map<String, Object> compareProducers(int messageCount, int keyCount,
+                                                int batchSize, long lingerMs, String compression) {
+        initTopic(partitionCount);
+        long logBytesBefore = totalLogBytes();
+        long payloadBytes = 0;
+        long startTime = System.nanoTime();
+        for (int i = 0; i < messageCount; i++) {
+            String key = "key_" + (i % keyCount);
+            String value = "Message_" + i + "_" + System.currentTimeMillis();
+            payloadBytes += key.length() + value.length();
+            produce(key, value);
+        }
+        Map<String, Object> unbatched = throughput(messageCount, payloadBytes, System.nanoTime() - startTime);
+        unbatched.put("mode", "unbatched");
+        unbatched.put("batchCount", messageCount);
+        unbatched.put("logBytesWritten", totalLogBytes() - logBytesBefore);
+
+        initTopic(partitionCount);
+        Map<String, Object> batched = produceBatched(messageCount, keyCount, batchSize, lingerMs, compression);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("messageCount", messageCount);
+        result.put("unbatched", unbatched);
+        result.put("batched", batched);
+        result.put("speedup", (double) batched.get("recordsPerSec") / (double) unbatched.get("recordsPerSec"));
+        return result;
+    }
+
+    private static Map<String, Object> throughput(int messageCount, long payloadBytes, long durationNanos) {
+        double seconds = Math.max(durationNanos, 1) / 1_000_000_000.0;
+        Map<String, Object> result = new HashMap<>();
+        result.put("producedCount", messageCount);
+        result.put("durationMs", durationNanos / 1_000_000.0);
+        result.put("recordsPerSec", messageCount / seconds);
+        result.put("bytesPerSec", payloadBytes / seconds);
+        result.put("payloadBytes", payloadBytes);
+        return result;
+    }
+
+    private long totalLogBytes() {
+        return partitions.values().stream().mapToLong(TopicPartition::sizeInBytes).sum();
+    }
+
     /**
      * Consumer 등록
      */
@@ -139,34 +601,329 @@ public class MessageQueueService {
         consumers.put(consumerId, consumer);
 
         // 리밸런싱
-        rebalanceConsumerGroup(groupId);
+        RebalanceEvent rebalance = rebalanceConsumerGroup(groupId);
 
         Map<String, Object> result = new HashMap<>();
         result.put("consumerId", consumerId);
         result.put("groupId", groupId);
         result.put("assignedPartitions", consumer.assignedPartitions);
+        result.put("rebalance", rebalance);
         return result;
     }
 
     /**
      * Consumer Group 리밸런싱
+     * 할당 전략으로 새 할당을 계산하고, 주인이 바뀌는 파티션(eager면 전부)만 회수한다.
+     * 회수한 파티션은 처리한 위치까지 커밋하고 워커를 멈춘 뒤 새 주인에게 넘기며,
+     * 새 주인은 커밋된 오프셋부터 읽는다. 회수하지 않은 파티션의 워커는 멈추지 않는다.
      */
-    private void rebalanceConsumerGroup(String groupId) {
+    private synchronized RebalanceEvent rebalanceConsumerGroup(String groupId) {
+        long startNanos = System.nanoTime();
+        PartitionAssignor strategy = assignor;
+
+        // 현재 주인 (죽은 Consumer 포함 - 그 파티션도 넘겨야 한다)
+        Map<Integer, String> previousOwner = new HashMap<>();
+        Map<String, List<Integer>> current = new HashMap<>();
+        for (ConsumerInfo c : consumers.values()) {
+            if (!c.groupId.equals(groupId)) continue;
+            for (int p : c.assignedPartitions) {
+                previousOwner.put(p, c.consumerId);
+            }
+            if ("ACTIVE".equals(c.status)) {
+                current.put(c.consumerId, new ArrayList<>(c.assignedPartitions));
+            }
+        }
+
+        List<ConsumerInfo> groupConsumers = activeConsumers(groupId);
+        List<String> members = groupConsumers.stream().map(c -> c.consumerId).toList();
+        Map<String, List<Integer>> target = strategy.assign(current, members, partitionCount);
+
+        Map<Integer, String> newOwner = owners(target);
+        Set<Integer> moved = movedPartitions(previousOwner, newOwner);
+        Set<Integer> revoked = strategy.cooperative() ? revokedPartitions(previousOwner, newOwner)
+                                                      : new TreeSet<>(previousOwner.keySet());
+
+        ConsumerGroupRuntime runtime = runtimes.get(groupId);
+        if (runtime != null) {
+            runtime.revoke(revoked);
+        }
+        // 커밋하지 않은 위치는 버리고 새 담당 Consumer는 커밋된 오프셋부터 읽는다
+        GroupOffsets offsets = consumerOffsets.get(groupId);
+        if (offsets != null) {
+            offsets.resetToCommitted(revoked);
+        }
+
+        for (ConsumerInfo c : consumers.values()) {
+            if (!c.groupId.equals(groupId)) continue;
+            List<Integer> assigned = target.getOrDefault(c.consumerId, List.of());
+            if (!assigned.equals(c.assignedPartitions)) {
+                c.assignedPartitions.clear();
+                c.assignedPartitions.addAll(assigned);
+            }
+        }
+        if (runtime != null) {
+            runtime.assign(groupConsumers);
+        }
+
+        RebalanceEvent event = new RebalanceEvent(groupId, strategy.name(),
+                generations.computeIfAbsent(groupId, g -> new AtomicInteger()).incrementAndGet(),
+                members.size(), partitionCount, moved.size(), revoked.size(),
+                (System.nanoTime() - startNanos) / 1_000_000.0, System.currentTimeMillis());
+        rebalanceHistory.addLast(event);
+        while (rebalanceHistory.size() > REBALANCE_HISTORY_SIZE) {
+            rebalanceHistory.pollFirst();
+        }
+        log.debug("Rebalanced group {} with {}: moved {} revoked {} in {} ms",
+                groupId, strategy.name(), moved.size(), revoked.size(), event.pauseMs());
+        return event;
+    }
+
+    private static Map<Integer, String> owners(Map<String, List<Integer>> assignment) {
+        Map<Integer, String> owners = new HashMap<>();
+        assignment.forEach((member, assigned) -> assigned.forEach(p -> owners.put(p, member)));
+        return owners;
+    }
+
+    /**
+     * 새 주인이 이전 주인과 다른 파티션 (새로 생긴 파티션 포함)
+     */
+    private static Set<Integer> movedPartitions(Map<Integer, String> before, Map<Integer, String> after) {
+        Set<Integer> moved = new TreeSet<>();
+        after.forEach((p, owner) -> {
+            if (!owner.equals(before.get(p))) moved.add(p);
+        });
+        return moved;
+    }
+
+    /**
+     * 이전 주인에게서 빼앗아야 하는 파티션 (주인이 바뀌거나 없어지는 것)
+     */
+    private static Set<Integer> revokedPartitions(Map<Integer, String> before, Map<Integer, String> after) {
+        Set<Integer> revoked = new TreeSet<>();
+        before.forEach((p, owner) -> {
+            if (!owner.equals(after.get(p))) revoked.add(p);
+        });
+        return revoked;
+    }
+
+    /**
+     * 그룹의 활성 Consumer (consumerId 순 - 할당 결과가 등록 순서에 흔들리지 않도록)
+     */
+    private List<ConsumerInfo> activeConsumers(String groupId) {
         List<ConsumerInfo> groupConsumers = new ArrayList<>();
         for (ConsumerInfo c : consumers.values()) {
             if (c.groupId.equals(groupId) && "ACTIVE".equals(c.status)) {
                 groupConsumers.add(c);
-                c.assignedPartitions.clear();
             }
         }
+        groupConsumers.sort(Comparator.comparing(c -> c.consumerId));
+        return groupConsumers;
+    }
 
-        if (groupConsumers.isEmpty()) return;
+    /**
+     * 브로커 버퍼 한도와 backpressure 방식 변경 (-1 = 무제한)
+     */
+    public Map<String, Object> setBackpressure(String mode, long partitionBytes, long brokerBytes, long maxBlockMs) {
+        bufferLimiter.configure(partitionBytes, brokerBytes, BackpressureMode.forName(mode), maxBlockMs);
+        return bufferLimiter.stats();
+    }
 
-        // 라운드 로빈 파티션 할당
-        for (int p = 0; p < partitionCount; p++) {
-            int consumerIndex = p % groupConsumers.size();
-            groupConsumers.get(consumerIndex).assignedPartitions.add(p);
+    /**
+     * 파티션별 가장 느린 Consumer Group의 커밋 오프셋 (그룹이 없으면 -1)
+     * 한 번도 커밋하지 않은 그룹은 로그 처음부터 읽어야 하므로 logStartOffset으로 본다.
+     */
+    private long slowestCommittedOffset(int partition) {
+        TopicPartition partitionLog = partitions.get(partition);
+        if (partitionLog == null) {
+            return -1;
+        }
+        long slowest = -1;
+        for (String groupId : consumerGroupIds()) {
+            GroupOffsets offsets = consumerOffsets.get(groupId);
+            Long committed = offsets != null ? offsets.committed(partition) : null;
+            long offset = lagFrom(committed, partitionLog);
+            slowest = slowest < 0 ? offset : Math.min(slowest, offset);
+        }
+        return slowest;
+    }
+
+    /**
+     * drop-oldest - offset보다 뒤처진 그룹의 커밋 오프셋과 읽기 위치를 offset으로 민다
+     * @return 그룹별로 건너뛴 메시지 수 합
+     */
+    private long skipConsumersTo(int partition, long offset) {
+        TopicPartition partitionLog = partitions.get(partition);
+        long skipped = 0;
+        for (String groupId : consumerGroupIds()) {
+            GroupOffsets offsets = consumerOffsets.computeIfAbsent(groupId, g -> new GroupOffsets());
+            long committed = lagFrom(offsets.committed(partition), partitionLog);
+            if (committed < offset) {
+                skipped += offset - committed;
+                offsets.commit(partition, offset);
+            }
+            if (offsets.position(partition, partitionLog.logStartOffset()) < offset) {
+                offsets.seek(partition, offset);
+            }
         }
+        return skipped;
+    }
+
+    /**
+     * 오프셋이 있거나 Consumer가 등록된 그룹
+     */
+    private Set<String> consumerGroupIds() {
+        Set<String> groupIds = new HashSet<>(consumerOffsets.keySet());
+        for (ConsumerInfo consumer : consumers.values()) {
+            groupIds.add(consumer.groupId);
+        }
+        return groupIds;
+    }
+
+    /**
+     * 할당 전략 변경 (다음 리밸런싱부터 적용)
+     */
+    public Map<String, Object> setAssignor(String name) {
+        assignor = PartitionAssignor.forName(name);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("assignor", assignor.name());
+        result.put("cooperative", assignor.cooperative());
+        return result;
+    }
+
+    /**
+     * 최근 리밸런싱 기록 (파티션 이동 수, 회수 수, 멈춘 시간)
+     */
+    public Map<String, Object> getRebalanceHistory(String groupId) {
+        List<RebalanceEvent> events = rebalanceHistory.stream()
+                .filter(e -> groupId == null || e.groupId().equals(groupId))
+                .toList();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("assignor", assignor.name());
+        result.put("events", events);
+        result.put("totalMoved", events.stream().mapToInt(RebalanceEvent::partitionsMoved).sum());
+        result.put("totalRevoked", events.stream().mapToInt(RebalanceEvent::partitionsRevoked).sum());
+        return result;
+    }
+
+    /**
+     * 할당 전략 비교 - Consumer를 1개에서 maxConsumers개까지 하나씩 늘렸다가 다시 1개까지 줄이는 동안
+     * 전략별로 옮겨진 / 회수된 파티션 수 합계 (할당 계산만, 실제 워커 없이)
+     */
+    public Map<String, Object> compareAssignors(int partitions, int maxConsumers) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("partitions", partitions);
+        result.put("maxConsumers", maxConsumers);
+        for (PartitionAssignor strategy : List.of(PartitionAssignor.forName("round-robin"),
+                                                 PartitionAssignor.forName("cooperative-sticky"))) {
+            List<String> steps = new ArrayList<>();
+            for (int n = 1; n <= maxConsumers; n++) steps.add("+" + n);
+            for (int n = maxConsumers; n > 1; n--) steps.add("-" + n);
+
+            List<String> members = new ArrayList<>();
+            Map<String, List<Integer>> current = new HashMap<>();
+            long moved = 0;
+            long revoked = 0;
+            long startNanos = System.nanoTime();
+            for (String step : steps) {
+                String member = String.format("consumer-%03d", Integer.parseInt(step.substring(1)));
+                if (step.startsWith("+")) members.add(member); else members.remove(member);
+
+                Map<String, List<Integer>> target = strategy.assign(current, members, partitions);
+                Map<Integer, String> before = owners(current);
+                Map<Integer, String> after = owners(target);
+                moved += movedPartitions(before, after).size();
+                revoked += strategy.cooperative() ? revokedPartitions(before, after).size() : before.size();
+                current = target;
+            }
+
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("rebalances", steps.size());
+            stat.put("partitionsMoved", moved);
+            stat.put("partitionsRevoked", revoked);
+            stat.put("avgMovedPerRebalance", (double) moved / steps.size());
+            stat.put("assignMs", (System.nanoTime() - startNanos) / 1_000_000.0);
+            result.put(strategy.name(), stat);
+        }
+        return result;
+    }
+
+
+    /**
+     * 백그라운드 소비 시작 - 할당된 파티션마다 워커 하나 (이미 실행 중이면 새 설정으로 재시작)
+     */
+    public synchronized Map<String, Object> startConsuming(String groupId, int processingTimeMs,
+                                                           int maxPollRecords, boolean autoCommit) {
+        if (partitions.isEmpty()) {
+            throw new IllegalStateException("Topic is not initialized");
+        }
+        List<ConsumerInfo> groupConsumers = activeConsumers(groupId);
+        if (groupConsumers.isEmpty()) {
+            throw new IllegalStateException("No active consumers in group: " + groupId);
+        }
+        ConsumerGroupRuntime previous = runtimes.remove(groupId);
+        if (previous != null) {
+            previous.revoke();
+        }
+
+        ConsumerGroupRuntime runtime = new ConsumerGroupRuntime(groupId,
+                new ConsumerGroupRuntime.Settings(processingTimeMs, maxPollRecords, autoCommit),
+                partitions::get, consumerOffsets.computeIfAbsent(groupId, g -> new GroupOffsets()),
+                consumerExecutor, consumedCount);
+        runtimes.put(groupId, runtime);
+        runtime.assign(groupConsumers);
+        return runtime.status();
+    }
+
+    /**
+     * 백그라운드 소비 종료 - 처리한 위치까지 커밋하고 워커 정리
+     */
+    public synchronized Map<String, Object> stopConsuming(String groupId) {
+        ConsumerGroupRuntime runtime = runtimes.remove(groupId);
+        if (runtime == null) {
+            throw new IllegalStateException("Group is not consuming: " + groupId);
+        }
+        runtime.revoke();
+        Map<String, Object> result = runtime.status();
+        result.put("lag", getLag(groupId).get("totalLag"));
+        return result;
+    }
+
+    private synchronized void stopAllConsumers() {
+        for (ConsumerGroupRuntime runtime : runtimes.values()) {
+            runtime.revoke();
+        }
+        runtimes.clear();
+    }
+
+    /**
+     * Consumer 일시 정지/재개 - 할당은 유지하므로 리밸런싱 없이 해당 파티션만 소비가 멈춘다
+     */
+    public Map<String, Object> pauseConsumer(String consumerId, boolean paused) {
+        ConsumerInfo consumer = consumers.get(consumerId);
+        if (consumer == null) {
+            throw new IllegalArgumentException("Unknown consumer: " + consumerId);
+        }
+        consumer.paused = paused;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("consumerId", consumerId);
+        result.put("paused", paused);
+        result.put("assignedPartitions", consumer.assignedPartitions);
+        return result;
+    }
+
+    /**
+     * 백그라운드 소비 상태 - 워커별 처리량, 그룹 lag
+     */
+    public Map<String, Object> getConsumerRuntime(String groupId) {
+        ConsumerGroupRuntime runtime = runtimes.get(groupId);
+        Map<String, Object> result = runtime != null ? runtime.status() : new HashMap<>();
+        result.put("groupId", groupId);
+        result.put("running", runtime != null);
+        result.put("lag", getLag(groupId));
+        return result;
     }
 
     /**
@@ -174,22 +931,28 @@ public class MessageQueueService {
      */
     public Map<String, Object> removeConsumer(String consumerId) {
         ConsumerInfo consumer = consumers.get(consumerId);
+        RebalanceEvent rebalance = null;
         if (consumer != null) {
             consumer.status = "DEAD";
-            rebalanceConsumerGroup(consumer.groupId);
+            rebalance = rebalanceConsumerGroup(consumer.groupId);
         }
 
         Map<String, Object> result = new HashMap<>();
         result.put("removedConsumer", consumerId);
-        result.put("rebalanced", true);
+        result.put("rebalanced", rebalance != null);
+        result.put("rebalance", rebalance);
         result.put("activeConsumers", getActiveConsumers());
         return result;
     }
 
     /**
      * 메시지 소비 시뮬레이션
+     * autoCommit이면 처리 후 바로 커밋, 아니면 읽기 위치만 전진하고 commit()을 따로 호출해야 한다
      */
     public Map<String, Object> consume(String groupId, int processingTimeMs, boolean autoCommit) {
+        if (runtimes.containsKey(groupId)) {
+            throw new IllegalStateException("Group is consuming in background: " + groupId);
+        }
         List<Map<String, Object>> consumedMessages = new ArrayList<>();
         long startTime = System.currentTimeMillis();
 
@@ -197,21 +960,29 @@ public class MessageQueueService {
         for (ConsumerInfo consumer : consumers.values()) {
             if (!consumer.groupId.equals(groupId) || !"ACTIVE".equals(consumer.status)) continue;
 
+            GroupOffsets groupOffsets = consumerOffsets.computeIfAbsent(groupId, g -> new GroupOffsets());
             for (int partition : consumer.assignedPartitions) {
-                BlockingQueue<Message> queue = partitions.get(partition);
-                if (queue == null) continue;
+                TopicPartition partitionLog = partitions.get(partition);
+                if (partitionLog == null) continue;
 
-                Message msg = queue.poll();
+                // 메시지를 꺼내지 않고 그룹의 오프셋 위치에서 읽기만 한다
+                long position = groupOffsets.position(partition, partitionLog.logStartOffset());
+                List<LogRecord> records = partitionLog.read(position, 1);
+                Message msg = records.isEmpty() ? null : Message.from(records.get(0), partition);
                 if (msg != null) {
+                    groupOffsets.seek(partition, msg.offset + 1);
                     try {
                         Thread.sleep(processingTimeMs);
                     } catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
                     }
 
-                    consumer.consumedCount++;
+                    consumer.consumedCount.increment();
                     consumer.lastConsumedOffset = msg.offset;
-                    consumedCount.incrementAndGet();
+                    consumedCount.increment();
+                    if (autoCommit) {
+                        groupOffsets.commit(partition, msg.offset + 1);
+                    }
 
                     Map<String, Object> consumed = new HashMap<>();
                     consumed.put("offset", msg.offset);
@@ -219,6 +990,7 @@ public class MessageQueueService {
                     consumed.put("key", msg.key);
                     consumed.put("value", msg.value);
                     consumed.put("consumerId", consumer.consumerId);
+                    consumed.put("committed", autoCommit);
                     consumedMessages.add(consumed);
                 }
             }
@@ -230,96 +1002,348 @@ public class MessageQueueService {
         result.put("consumedCount", consumedMessages.size());
         result.put("durationMs", duration);
         result.put("messages", consumedMessages);
+        result.put("lag", getLag(groupId).get("partitions"));
         result.put("stats", getStats());
         return result;
     }
 
     /**
-     * 메시지 보장 수준 시뮬레이션
+     * 수동 커밋 - 그룹의 현재 읽기 위치를 커밋된 오프셋으로 확정
+     */
+    public Map<String, Object> commit(String groupId) {
+        GroupOffsets offsets = consumerOffsets.computeIfAbsent(groupId, g -> new GroupOffsets());
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("groupId", groupId);
+        result.put("committedOffsets", offsets.commitPositions());
+        return result;
+    }
+
+    /**
+     * Consumer Lag - 파티션별 (로그 끝 오프셋 - 커밋된 오프셋)
+     */
+    public Map<String, Object> getLag(String groupId) {
+        GroupOffsets offsets = consumerOffsets.get(groupId);
+        Map<Integer, Object> partitionLag = new TreeMap<>();
+        long totalLag = 0;
+        for (Map.Entry<Integer, TopicPartition> entry : partitions.entrySet()) {
+            int partition = entry.getKey();
+            TopicPartition partitionLog = entry.getValue();
+            long logEndOffset = partitionLog.logEndOffset();
+            Long committed = offsets != null ? offsets.committed(partition) : null;
+            long lag = logEndOffset - lagFrom(committed, partitionLog);
+            totalLag += lag;
+
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("committedOffset", committed != null ? committed : -1L);
+            stat.put("position", offsets != null ? offsets.position(partition, partitionLog.logStartOffset())
+                                                 : partitionLog.logStartOffset());
+            stat.put("logEndOffset", logEndOffset);
+            stat.put("lag", lag);
+            partitionLag.put(partition, stat);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("groupId", groupId);
+        result.put("totalLag", totalLag);
+        result.put("partitions", partitionLag);
+        return result;
+    }
+
+    /**
+     * lag 계산 기준 - 커밋이 없거나 retention으로 지워진 구간이면 로그 시작 오프셋
+     */
+    private static long lagFrom(Long committed, TopicPartition partitionLog) {
+        return committed == null ? partitionLog.logStartOffset()
+                                 : Math.max(committed, partitionLog.logStartOffset());
+    }
+
+    /**
+     * 메시지 보장 수준 시뮬레이션 - 실제 배치 Producer와 파티션별 소비 워커로 유실/중복과 처리량을 잰다
+     *
+     * 발행: 추가 후 응답 유실을 failRate%로 주입한다.
+     *   at-most-once는 재전송하지 않고, at-least-once는 재전송해서 로그에 중복이 생기며,
+     *   exactly-once는 idempotent producer라 로그가 재전송을 걸러낸다.
+     * 소비: poll 하나를 처리하다 죽는 장애를 failRate%로 주입한다 (죽으면 커밋된 오프셋부터 다시 읽는다).
+     *   at-most-once는 처리 전 커밋이라 남은 레코드가 유실되고, at-least-once는 처리 후 커밋이라 다시 처리해 중복되며,
+     *   exactly-once는 결과와 오프셋을 한 트랜잭션으로 커밋해 유실도 중복도 없다.
      */
     public Map<String, Object> simulateDeliveryGuarantee(String guaranteeType, int messageCount, int failRate) {
+        if (!List.of("at-most-once", "at-least-once", "exactly-once").contains(guaranteeType)) {
+            throw new IllegalArgumentException("Unknown guarantee type: " + guaranteeType);
+        }
+        if (failRate < 0 || failRate >= 100) {
+            throw new IllegalArgumentException("failRate must be between 0 and 99: " + failRate);
+        }
         initTopic(3);
+        boolean exactlyOnce = "exactly-once".equals(guaranteeType);
 
-        // 먼저 메시지 발행
-        produceBulk(messageCount, 5);
-
-        AtomicInteger successCount = new AtomicInteger(0);
-        AtomicInteger duplicates = new AtomicInteger(0);
-        AtomicInteger lost = new AtomicInteger(0);
-        Set<Long> processedOffsets = ConcurrentHashMap.newKeySet();
-        Random random = new Random();
+        // 발행
+        ProducerConfig config = new ProducerConfig(16384, 5, CompressionType.NONE,
+                exactlyOnce, "at-most-once".equals(guaranteeType) ? 0 : 3, failRate);
+        long produceStart = System.nanoTime();
+        BatchingProducer producer = new BatchingProducer(partitions::get, config,
+                exactlyOnce ? producerIds.incrementAndGet() : RecordBatch.NO_PRODUCER_ID);
+        try {
+            for (int i = 0; i < messageCount; i++) {
+                String key = "key_" + (i % 5);
+                producer.send(partitionFor(key), key, "Message_" + i + "_" + System.currentTimeMillis());
+            }
+            producer.flush();
+        } finally {
+            producer.close();
+        }
+        long produceNanos = System.nanoTime() - produceStart;
+        long logRecords = getTotalRetainedMessages();
+        producedCount.add(logRecords);
 
-        // 소비 시뮬레이션
+        // 소비 - 파티션마다 워커 하나가 동시에 끝까지 처리
+        TransactionalOutputStore store = new TransactionalOutputStore(partitionCount, messageCount);
+        List<Future<Integer>> workers = new ArrayList<>();
+        long consumeStart = System.nanoTime();
         for (int p = 0; p < partitionCount; p++) {
-            BlockingQueue<Message> queue = partitions.get(p);
-            while (!queue.isEmpty()) {
-                Message msg = queue.poll();
-                if (msg == null) continue;
-
-                boolean processFailed = random.nextInt(100) < failRate;
-
-                switch (guaranteeType) {
-                    case "at-most-once":
-                        // 처리 전에 커밋 → 실패해도 재처리 안 함
-                        if (processFailed) {
-                            lost.incrementAndGet();
-                        } else {
-                            successCount.incrementAndGet();
-                        }
-                        break;
-
-                    case "at-least-once":
-                        // 처리 후에 커밋 → 실패하면 재처리 (중복 가능)
-                        if (processFailed) {
-                            // 재시도
-                            if (!processedOffsets.contains(msg.offset)) {
-                                processedOffsets.add(msg.offset);
-                                successCount.incrementAndGet();
-                            } else {
-                                duplicates.incrementAndGet();
-                            }
-                        } else {
-                            if (!processedOffsets.contains(msg.offset)) {
-                                processedOffsets.add(msg.offset);
-                                successCount.incrementAndGet();
-                            } else {
-                                duplicates.incrementAndGet();
-                            }
-                        }
-                        break;
+            int partition = p;
+            workers.add(consumerExecutor.submit(() -> consumeWithGuarantee(guaranteeType, partition, store, failRate)));
+        }
+        int crashes = 0;
+        try {
+            for (Future<Integer> worker : workers) {
+                crashes += worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while consuming", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Consumer worker failed", e.getCause());
+        }
+        long consumeNanos = System.nanoTime() - consumeStart;
+
+        long[] verified = store.verify();
+        consumedCount.add(verified[0] + verified[1]);
+        duplicateCount.addAndGet(verified[1]);
+        lostCount.addAndGet(verified[2]);
+
+        Map<String, Object> producerStats = new HashMap<>();
+        producerStats.put("recordsPerSec", messageCount / (Math.max(produceNanos, 1) / 1_000_000_000.0));
+        producerStats.put("idempotent", config.idempotent());
+        producerStats.put("acksLost", producer.acksLost());
+        producerStats.put("retries", producer.retriesSent());
+        producerStats.put("duplicatesWritten", logRecords - messageCount);
+
+        Map<String, Object> consumerStats = new HashMap<>();
+        consumerStats.put("recordsPerSec", logRecords / (Math.max(consumeNanos, 1) / 1_000_000_000.0));
+        consumerStats.put("workers", partitionCount);
+        consumerStats.put("crashes", crashes);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("guaranteeType", guaranteeType);
+        result.put("totalMessages", messageCount);
+        result.put("successCount", verified[0]);
+        result.put("duplicates", verified[1]);
+        result.put("lost", verified[2]);
+        result.put("failRate", failRate + "%");
+        result.put("producer", producerStats);
+        result.put("consumer", consumerStats);
+        result.put("durationMs", (produceNanos + consumeNanos) / 1_000_000.0);
+        result.put("recordsPerSec", messageCount / (Math.max(produceNanos + consumeNanos, 1) / 1_000_000_000.0));
+
+        String explanation = switch (guaranteeType) {
+            case "at-most-once" -> "처리 전 커밋, 재전송 없음 → 빠르지만 메시지 유실 가능";
+            case "at-least-once" -> "처리 후 커밋, 재전송 → 메시지 보장되지만 중복 가능";
+            default -> "idempotent producer + 결과/오프셋 트랜잭션 커밋 → 정확히 1번 처리 보장";
+        };
+        result.put("explanation", explanation);
+        return result;
+    }
+
+    /**
+     * 파티션 하나를 끝까지 소비 (장애가 나면 커밋된 오프셋부터 다시)
+     * @return 주입된 장애 횟수
+     */
+    private int consumeWithGuarantee(String guaranteeType, int partition, TransactionalOutputStore store, int failRate) {
+        TopicPartition partitionLog = partitions.get(partition);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int[] staged = new int[GUARANTEE_POLL_RECORDS];
+        int crashes = 0;
+        long position = store.committedOffset(partition);
+        List<LogRecord> records;
+        while (!(records = partitionLog.read(position, GUARANTEE_POLL_RECORDS)).isEmpty()) {
+            long nextOffset = records.get(records.size() - 1).offset() + 1;
+            // 이 poll을 처리하다 crashAt번째 레코드에서 죽는다 (-1 = 정상)
+            int crashAt = random.nextInt(100) < failRate ? random.nextInt(records.size()) : -1;
+            int processed = crashAt >= 0 ? crashAt : records.size();
+            if (crashAt >= 0) {
+                crashes++;
+            }
 
-                    case "exactly-once":
-                        // 트랜잭션 처리 → 실패해도 재시도, 중복 없음
-                        if (!processedOffsets.contains(msg.offset)) {
-                            processedOffsets.add(msg.offset);
-                            successCount.incrementAndGet();
+            switch (guaranteeType) {
+                case "at-most-once" -> {
+                    // 처리 전에 커밋 - 죽으면 커밋 뒤의 남은 레코드는 다시 읽지 않는다
+                    store.commitOffset(partition, nextOffset);
+                    for (int i = 0; i < processed; i++) {
+                        store.apply(messageIndex(records.get(i)));
+                    }
+                    position = nextOffset;
+                }
+                case "at-least-once" -> {
+                    // 결과는 바로 반영, 처리 후 커밋 - 죽으면 이미 반영한 레코드를 다시 처리
+                    for (int i = 0; i < processed; i++) {
+                        store.apply(messageIndex(records.get(i)));
+                    }
+                    if (crashAt < 0) {
+                        store.commitOffset(partition, nextOffset);
+                    }
+                    position = store.committedOffset(partition);
+                }
+                default -> {
+                    // 결과는 버퍼에만 쌓고 오프셋과 함께 커밋 - 죽으면 버퍼째 버린다
+                    int count = 0;
+                    for (int i = 0; i < processed; i++) {
+                        LogRecord record = records.get(i);
+                        if (!store.isApplied(partition, record.offset())) {
+                            staged[count++] = messageIndex(record);
                         }
-                        break;
+                    }
+                    if (crashAt < 0) {
+                        store.commit(partition, staged, count, nextOffset);
+                    }
+                    position = store.committedOffset(partition);
                 }
             }
         }
+        return crashes;
+    }
+
+    /**
+     * "Message_{i}_{timestamp}"의 i
+     */
+    private static int messageIndex(LogRecord record) {
+        String value = record.value();
+        int start = value.indexOf('_') + 1;
+        return Integer.parseInt(value, start, value.indexOf('_', start), 10);
+    }
+
+    /**
+     * 세 보장 수준을 같은 조건으로 차례로 돌려 처리량 비용 비교
+     */
+    public Map<String, Object> compareDeliveryGuarantees(int messageCount, int failRate) {
+        Map<String, Object> levels = new LinkedHashMap<>();
+        for (String guaranteeType : List.of("at-most-once", "at-least-once", "exactly-once")) {
+            levels.put(guaranteeType, simulateDeliveryGuarantee(guaranteeType, messageCount, failRate));
+        }
+        double baseline = (double) ((Map<?, ?>) levels.get("at-most-once")).get("recordsPerSec");
+        Map<String, Object> relativeThroughput = new LinkedHashMap<>();
+        levels.forEach((guaranteeType, level) ->
+                relativeThroughput.put(guaranteeType, (double) ((Map<?, ?>) level).get("recordsPerSec") / baseline));
 
         Map<String, Object> result = new HashMap<>();
-        result.put("guaranteeType", guaranteeType);
-        result.put("totalMessages", messageCount);
-        result.put("successCount", successCount.get());
-        result.put("duplicates", duplicates.get());
-        result.put("lost", lost.get());
+        result.put("messageCount", messageCount);
         result.put("failRate", failRate + "%");
+        result.put("levels", levels);
+        result.put("relativeThroughput", relativeThroughput);
+        return result;
+    }
 
-        String explanation;
-        switch (guaranteeType) {
-            case "at-most-once":
-                explanation = "처리 전 커밋 → 빠르지만 메시지 유실 가능";
-                break;
-            case "at-least-once":
-                explanation = "처리 후 커밋 → 메시지 보장되지만 중복 가능";
-                break;
-            default:
-                explanation = "트랜잭션 + 멱등성 → 정확히 1번 처리 보장";
+    /**
+     * 오프셋 지정 읽기 - 메시지를 지우지 않으므로 같은 구간을 몇 번이든 다시 읽을 수 있다
+     */
+    public Map<String, Object> fetch(int partition, long offset, int maxRecords) {
+        TopicPartition partitionLog = partitions.get(partition);
+        if (partitionLog == null) {
+            throw new IllegalArgumentException("Unknown partition: " + partition);
+        }
+        List<Map<String, Object>> messages = new ArrayList<>();
+        for (LogRecord record : partitionLog.read(offset, maxRecords)) {
+            Map<String, Object> message = new HashMap<>();
+            message.put("offset", record.offset());
+            message.put("key", record.key());
+            message.put("value", record.value());
+            message.put("timestamp", record.timestamp());
+            messages.add(message);
         }
-        result.put("explanation", explanation);
 
+        Map<String, Object> result = new HashMap<>();
+        result.put("partition", partition);
+        result.put("requestedOffset", offset);
+        result.put("logStartOffset", partitionLog.logStartOffset());
+        result.put("logEndOffset", partitionLog.logEndOffset());
+        result.put("messages", messages);
+        return result;
+    }
+
+    /**
+     * 바이너리 fetch - 메시지를 객체로 풀지 않고 offset부터 maxBytes 안의 세그먼트 구간만 잘라 준다
+     * 전송은 호출 측이 FileSlice.transferTo(또는 컨테이너 sendfile)로 하므로 힙 복사와 JSON 변환이 없다.
+     */
+    public FileSlice fetchSlice(int partition, long offset, int maxBytes) {
+        TopicPartition partitionLog = partitions.get(partition);
+        if (partitionLog == null) {
+            throw new IllegalArgumentException("Unknown partition: " + partition);
+        }
+        if (!(partitionLog instanceof PartitionLog segmented)) {
+            throw new IllegalArgumentException("Binary fetch requires a log partition, partition "
+                    + partition + " is " + partitionLog.type());
+        }
+        FileSlice slice = segmented.slice(offset, maxBytes);
+        binaryFetchCount.increment();
+        binaryFetchBytes.add(slice.sizeInBytes());
+        return slice;
+    }
+
+    /**
+     * 파티션별 세그먼트 구성
+     */
+    public Map<String, Object> getLogStats() {
+        Map<Integer, Object> partitionStats = new TreeMap<>();
+        partitions.forEach((partition, partitionLog) -> {
+            Map<String, Object> stat = new HashMap<>();
+            stat.put("logStartOffset", partitionLog.logStartOffset());
+            stat.put("logEndOffset", partitionLog.logEndOffset());
+            stat.put("sizeBytes", partitionLog.sizeInBytes());
+            stat.put("type", partitionLog.type());
+            if (partitionLog instanceof PartitionLog segmented) {
+                stat.put("segments", segmented.segmentInfo());
+            } else if (partitionLog instanceof RingBufferPartition ring) {
+                stat.put("capacity", ring.capacity());
+                stat.put("producerType", ring.producerType().name());
+                stat.put("waitStrategy", ring.waitStrategy());
+            }
+            partitionStats.put(partition, stat);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("directory", topicDir().toString());
+        result.put("segmentBytes", segmentBytes);
+        result.put("indexIntervalBytes", indexIntervalBytes);
+        result.put("retentionBytes", retentionBytes);
+        result.put("retentionMs", retentionMs);
+        result.put("compactionEnabled", compactionEnabled);
+        result.put("compactionRuns", compactionRuns.sum());
+        result.put("compactionBytesReclaimed", compactedBytesReclaimed.sum());
+        result.put("compactionRecordsRemoved", compactedRecordsRemoved.sum());
+        result.put("binaryFetchCount", binaryFetchCount.sum());
+        result.put("binaryFetchBytes", binaryFetchBytes.sum());
+        result.put("partitions", partitionStats);
+        return result;
+    }
+
+    /**
+     * 큐 구현별 생산자 → 소비자 전달 비교 (처리량, 메시지당 할당량, 지연 분포)
+     */
+    public Map<String, Object> compareQueues(int messageCount, int producers, int bufferSize) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("messageCount", messageCount);
+        result.put("producers", producers);
+        result.put("bufferSize", bufferSize);
+        try {
+            result.put("queues", QueueHandoffBenchmark.compare(messageCount, producers, bufferSize));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Queue comparison interrupted", e);
+        }
         return result;
     }
 
@@ -328,25 +1352,54 @@ public class MessageQueueService {
      */
     public Map<String, Object> getStats() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("producedCount", producedCount.get());
-        stats.put("consumedCount", consumedCount.get());
+        stats.put("producedCount", producedCount.sum());
+        stats.put("consumedCount", consumedCount.sum());
         stats.put("pendingCount", getTotalPendingMessages());
         stats.put("partitionCount", partitionCount);
+        stats.put("partitionType", partitionType);
         stats.put("partitionSizes", getPartitionSizes());
+        stats.put("logSizeBytes", totalLogBytes());
+        stats.put("backpressure", bufferLimiter.stats());
+        stats.put("duplicateCount", duplicateCount.get());
+        stats.put("lostCount", lostCount.get());
         stats.put("activeConsumers", getActiveConsumers());
+        stats.put("consumingGroups", new ArrayList<>(runtimes.keySet()));
         return stats;
     }
 
-    private Map<Integer, Integer> getPartitionSizes() {
-        Map<Integer, Integer> sizes = new HashMap<>();
-        for (Map.Entry<Integer, BlockingQueue<Message>> entry : partitions.entrySet()) {
-            sizes.put(entry.getKey(), entry.getValue().size());
+    /**
+     * 파티션별 로그에 남아 있는 메시지 수 (소비해도 줄지 않고 retention으로만 줄어든다)
+     */
+    private Map<Integer, Long> getPartitionSizes() {
+        Map<Integer, Long> sizes = new HashMap<>();
+        for (Map.Entry<Integer, TopicPartition> entry : partitions.entrySet()) {
+            TopicPartition partitionLog = entry.getValue();
+            sizes.put(entry.getKey(), partitionLog.logEndOffset() - partitionLog.logStartOffset());
         }
         return sizes;
     }
 
+    private long getTotalRetainedMessages() {
+        return getPartitionSizes().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 아직 어떤 그룹도 커밋하지 않은 메시지 수 - 파티션마다 가장 뒤처진 그룹의 커밋 오프셋부터 로그 끝까지
+     */
     private long getTotalPendingMessages() {
-        return partitions.values().stream().mapToInt(BlockingQueue::size).sum();
+        long pending = 0;
+        for (Map.Entry<Integer, TopicPartition> entry : partitions.entrySet()) {
+            TopicPartition partitionLog = entry.getValue();
+            Long slowest = null;
+            for (GroupOffsets groupOffsets : consumerOffsets.values()) {
+                Long committed = groupOffsets.committed(entry.getKey());
+                if (committed != null && (slowest == null || committed < slowest)) {
+                    slowest = committed;
+                }
+            }
+            pending += partitionLog.logEndOffset() - lagFrom(slowest, partitionLog);
+        }
+        return pending;
     }
 
     private List<Map<String, Object>> getActiveConsumers() {
@@ -357,7 +1410,8 @@ public class MessageQueueService {
                 info.put("consumerId", c.consumerId);
                 info.put("groupId", c.groupId);
                 info.put("partitions", c.assignedPartitions);
-                info.put("consumedCount", c.consumedCount);
+                info.put("consumedCount", c.consumedCount.sum());
+                info.put("paused", c.paused);
                 result.add(info);
             }
         }
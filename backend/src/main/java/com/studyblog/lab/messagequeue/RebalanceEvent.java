@@ -0,0 +1,11 @@
+package com.studyblog.lab.messagequeue;
+
+/**
+ * 리밸런싱 한 번의 비용
+ *
+ * @param partitionsMoved   주인이 바뀐 파티션 수
+ * @param partitionsRevoked 워커를 멈춘 파티션 수 (eager면 그룹 전체, cooperative면 옮긴 것만)
+ * @param pauseMs           회수한 파티션이 소비를 멈춘 시간 (회수 시작 ~ 새 워커 시작)
+ */
+public record RebalanceEvent(String groupId, String assignor, int generation, int members, int partitions,
+                             int partitionsMoved, int partitionsRevoked, double pauseMs, long timestamp) { }
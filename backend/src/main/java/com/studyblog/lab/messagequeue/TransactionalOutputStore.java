@@ -0,0 +1,95 @@
+package com.studyblog.lab.messagequeue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Consumer 처리 결과(output)와 소비 오프셋을 한 저장소에 두고 함께 커밋한다 (consume-transform-commit)
+ *
+ * exactly-once 소비는 결과를 commit 전까지 호출 측 버퍼에만 쌓고, commit이 결과 반영과 오프셋 전진을
+ * 같은 잠금 안에서 한 번에 한다. 도중에 죽으면 버퍼를 버리고 커밋된 오프셋부터 다시 읽으므로 결과가 두 번 반영되지 않는다.
+ * 중복 판정 상태는 파티션당 커밋 오프셋(high watermark) 하나뿐 - 처리한 오프셋을 집합으로 쌓지 않는다.
+ *
+ * at-most-once / at-least-once 비교용으로 결과와 오프셋을 따로 쓰는 apply / commitOffset도 둔다.
+ */
+final class TransactionalOutputStore {
+
+    // 결과 테이블 - 메시지 번호별 반영 횟수 (0 = 유실, 2 이상 = 중복)
+    private final AtomicIntegerArray output;
+    // 파티션별 다음에 처리할 오프셋 - 해당 파티션 잠금 안에서만 읽고 쓴다
+    private final long[] committedOffsets;
+    private final Object[] locks;
+
+    TransactionalOutputStore(int partitions, int outputSize) {
+        this.output = new AtomicIntegerArray(outputSize);
+        this.committedOffsets = new long[partitions];
+        this.locks = new Object[partitions];
+        for (int i = 0; i < partitions; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    long committedOffset(int partition) {
+        synchronized (locks[partition]) {
+            return committedOffsets[partition];
+        }
+    }
+
+    /**
+     * high watermark 아래 = 이미 커밋된 트랜잭션에 반영된 레코드 (재전달되면 건너뛴다)
+     */
+    boolean isApplied(int partition, long offset) {
+        return offset < committedOffset(partition);
+    }
+
+    /**
+     * 트랜잭션 커밋 - 버퍼에 쌓인 결과와 nextOffset을 한 번에 반영
+     * @return 늦게 도착한 (이미 더 앞까지 커밋된) 트랜잭션이면 false
+     */
+    boolean commit(int partition, int[] staged, int count, long nextOffset) {
+        synchronized (locks[partition]) {
+            if (nextOffset <= committedOffsets[partition]) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                output.incrementAndGet(staged[i]);
+            }
+            committedOffsets[partition] = nextOffset;
+            return true;
+        }
+    }
+
+    /**
+     * 트랜잭션 없이 결과만 반영
+     */
+    void apply(int messageIndex) {
+        output.incrementAndGet(messageIndex);
+    }
+
+    /**
+     * 트랜잭션 없이 오프셋만 커밋
+     */
+    void commitOffset(int partition, long nextOffset) {
+        synchronized (locks[partition]) {
+            committedOffsets[partition] = Math.max(committedOffsets[partition], nextOffset);
+        }
+    }
+
+    /**
+     * 결과 테이블 검증 - [반영된 메시지 수, 중복 반영 수, 유실 수]
+     */
+    long[] verify() {
+        long delivered = 0;
+        long duplicates = 0;
+        long lost = 0;
+        for (int i = 0; i < output.length(); i++) {
+            int count = output.get(i);
+            if (count == 0) {
+                lost++;
+            } else {
+                delivered++;
+                duplicates += count - 1;
+            }
+        }
+        return new long[]{delivered, duplicates, lost};
+    }
+}
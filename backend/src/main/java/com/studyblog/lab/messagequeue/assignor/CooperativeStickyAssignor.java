@@ -0,0 +1,74 @@
+package com.studyblog.lab.messagequeue.assignor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cooperative Sticky - 균형(멤버당 floor/ceil(P/N)개)을 맞추면서 현재 할당을 최대한 유지
+ *
+ * 1. 지금 많이 가진 멤버부터 ceil 몫을 준다 (그래야 빼앗을 파티션이 줄어든다)
+ * 2. 각 멤버는 자기 몫까지 기존 파티션을 그대로 유지
+ * 3. 남는 파티션(몫 초과분 + 떠난 멤버 것)만 몫이 빈 멤버에게 나눠 준다
+ * cooperative이므로 실제로 주인이 바뀌는 파티션만 회수되고 나머지는 리밸런싱 중에도 소비를 계속한다.
+ */
+public class CooperativeStickyAssignor implements PartitionAssignor {
+
+    @Override
+    public String name() {
+        return "cooperative-sticky";
+    }
+
+    @Override
+    public boolean cooperative() {
+        return true;
+    }
+
+    @Override
+    public Map<String, List<Integer>> assign(Map<String, List<Integer>> current, List<String> members, int partitionCount) {
+        Map<String, List<Integer>> assignment = new LinkedHashMap<>();
+        for (String member : members) {
+            assignment.put(member, new ArrayList<>());
+        }
+        if (members.isEmpty()) return assignment;
+
+        List<String> byOwned = new ArrayList<>(members);
+        byOwned.sort(Comparator.comparingInt((String m) -> current.getOrDefault(m, List.of()).size()).reversed());
+        Map<String, Integer> quota = new HashMap<>();
+        int base = partitionCount / members.size();
+        int extra = partitionCount % members.size();
+        for (int i = 0; i < byOwned.size(); i++) {
+            quota.put(byOwned.get(i), base + (i < extra ? 1 : 0));
+        }
+
+        // 기존 할당 유지 (몫까지)
+        boolean[] taken = new boolean[partitionCount];
+        for (String member : byOwned) {
+            List<Integer> kept = assignment.get(member);
+            for (int p : current.getOrDefault(member, List.of())) {
+                if (kept.size() >= quota.get(member)) break;
+                if (p < partitionCount && !taken[p]) {
+                    kept.add(p);
+                    taken[p] = true;
+                }
+            }
+        }
+
+        // 남은 파티션을 몫이 빈 멤버에게
+        int next = 0;
+        for (String member : byOwned) {
+            List<Integer> owned = assignment.get(member);
+            while (owned.size() < quota.get(member)) {
+                while (taken[next]) next++;
+                owned.add(next);
+                taken[next] = true;
+            }
+            Collections.sort(owned);
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,34 @@
+package com.studyblog.lab.messagequeue.assignor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumer Group 파티션 할당 전략
+ */
+public interface PartitionAssignor {
+
+    String name();
+
+    /**
+     * true면 옮겨야 하는 파티션만 회수하고 나머지는 소비를 계속한다 (cooperative),
+     * false면 리밸런싱마다 그룹 전체의 할당을 회수한다 (eager)
+     */
+    boolean cooperative();
+
+    /**
+     * @param current        멤버별 현재 할당 (새 멤버는 없음)
+     * @param members        할당받을 멤버 (순서 유지)
+     * @param partitionCount 파티션 수
+     * @return 멤버별 새 할당 (members 순서, 파티션 오름차순)
+     */
+    Map<String, List<Integer>> assign(Map<String, List<Integer>> current, List<String> members, int partitionCount);
+
+    static PartitionAssignor forName(String name) {
+        return switch (name) {
+            case "round-robin" -> new RoundRobinAssignor();
+            case "cooperative-sticky" -> new CooperativeStickyAssignor();
+            default -> throw new IllegalArgumentException("Unknown assignor: " + name);
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.studyblog.lab.messagequeue.assignor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 라운드 로빈 (eager) - 현재 할당을 보지 않고 파티션 p를 p % 멤버 수 번째 멤버에게
+ */
+public class RoundRobinAssignor implements PartitionAssignor {
+
+    @Override
+    public String name() {
+        return "round-robin";
+    }
+
+    @Override
+    public boolean cooperative() {
+        return false;
+    }
+
+    @Override
+    public Map<String, List<Integer>> assign(Map<String, List<Integer>> current, List<String> members, int partitionCount) {
+        Map<String, List<Integer>> assignment = new LinkedHashMap<>();
+        for (String member : members) {
+            assignment.put(member, new ArrayList<>());
+        }
+        if (members.isEmpty()) return assignment;
+
+        for (int p = 0; p < partitionCount; p++) {
+            assignment.get(members.get(p % members.size())).add(p);
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,32 @@
+package com.studyblog.lab.messagequeue.log;
+
+/**
+ * 파티션 한 번 컴팩션한 결과
+ *
+ * @param segmentsCleaned  다시 쓴 세그먼트 수 (비어서 지운 세그먼트 포함)
+ * @param segmentsDeleted  레코드가 하나도 남지 않아 지운 세그먼트 수
+ * @param recordsRead      읽은 레코드 수
+ * @param recordsRetained  남긴 레코드 수
+ * @param bytesBefore      다시 쓰기 전 세그먼트 크기 합
+ * @param bytesAfter       다시 쓴 뒤 세그먼트 크기 합
+ * @param distinctKeys     오프셋 맵에 들어간 키 수
+ * @param durationNanos    맵 생성 + 다시 쓰기 시간
+ */
+public record CompactionResult(int segmentsCleaned, int segmentsDeleted, long recordsRead, long recordsRetained,
+                               long bytesBefore, long bytesAfter, int distinctKeys, long durationNanos) {
+
+    public static final CompactionResult NONE = new CompactionResult(0, 0, 0, 0, 0, 0, 0, 0);
+
+    public long bytesReclaimed() {
+        return bytesBefore - bytesAfter;
+    }
+
+    /** 읽은 세그먼트 바이트 기준 처리량 */
+    public double megabytesPerSec() {
+        return durationNanos > 0 ? bytesBefore / 1_048_576.0 / (durationNanos / 1_000_000_000.0) : 0;
+    }
+
+    public double recordsPerSec() {
+        return durationNanos > 0 ? recordsRead / (durationNanos / 1_000_000_000.0) : 0;
+    }
+}
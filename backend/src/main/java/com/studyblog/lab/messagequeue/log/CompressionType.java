@@ -0,0 +1,36 @@
+package com.studyblog.lab.messagequeue.log;
+
+/**
+ * 배치 압축 코덱 - attributes 하위 3비트에 id를 기록한다
+ * JDK 내장 코덱만 사용 (LZ4/Snappy/Zstd는 외부 라이브러리가 필요해 제외)
+ */
+public enum CompressionType {
+    NONE(0),
+    DEFLATE(1);
+
+    static final int MASK = 0x07;
+
+    private final int id;
+
+    CompressionType(int id) {
+        this.id = id;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public static CompressionType forId(int id) {
+        for (CompressionType type : values()) {
+            if (type.id == id) return type;
+        }
+        throw new IllegalArgumentException("Unknown compression codec id: " + id);
+    }
+
+    /**
+     * 설정값 파싱 ("none", "deflate")
+     */
+    public static CompressionType forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
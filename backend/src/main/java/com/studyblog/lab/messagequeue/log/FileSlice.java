@@ -0,0 +1,98 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+/**
+ * 세그먼트 파일의 연속 구간 - 배치 경계에 맞춘 RecordBatch 프레임들 (디스크 형식 그대로)
+ *
+ * 프레임 = [baseOffset:8][batchLength:4][batchLength bytes], 받는 쪽은 batchLength만 보고 다음 프레임으로 넘어간다.
+ * 첫 배치는 요청한 오프셋보다 앞의 레코드를 포함할 수 있으므로 받는 쪽이 건너뛴다.
+ * 커널 안에서만 복사하려면 file()/position()/sizeInBytes()를 sendfile에 넘긴다 - 경로는 컴팩션이 덮어쓰지 않고(세대마다 새 이름)
+ * 세그먼트 맵에서 빠져도 PartitionLog.FILE_DELETE_DELAY_MS 동안은 남는다.
+ * transferTo는 대상이 소켓/파일 채널일 때만 커널 복사이고, 서블릿 OutputStream을 감싼 채널이면 JDK 버퍼를 거친다.
+ * 세그먼트를 빌리고(retain) 있으므로 전송이 끝나면(또는 경로를 넘긴 뒤) close로 반납해야 미룬 close/delete가 진행된다.
+ */
+public final class FileSlice implements Closeable {
+
+    private final LogSegment segment;
+    private final int position;
+    private final int sizeInBytes;
+    private final long firstOffset;
+    private final long nextOffset;
+    private final long logEndOffset;
+    private boolean released;
+
+    FileSlice(LogSegment segment, int position, int sizeInBytes, long firstOffset, long nextOffset, long logEndOffset) {
+        this.segment = segment;
+        this.position = position;
+        this.sizeInBytes = sizeInBytes;
+        this.firstOffset = firstOffset;
+        this.nextOffset = nextOffset;
+        this.logEndOffset = logEndOffset;
+    }
+
+    /**
+     * 보낼 배치가 없는 구간 (로그 끝을 요청한 경우)
+     */
+    static FileSlice empty(long offset, long logEndOffset) {
+        return new FileSlice(null, 0, 0, offset, offset, logEndOffset);
+    }
+
+    /**
+     * target으로 구간 전체 전송 - 소켓/파일 채널이면 커널이 직접, 그 밖의 채널이면 JDK가 임시 버퍼로 옮긴다
+     * @return 보낸 바이트 수
+     */
+    public long transferTo(WritableByteChannel target) throws IOException {
+        long transferred = 0;
+        while (transferred < sizeInBytes) {
+            long sent = segment.transferTo(position + transferred, sizeInBytes - transferred, target);
+            if (sent <= 0) {
+                throw new IOException("Transfer stalled at " + transferred + " of " + sizeInBytes + " bytes");
+            }
+            transferred += sent;
+        }
+        return transferred;
+    }
+
+    /** 세그먼트 파일 경로 (sendfile을 파일 이름으로 넘기는 컨테이너용) */
+    public Path file() {
+        return segment != null ? segment.logPath() : null;
+    }
+
+    public long position() {
+        return position;
+    }
+
+    public int sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /** 첫 배치의 baseOffset */
+    public long firstOffset() {
+        return firstOffset;
+    }
+
+    /** 다음 fetch에 쓸 오프셋 (마지막 배치 다음) */
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    public long logEndOffset() {
+        return logEndOffset;
+    }
+
+    /**
+     * 세그먼트 반납 (두 번 불러도 한 번만)
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (segment == null || released) {
+            return;
+        }
+        released = true;
+        segment.release();
+    }
+}
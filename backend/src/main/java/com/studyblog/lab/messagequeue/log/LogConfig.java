@@ -0,0 +1,28 @@
+package com.studyblog.lab.messagequeue.log;
+
+/**
+ * 파티션 로그 설정
+ *
+ * @param segmentBytes       세그먼트 파일 최대 크기 (넘으면 새 세그먼트로 roll)
+ * @param indexIntervalBytes 이 바이트만큼 쓸 때마다 sparse index 엔트리 1개
+ * @param retentionBytes     파티션 전체 크기 상한 (-1이면 무제한)
+ * @param retentionMs        세그먼트 최대 보관 시간 (-1이면 무제한)
+ */
+public record LogConfig(int segmentBytes, int indexIntervalBytes, long retentionBytes, long retentionMs) {
+
+    public LogConfig {
+        if (segmentBytes < RecordBatch.HEADER_SIZE) {
+            throw new IllegalArgumentException("segmentBytes too small: " + segmentBytes);
+        }
+        if (indexIntervalBytes <= 0) {
+            throw new IllegalArgumentException("indexIntervalBytes must be positive: " + indexIntervalBytes);
+        }
+    }
+
+    /**
+     * 세그먼트 하나에 들어갈 수 있는 최대 인덱스 엔트리 수
+     */
+    int maxIndexEntries() {
+        return segmentBytes / indexIntervalBytes + 2;
+    }
+}
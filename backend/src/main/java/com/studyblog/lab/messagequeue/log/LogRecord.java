@@ -0,0 +1,6 @@
+package com.studyblog.lab.messagequeue.log;
+
+/**
+ * 로그에서 읽은 레코드
+ */
+public record LogRecord(long offset, long timestamp, String key, String value) { }
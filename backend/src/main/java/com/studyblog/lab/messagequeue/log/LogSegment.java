@@ -0,0 +1,366 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 로그 세그먼트 - {baseOffset}.log (배치 연속) + {baseOffset}.index (sparse index)
+ * 컴팩션으로 다시 쓴 세그먼트는 {baseOffset}.{generation}.log / .index로 새 이름을 받는다 - 한 번 쓴 경로의 내용은 바뀌지 않는다.
+ *
+ * 활성 세그먼트는 segmentBytes 크기로 미리 mmap 해 두고 절대 위치 put으로 이어 쓴다.
+ * size는 배치를 다 쓴 뒤에 volatile로 갱신하므로, 읽는 쪽은 size까지만 보면 항상 완성된 배치만 본다.
+ * 가득 차면 seal()로 실제 크기만큼 잘라 읽기 전용으로 다시 매핑한다.
+ * FileSlice가 빌려 간(retain) 동안에는 컴팩션/retention이 close/delete를 불러도 채널을 닫지 않고,
+ * 파일은 .deleted로 이름만 바꿔 둔 뒤 마지막 release에서 닫고 지운다.
+ */
+public final class LogSegment implements Closeable {
+
+    static final String DELETED_SUFFIX = ".deleted";
+
+    private final long baseOffset;
+    private final int generation;
+    private final Path logPath;
+    private final FileChannel channel;
+    private final OffsetIndex index;
+    private final int indexIntervalBytes;
+
+    private volatile MappedByteBuffer mmap;
+    private volatile int size;
+    private volatile long nextOffset;
+    private volatile long maxTimestamp = -1;
+    private int bytesSinceLastIndexEntry;
+
+    // 전송 중인 FileSlice 수 (this로 잠금)
+    private int leases;
+    private boolean retired;
+    private List<Path> filesToDelete = List.of();
+
+    private LogSegment(long baseOffset, int generation, Path logPath, FileChannel channel, MappedByteBuffer mmap,
+                       OffsetIndex index, int indexIntervalBytes) {
+        this.baseOffset = baseOffset;
+        this.generation = generation;
+        this.logPath = logPath;
+        this.channel = channel;
+        this.mmap = mmap;
+        this.index = index;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.nextOffset = baseOffset;
+    }
+
+    /**
+     * 세그먼트 파일 이름 - {baseOffset}.log(.index) 또는 {baseOffset}.{generation}.log(.index)
+     */
+    record FileName(long baseOffset, int generation, boolean log) {
+
+        /**
+         * @return 세그먼트 파일이 아니면 null
+         */
+        static FileName parse(String name) {
+            boolean log = name.endsWith(".log");
+            if (!log && !name.endsWith(".index")) {
+                return null;
+            }
+            String stem = name.substring(0, name.lastIndexOf('.'));
+            int dot = stem.indexOf('.');
+            try {
+                return dot < 0
+                        ? new FileName(Long.parseLong(stem), 0, log)
+                        : new FileName(Long.parseLong(stem.substring(0, dot)), Integer.parseInt(stem.substring(dot + 1)), log);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    static Path logFile(Path dir, long baseOffset, int generation) {
+        return dir.resolve(fileStem(baseOffset, generation) + ".log");
+    }
+
+    static Path indexFile(Path dir, long baseOffset, int generation) {
+        return dir.resolve(fileStem(baseOffset, generation) + ".index");
+    }
+
+    private static String fileStem(long baseOffset, int generation) {
+        return generation == 0 ? String.format("%020d", baseOffset) : String.format("%020d.%d", baseOffset, generation);
+    }
+
+    /**
+     * 새 활성 세그먼트
+     */
+    static LogSegment create(Path dir, long baseOffset, LogConfig config) throws IOException {
+        Files.deleteIfExists(logFile(dir, baseOffset, 0));
+        Files.deleteIfExists(indexFile(dir, baseOffset, 0));
+        return openActive(dir, baseOffset, 0, config);
+    }
+
+    /**
+     * 마지막 세그먼트 복구 - CRC가 맞는 배치까지만 인정하고 인덱스를 다시 만든다
+     */
+    static LogSegment openActive(Path dir, long baseOffset, int generation, LogConfig config) throws IOException {
+        Path path = logFile(dir, baseOffset, generation);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(config.segmentBytes(), channel.size());
+        MappedByteBuffer mmap = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        OffsetIndex index = OffsetIndex.openMutable(indexFile(dir, baseOffset, generation), config.maxIndexEntries());
+
+        LogSegment segment = new LogSegment(baseOffset, generation, path, channel, mmap, index,
+                config.indexIntervalBytes());
+        segment.recover();
+        return segment;
+    }
+
+    /**
+     * 닫힌 세그먼트 - 파일 크기 그대로 읽기 전용 매핑, 인덱스는 디스크에 있는 것을 사용
+     */
+    static LogSegment openSealed(Path dir, long baseOffset, int generation, LogConfig config) throws IOException {
+        Path path = logFile(dir, baseOffset, generation);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer mmap = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        OffsetIndex index = OffsetIndex.openReadOnly(indexFile(dir, baseOffset, generation));
+
+        LogSegment segment = new LogSegment(baseOffset, generation, path, channel, mmap, index,
+                config.indexIntervalBytes());
+        segment.size = (int) channel.size();
+        // 헤더만 건너뛰며 마지막 오프셋 / 최대 타임스탬프 확인
+        int position = 0;
+        RecordBatch batch;
+        while ((batch = RecordBatch.readFrom(mmap, position, segment.size)) != null) {
+            segment.nextOffset = batch.nextOffset();
+            segment.maxTimestamp = Math.max(segment.maxTimestamp, batch.maxTimestamp());
+            position += batch.sizeInBytes();
+        }
+        return segment;
+    }
+
+    /**
+     * 컴팩션으로 새로 쓴 세그먼트(다른 디렉터리에서 seal까지 끝난 것)를 dir에 generation 이름으로 옮겨 연다
+     * 옛 세그먼트의 파일은 덮어쓰지 않으므로 그 경로를 넘겨받은 쪽(sendfile)은 지워지기 전까지 옛 내용을 그대로 읽는다.
+     * 로그 → 인덱스 순으로 옮기므로, 중간에 죽으면 새 세대는 인덱스 없이 열린다 (처음부터 헤더를 건너뛰며 찾는다).
+     */
+    static LogSegment replaceWith(LogSegment cleaned, Path dir, int generation, LogConfig config) throws IOException {
+        cleaned.close();
+        long baseOffset = cleaned.baseOffset;
+        Files.move(cleaned.logPath, logFile(dir, baseOffset, generation), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(cleaned.index.path(), indexFile(dir, baseOffset, generation), StandardCopyOption.ATOMIC_MOVE);
+        return openSealed(dir, baseOffset, generation, config);
+    }
+
+    private void recover() {
+        MappedByteBuffer buffer = mmap;
+        int position = 0;
+        index.reset();
+        bytesSinceLastIndexEntry = indexIntervalBytes;
+        RecordBatch batch;
+        while ((batch = RecordBatch.readFrom(buffer, position, buffer.capacity())) != null && batch.isValid()) {
+            maybeIndex(batch.baseOffset(), position, batch.sizeInBytes());
+            nextOffset = batch.nextOffset();
+            maxTimestamp = Math.max(maxTimestamp, batch.maxTimestamp());
+            position += batch.sizeInBytes();
+        }
+        // 잘린 배치나 이전에 쓰다 만 바이트가 다음 복구 때 배치로 보이지 않도록 비운다
+        for (int i = position; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+        size = position;
+    }
+
+    /**
+     * 배치 추가 - 남은 공간이 부족하면 false (호출 측이 roll)
+     */
+    boolean append(ByteBuffer batch, long lastOffset, long batchMaxTimestamp) {
+        MappedByteBuffer buffer = mmap;
+        int length = batch.remaining();
+        int position = size;
+        if (buffer.isReadOnly() || position + length > buffer.capacity()) {
+            return false;
+        }
+        buffer.put(position, batch, batch.position(), length);
+        maybeIndex(batch.getLong(batch.position() + RecordBatch.BASE_OFFSET_OFFSET), position, length);
+        nextOffset = lastOffset + 1;
+        maxTimestamp = Math.max(maxTimestamp, batchMaxTimestamp);
+        size = position + length; // 발행 - 이 이후로 읽는 쪽에 보인다
+        return true;
+    }
+
+    private void maybeIndex(long batchBaseOffset, int position, int length) {
+        if (bytesSinceLastIndexEntry >= indexIntervalBytes) {
+            index.append((int) (batchBaseOffset - baseOffset), position);
+            bytesSinceLastIndexEntry = 0;
+        }
+        bytesSinceLastIndexEntry += length;
+    }
+
+    /**
+     * offset을 포함하는 배치의 파일 위치 (없으면 size)
+     */
+    int translateOffset(long offset) {
+        MappedByteBuffer buffer = mmap;
+        int limit = size;
+        int position = index.lookup(offset - baseOffset);
+        RecordBatch batch;
+        while ((batch = RecordBatch.readFrom(buffer, position, limit)) != null) {
+            if (batch.lastOffset() >= offset) {
+                return position;
+            }
+            position += batch.sizeInBytes();
+        }
+        return limit;
+    }
+
+    /**
+     * position에 있는 배치 (size를 넘으면 null)
+     */
+    RecordBatch batchAt(int position) {
+        return RecordBatch.readFrom(mmap, position, size);
+    }
+
+    /**
+     * 파일 구간을 target으로 (FileChannel.transferTo - target이 소켓/파일 채널일 때만 커널 안에서 복사)
+     * mmap으로 쓴 내용도 같은 page cache에 있으므로 활성 세그먼트에서도 size까지는 그대로 보인다.
+     */
+    long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+        return channel.transferTo(position, count, target);
+    }
+
+    /**
+     * 세그먼트를 닫고 실제 크기만큼 잘라 읽기 전용으로 다시 매핑
+     */
+    void seal() throws IOException {
+        mmap.force();
+        channel.truncate(size);
+        mmap = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        index.seal();
+    }
+
+    void flush() {
+        MappedByteBuffer buffer = mmap;
+        if (!buffer.isReadOnly()) {
+            buffer.force();
+        }
+        index.flush();
+    }
+
+    public long baseOffset() {
+        return baseOffset;
+    }
+
+    /** 컴팩션으로 다시 쓴 횟수 (파일 이름에 들어간다) */
+    public int generation() {
+        return generation;
+    }
+
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * 헤더만 훑어 레코드 수 합계 (레코드는 풀지 않는다)
+     */
+    long recordCount() {
+        long count = 0;
+        int position = 0;
+        RecordBatch batch;
+        while ((batch = batchAt(position)) != null) {
+            count += batch.recordCount();
+            position += batch.sizeInBytes();
+        }
+        return count;
+    }
+
+    public int indexEntries() {
+        return index.entries();
+    }
+
+    Path logPath() {
+        return logPath;
+    }
+
+    /**
+     * 전송하는 동안 세그먼트를 빌린다 - 끝나면 release
+     * @return 이미 close/delete된 세그먼트면 false (세그먼트 맵에서 다시 찾아야 한다)
+     */
+    synchronized boolean retain() {
+        if (retired) {
+            return false;
+        }
+        leases++;
+        return true;
+    }
+
+    /**
+     * retain 반납 - 그 사이 close/delete가 불렸고 마지막 반납이면 이제 닫고 지운다
+     */
+    void release() throws IOException {
+        List<Path> deferredDeletes;
+        synchronized (this) {
+            if (--leases > 0 || !retired) {
+                return;
+            }
+            deferredDeletes = filesToDelete;
+        }
+        closeFiles();
+        for (Path path : deferredDeletes) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            retired = true;
+            if (leases > 0) {
+                return;
+            }
+        }
+        closeFiles();
+    }
+
+    /**
+     * 파일 삭제 - 읽는 중인 스레드가 있어도 이미 잡은 매핑은 유효하다
+     * 전송 중이면 같은 이름으로 새 세그먼트가 생겨도 섞이지 않게 .deleted로 이름만 바꾸고 release에 맡긴다.
+     */
+    void delete() throws IOException {
+        synchronized (this) {
+            retired = true;
+            if (leases > 0) {
+                filesToDelete = List.of(markDeleted(logPath), markDeleted(index.path()));
+                return;
+            }
+        }
+        closeFiles();
+        Files.deleteIfExists(logPath);
+        Files.deleteIfExists(index.path());
+    }
+
+    private static Path markDeleted(Path path) throws IOException {
+        Path deleted = path.resolveSibling(path.getFileName() + DELETED_SUFFIX);
+        if (Files.exists(path)) {
+            Files.move(path, deleted, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return deleted;
+    }
+
+    private void closeFiles() throws IOException {
+        flush();
+        index.close();
+        channel.close();
+    }
+}
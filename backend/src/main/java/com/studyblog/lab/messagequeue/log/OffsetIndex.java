@@ -0,0 +1,118 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 세그먼트별 sparse offset index (memory-mapped)
+ * 엔트리 = [relativeOffset:int][position:int], 배치 시작 위치만 일정 간격으로 기록한다.
+ * 조회는 target 이하인 가장 큰 엔트리를 이진 탐색으로 찾고, 나머지는 세그먼트가 헤더를 건너뛰며 찾는다.
+ */
+final class OffsetIndex implements Closeable {
+
+    private static final int ENTRY_SIZE = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private volatile MappedByteBuffer mmap;
+    private final int maxEntries;
+    private volatile int entries;
+
+    private OffsetIndex(Path path, FileChannel channel, MappedByteBuffer mmap, int maxEntries, int entries) {
+        this.path = path;
+        this.channel = channel;
+        this.mmap = mmap;
+        this.maxEntries = maxEntries;
+        this.entries = entries;
+    }
+
+    /**
+     * 쓰기용 인덱스 (활성 세그먼트) - 엔트리는 세그먼트 복구 중에 다시 채운다
+     */
+    static OffsetIndex openMutable(Path path, int maxEntries) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mmap = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) maxEntries * ENTRY_SIZE);
+        return new OffsetIndex(path, channel, mmap, maxEntries, 0);
+    }
+
+    /**
+     * 읽기 전용 인덱스 (닫힌 세그먼트) - 파일 크기가 곧 엔트리 수
+     */
+    static OffsetIndex openReadOnly(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            Files.createFile(path);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        int entries = (int) (channel.size() / ENTRY_SIZE);
+        MappedByteBuffer mmap = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) entries * ENTRY_SIZE);
+        return new OffsetIndex(path, channel, mmap, entries, entries);
+    }
+
+    void append(int relativeOffset, int position) {
+        int count = entries;
+        if (count == maxEntries) return;
+        mmap.putInt(count * ENTRY_SIZE, relativeOffset);
+        mmap.putInt(count * ENTRY_SIZE + 4, position);
+        entries = count + 1;
+    }
+
+    /**
+     * relativeOffset 이하인 가장 큰 엔트리의 파일 위치 (없으면 0 = 세그먼트 처음)
+     */
+    int lookup(long relativeOffset) {
+        MappedByteBuffer buffer = mmap;
+        int low = 0;
+        int high = entries - 1;
+        int position = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entryOffset = buffer.getInt(mid * ENTRY_SIZE);
+            if (entryOffset <= relativeOffset) {
+                position = buffer.getInt(mid * ENTRY_SIZE + 4);
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return position;
+    }
+
+    void reset() {
+        entries = 0;
+    }
+
+    int entries() {
+        return entries;
+    }
+
+    /**
+     * 세그먼트를 닫을 때 실제 엔트리 수만큼 파일을 잘라 둔다 (다음 부팅에서 그대로 신뢰)
+     */
+    void seal() throws IOException {
+        mmap.force();
+        channel.truncate((long) entries * ENTRY_SIZE);
+        mmap = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) entries * ENTRY_SIZE);
+    }
+
+    void flush() {
+        if (!mmap.isReadOnly()) {
+            mmap.force();
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.util.Arrays;
+
+/**
+ * 컴팩션용 키 → 최신 오프셋 맵 (Kafka SkimpyOffsetMap과 같은 발상)
+ *
+ * 키 문자열 대신 64비트 해시만, 오프셋은 long으로 - long[] 두 개에 open addressing(선형 탐사)으로 넣어
+ * 엔트리당 16바이트이고 박싱된 Long이나 Entry 객체를 만들지 않는다.
+ * 해시가 같은 서로 다른 키는 구분하지 못하지만 64비트에서 충돌 확률은 무시할 만하다.
+ */
+final class OffsetMap {
+
+    private static final long EMPTY = -1;
+    private static final double LOAD_FACTOR = 0.75;
+
+    private final long[] hashes;
+    private final long[] offsets;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+
+    OffsetMap(int expectedEntries) {
+        int wanted = (int) Math.min(1 << 30, Math.max(16, expectedEntries / LOAD_FACTOR));
+        int capacity = Integer.highestOneBit(wanted - 1) << 1;
+        this.hashes = new long[capacity];
+        this.offsets = new long[capacity];
+        this.mask = capacity - 1;
+        this.maxEntries = (int) (capacity * LOAD_FACTOR);
+        Arrays.fill(offsets, EMPTY);
+    }
+
+    /**
+     * 키의 오프셋 기록 (더 뒤 오프셋만 덮어쓴다)
+     * @return 맵이 가득 차서 새 키를 넣지 못하면 false
+     */
+    boolean put(long hash, long offset) {
+        int slot = slot(hash);
+        while (offsets[slot] != EMPTY) {
+            if (hashes[slot] == hash) {
+                offsets[slot] = Math.max(offsets[slot], offset);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == maxEntries) {
+            return false;
+        }
+        hashes[slot] = hash;
+        offsets[slot] = offset;
+        size++;
+        return true;
+    }
+
+    /**
+     * 키의 최신 오프셋 (없으면 -1)
+     */
+    long get(long hash) {
+        int slot = slot(hash);
+        long offset;
+        while ((offset = offsets[slot]) != EMPTY) {
+            if (hashes[slot] == hash) {
+                return offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int maxEntries() {
+        return maxEntries;
+    }
+
+    long memoryBytes() {
+        return (long) hashes.length * Long.BYTES * 2;
+    }
+
+    private int slot(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 키 문자열의 64비트 해시 (char 단위 FNV-1a + murmur3 fmix64로 비트 섞기, 할당 없음)
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,543 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 파티션 하나의 append-only 커밋 로그
+ *
+ * 세그먼트 여러 개를 baseOffset 순으로 들고 있고 마지막 세그먼트에만 쓴다.
+ * 읽기는 오프셋 기준이며 메시지를 지우지 않는다 (소비 위치는 Consumer Group이 따로 관리).
+ * 오래된 세그먼트는 retention(크기/시간)에 따라 통째로 삭제된다.
+ * compact()는 닫힌 세그먼트를 키마다 마지막 값만 남기도록 다시 쓴다 (Kafka log cleaner).
+ */
+public class PartitionLog implements TopicPartition {
+
+    private final Path dir;
+    private final LogConfig config;
+    private final ConcurrentSkipListMap<Long, LogSegment> segments = new ConcurrentSkipListMap<>();
+    private volatile LogSegment activeSegment;
+    private final ProducerStateTable producerStates = new ProducerStateTable();
+
+    // 컴팩션 ↔ retention/삭제 배타 (append는 이 잠금을 쓰지 않는다)
+    private final ReentrantLock cleanerLock = new ReentrantLock();
+    // 세그먼트 맵에서 뺀 뒤 파일을 지우기까지의 유예 (Kafka file.delete.delay.ms 기본값과 같다)
+    static final long FILE_DELETE_DELAY_MS = TimeUnit.MINUTES.toMillis(1);
+    // 삭제를 기다리는 세그먼트 - 넣은 순서 = 삭제 시각 순 (cleanerLock으로 보호)
+    private final Deque<RetiredSegment> retiredSegments = new ArrayDeque<>();
+    // 이 오프셋 앞은 이미 컴팩션한 구간 - 메모리에만 두므로 재시작하면 처음부터 다시
+    private volatile long firstDirtyOffset;
+    static final int MAX_OFFSET_MAP_ENTRIES = 1 << 20;
+
+    private record RetiredSegment(LogSegment segment, long deleteAtMs) {
+    }
+
+    private PartitionLog(Path dir, LogConfig config) {
+        this.dir = dir;
+        this.config = config;
+    }
+
+    /**
+     * 디렉터리의 세그먼트를 다시 열어 복구 (없으면 offset 0부터 새로 시작)
+     */
+    public static PartitionLog open(Path dir, LogConfig config) throws IOException {
+        Files.createDirectories(dir);
+        PartitionLog log = new PartitionLog(dir, config);
+
+        // 전송 중에 지워져 .deleted로만 남은 세그먼트 (반납 전에 죽은 경우)
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.filter(path -> path.getFileName().toString().endsWith(LogSegment.DELETED_SUFFIX))
+                    .toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        // baseOffset마다 가장 최근 세대만 연다 - 옛 세대는 유예 시간이 지나기 전에 죽어 남은 컴팩션 이전 파일
+        TreeMap<Long, Integer> generations = new TreeMap<>();
+        List<LogSegment.FileName> segmentFiles = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.toList()) {
+                LogSegment.FileName name = LogSegment.FileName.parse(path.getFileName().toString());
+                if (name != null) {
+                    segmentFiles.add(name);
+                    if (name.log()) {
+                        generations.merge(name.baseOffset(), name.generation(), Math::max);
+                    }
+                }
+            }
+        }
+        for (LogSegment.FileName name : segmentFiles) {
+            Integer latest = generations.get(name.baseOffset());
+            if (latest != null && name.generation() < latest) {
+                Files.deleteIfExists(name.log()
+                        ? LogSegment.logFile(dir, name.baseOffset(), name.generation())
+                        : LogSegment.indexFile(dir, name.baseOffset(), name.generation()));
+            }
+        }
+
+        long lastBaseOffset = generations.isEmpty() ? -1 : generations.lastKey();
+        for (Map.Entry<Long, Integer> entry : generations.entrySet()) {
+            long baseOffset = entry.getKey();
+            LogSegment segment = baseOffset == lastBaseOffset
+                    ? LogSegment.openActive(dir, baseOffset, entry.getValue(), config)
+                    : LogSegment.openSealed(dir, baseOffset, entry.getValue(), config);
+            log.segments.put(baseOffset, segment);
+        }
+        if (log.segments.isEmpty()) {
+            log.segments.put(0L, LogSegment.create(dir, 0, config));
+        }
+        log.activeSegment = log.segments.lastEntry().getValue();
+        log.rebuildProducerStates();
+        return log;
+    }
+
+    @Override
+    public String type() {
+        return "log";
+    }
+
+    /**
+     * 배치로 추가하고 첫 레코드의 오프셋 반환
+     */
+    @Override
+    public long append(List<SimpleRecord> records) throws IOException {
+        // 인코딩은 잠금 밖에서, 오프셋 부여만 appendBatch 안에서
+        return appendBatch(RecordBatch.encode(0, records));
+    }
+
+    /**
+     * 미리 인코딩된 배치(압축 포함)에 오프셋을 부여해 추가하고 첫 레코드의 오프셋 반환
+     * baseOffset은 CRC 범위 밖이므로 덮어써도 다시 계산할 필요가 없다.
+     */
+    @Override
+    public synchronized long appendBatch(ByteBuffer batch) throws IOException {
+        int start = batch.position();
+        // 빈 세그먼트에도 들어가지 않는 배치는 오프셋과 producer 상태를 건드리기 전에 거절
+        if (batch.remaining() > config.segmentBytes()) {
+            throw new IllegalArgumentException("Batch of " + batch.remaining()
+                    + " bytes exceeds segment size " + config.segmentBytes());
+        }
+        long producerId = batch.getLong(start + RecordBatch.PRODUCER_ID_OFFSET);
+        short epoch = batch.getShort(start + RecordBatch.PRODUCER_EPOCH_OFFSET);
+        int firstSequence = batch.getInt(start + RecordBatch.BASE_SEQUENCE_OFFSET);
+        int lastSequence = firstSequence + batch.getInt(start + RecordBatch.LAST_OFFSET_DELTA_OFFSET);
+        if (producerId != RecordBatch.NO_PRODUCER_ID) {
+            long duplicateOf = producerStates.checkSequence(producerId, epoch, firstSequence, lastSequence);
+            if (duplicateOf >= 0) {
+                // 응답을 못 받은 producer의 재전송 - 다시 쓰지 않고 처음 부여한 오프셋을 돌려준다
+                return duplicateOf;
+            }
+        }
+
+        long baseOffset = activeSegment.nextOffset();
+        batch.putLong(start + RecordBatch.BASE_OFFSET_OFFSET, baseOffset);
+        long lastOffset = baseOffset + batch.getInt(start + RecordBatch.LAST_OFFSET_DELTA_OFFSET);
+        long maxTimestamp = batch.getLong(start + RecordBatch.MAX_TIMESTAMP_OFFSET);
+
+        if (!activeSegment.append(batch, lastOffset, maxTimestamp)) {
+            if (activeSegment.size() == 0) {
+                throw new IllegalArgumentException("Batch of " + batch.remaining()
+                        + " bytes exceeds segment size " + config.segmentBytes());
+            }
+            roll();
+            // 새 세그먼트에도 못 쓰면 오프셋을 돌려주지 않는다 (조용히 버리면 같은 오프셋이 다음 배치에 다시 부여됨)
+            if (!activeSegment.append(batch, lastOffset, maxTimestamp)) {
+                throw new IllegalStateException("Failed to append batch of " + batch.remaining()
+                        + " bytes to new segment " + activeSegment.baseOffset());
+            }
+        }
+        if (producerId != RecordBatch.NO_PRODUCER_ID) {
+            producerStates.onAppend(producerId, epoch, firstSequence, lastSequence, baseOffset);
+        }
+        // awaitAppend()로 기다리는 소비자 깨우기
+        notifyAll();
+        return baseOffset;
+    }
+
+    @Override
+    public synchronized boolean awaitAppend(long offset, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long remaining = timeoutNanos;
+        while (logEndOffset() <= offset && remaining > 0) {
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return logEndOffset() > offset;
+    }
+
+    /**
+     * 복구 시 남아 있는 배치 헤더로 producer 상태 재구성 (레코드는 풀지 않는다)
+     */
+    private void rebuildProducerStates() {
+        for (LogSegment segment : segments.values()) {
+            int position = 0;
+            RecordBatch batch;
+            while ((batch = segment.batchAt(position)) != null) {
+                if (batch.hasProducerId()) {
+                    producerStates.onAppend(batch);
+                }
+                position += batch.sizeInBytes();
+            }
+        }
+    }
+
+    private void roll() throws IOException {
+        LogSegment sealed = activeSegment;
+        sealed.seal();
+        LogSegment next = LogSegment.create(dir, sealed.nextOffset(), config);
+        segments.put(next.baseOffset(), next);
+        activeSegment = next;
+    }
+
+    /**
+     * offset부터 최대 maxRecords개 (retention으로 지워진 구간이면 남아 있는 가장 앞부터)
+     */
+    @Override
+    public List<LogRecord> read(long offset, int maxRecords) {
+        List<LogRecord> records = new ArrayList<>();
+        long start = Math.max(offset, logStartOffset());
+        Long floor = segments.floorKey(start);
+        if (floor == null || maxRecords <= 0) {
+            return records;
+        }
+
+        for (LogSegment segment : segments.tailMap(floor, true).values()) {
+            int position = segment.translateOffset(start);
+            RecordBatch batch;
+            while (records.size() < maxRecords && (batch = segment.batchAt(position)) != null) {
+                for (LogRecord record : batch.records()) {
+                    if (record.offset() >= start && records.size() < maxRecords) {
+                        records.add(record);
+                    }
+                }
+                position += batch.sizeInBytes();
+            }
+            if (records.size() >= maxRecords) break;
+        }
+        return records;
+    }
+
+    /**
+     * offset이 든 배치부터 maxBytes 안에서 배치 경계까지의 파일 구간 (세그먼트 하나 안에서만)
+     * 레코드를 풀지 않고 헤더만 건너뛴다. 첫 배치가 maxBytes보다 커도 그 배치 하나는 담는다.
+     * 세그먼트를 빌린 채로 돌려주므로 받은 쪽이 전송 후 FileSlice.close로 반납해야 한다.
+     */
+    public FileSlice slice(long offset, int maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        long start = Math.max(offset, logStartOffset());
+        Map.Entry<Long, LogSegment> entry = segments.floorEntry(start);
+        while (entry != null) {
+            LogSegment segment = entry.getValue();
+            int position = segment.translateOffset(start);
+            RecordBatch first = segment.batchAt(position);
+            if (first != null) {
+                int length = 0;
+                long nextOffset = first.baseOffset();
+                RecordBatch batch = first;
+                while (batch != null && (length == 0 || length + batch.sizeInBytes() <= maxBytes)) {
+                    length += batch.sizeInBytes();
+                    nextOffset = batch.nextOffset();
+                    batch = segment.batchAt(position + length);
+                }
+                if (!segment.retain()) {
+                    // 그 사이 컴팩션/retention이 세그먼트를 뺐다 - 바뀐 세그먼트 맵에서 다시 찾는다
+                    start = Math.max(start, logStartOffset());
+                    entry = segments.floorEntry(start);
+                    continue;
+                }
+                return new FileSlice(segment, position, length, first.baseOffset(), nextOffset, logEndOffset());
+            }
+            // 이 세그먼트에 offset 이후 배치가 없으면 (컴팩션으로 끝이 비었을 때) 다음 세그먼트부터
+            entry = segments.higherEntry(entry.getKey());
+        }
+        return FileSlice.empty(start, logEndOffset());
+    }
+
+    /**
+     * 크기/시간 기준을 넘은 오래된 세그먼트 삭제 (활성 세그먼트는 제외)
+     * 세그먼트 맵에서는 바로 빼고 파일은 FILE_DELETE_DELAY_MS 뒤에 지운다 - 유예가 지난 세그먼트도 여기서 지운다.
+     * @return 삭제한 세그먼트 수
+     */
+    @Override
+    public int applyRetention(long now) throws IOException {
+        cleanerLock.lock();
+        try {
+            deleteRetiredSegments(now);
+            synchronized (this) {
+                return deleteOldSegments(now);
+            }
+        } finally {
+            cleanerLock.unlock();
+        }
+    }
+
+    /**
+     * 세그먼트 맵에서 뺀 세그먼트 - 이미 넘겨준 파일 경로(sendfile)가 유예 시간 동안은 유효하도록 파일 삭제를 미룬다
+     * 경로는 세대마다 새 이름이라 그동안 다른 내용으로 바뀌지 않는다. cleanerLock 안에서만 부른다.
+     */
+    private void retire(LogSegment segment, long now) {
+        retiredSegments.add(new RetiredSegment(segment, now + FILE_DELETE_DELAY_MS));
+    }
+
+    private void deleteRetiredSegments(long now) throws IOException {
+        RetiredSegment retired;
+        while ((retired = retiredSegments.peek()) != null && retired.deleteAtMs() <= now) {
+            retiredSegments.poll();
+            retired.segment().delete();
+        }
+    }
+
+    private int deleteOldSegments(long now) throws IOException {
+        int deleted = 0;
+        long totalBytes = sizeInBytes();
+        for (LogSegment segment : new ArrayList<>(segments.values())) {
+            if (segment == activeSegment) break;
+            boolean overSize = config.retentionBytes() >= 0 && totalBytes - segment.size() >= config.retentionBytes();
+            boolean expired = config.retentionMs() >= 0 && now - segment.maxTimestamp() > config.retentionMs();
+            if (!overSize && !expired) break;
+
+            segments.remove(segment.baseOffset());
+            totalBytes -= segment.size();
+            retire(segment, now);
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * 닫힌 세그먼트 컴팩션 - 키마다 마지막 값만 남기고 키 없는 레코드는 그대로 둔다
+     *
+     * 1. 아직 컴팩션하지 않은 닫힌 세그먼트로 키 해시 → 최신 오프셋 맵을 만든다 (맵이 차면 거기까지만).
+     * 2. 맵이 덮는 구간까지의 닫힌 세그먼트를 cleaner 디렉터리에 다시 쓰고, 세그먼트 맵에서 원자적으로 바꿔 끼운다.
+     * 활성 세그먼트와 append 잠금은 건드리지 않으므로 producer를 막지 않는다.
+     * 바꿔 끼우기 전에 옛 세그먼트를 읽던 reader는 이미 잡은 매핑으로 끝까지 읽는다.
+     * 새 세그먼트는 다음 세대 이름으로 쓰고 옛 파일은 FILE_DELETE_DELAY_MS 뒤에 지우므로, 넘겨준 경로는 그동안 옛 내용 그대로다.
+     */
+    public CompactionResult compact() throws IOException {
+        cleanerLock.lock();
+        try {
+            long startNanos = System.nanoTime();
+            List<LogSegment> sealed = new ArrayList<>(segments.headMap(activeSegment.baseOffset()).values());
+            List<LogSegment> dirty = sealed.stream()
+                    .filter(segment -> segment.nextOffset() > firstDirtyOffset)
+                    .toList();
+            if (dirty.isEmpty()) {
+                return CompactionResult.NONE;
+            }
+
+            long expectedKeys = dirty.stream().mapToLong(LogSegment::recordCount).sum();
+            OffsetMap offsetMap = new OffsetMap((int) Math.min(expectedKeys, MAX_OFFSET_MAP_ENTRIES));
+            long cleanableEnd = buildOffsetMap(dirty, offsetMap);
+
+            int cleaned = 0;
+            int deleted = 0;
+            long[] records = new long[2]; // [읽은 수, 남긴 수]
+            long bytesBefore = 0;
+            long bytesAfter = 0;
+            Path cleanerDir = Files.createDirectories(dir.resolve("cleaner"));
+            for (LogSegment original : sealed) {
+                if (original.baseOffset() >= cleanableEnd) break;
+                bytesBefore += original.size();
+                LogSegment rewritten = cleanSegment(original, offsetMap, cleanerDir, records);
+                cleaned++;
+                if (rewritten.size() == 0) {
+                    // 남은 레코드가 없으면 세그먼트째 지운다 (첫 세그먼트면 logStartOffset이 앞으로 간다)
+                    rewritten.delete();
+                    segments.remove(original.baseOffset(), original);
+                    retire(original, System.currentTimeMillis());
+                    deleted++;
+                    continue;
+                }
+                LogSegment swapped = LogSegment.replaceWith(rewritten, dir, original.generation() + 1, config);
+                segments.replace(original.baseOffset(), original, swapped);
+                retire(original, System.currentTimeMillis());
+                bytesAfter += swapped.size();
+            }
+            firstDirtyOffset = Math.max(firstDirtyOffset, cleanableEnd);
+            return new CompactionResult(cleaned, deleted, records[0], records[1], bytesBefore, bytesAfter,
+                    offsetMap.size(), System.nanoTime() - startNanos);
+        } finally {
+            cleanerLock.unlock();
+        }
+    }
+
+    /**
+     * dirty 세그먼트의 키 → 최신 오프셋
+     * @return 맵에 다 담은 구간의 끝 오프셋 (맵이 차면 못 담은 세그먼트의 시작)
+     */
+    private static long buildOffsetMap(List<LogSegment> dirty, OffsetMap offsetMap) {
+        for (LogSegment segment : dirty) {
+            int position = 0;
+            RecordBatch batch;
+            while ((batch = segment.batchAt(position)) != null) {
+                for (LogRecord record : batch.records()) {
+                    if (record.key() != null && !offsetMap.put(OffsetMap.hash(record.key()), record.offset())) {
+                        return segment.baseOffset();
+                    }
+                }
+                position += batch.sizeInBytes();
+            }
+        }
+        return dirty.get(dirty.size() - 1).nextOffset();
+    }
+
+    /**
+     * 최신 값만 남긴 세그먼트를 cleanerDir에 새로 쓴다
+     * 모두 남는 배치는 바이트 그대로 복사하고, 일부만 남는 배치는 오프셋 범위를 유지한 채 다시 인코딩한다.
+     */
+    private LogSegment cleanSegment(LogSegment original, OffsetMap offsetMap, Path cleanerDir,
+                                    long[] records) throws IOException {
+        // 다시 인코딩한 배치가 원본보다 조금 커질 수 있어 여유를 둔다
+        LogConfig cleanerConfig = new LogConfig(Math.max(config.segmentBytes(), original.size() * 2),
+                config.indexIntervalBytes(), config.retentionBytes(), config.retentionMs());
+        LogSegment rewritten = LogSegment.create(cleanerDir, original.baseOffset(), cleanerConfig);
+        int position = 0;
+        RecordBatch batch;
+        while ((batch = original.batchAt(position)) != null) {
+            List<LogRecord> retained = new ArrayList<>();
+            for (LogRecord record : batch.records()) {
+                // 맵에 없는 키(더 뒤 구간에서만 갱신됐거나 맵이 덮지 못한 키)는 남긴다
+                if (record.key() == null || offsetMap.get(OffsetMap.hash(record.key())) <= record.offset()) {
+                    retained.add(record);
+                }
+            }
+            records[0] += batch.recordCount();
+            records[1] += retained.size();
+
+            boolean appended = true;
+            if (retained.size() == batch.recordCount()) {
+                appended = rewritten.append(batch.buffer(), batch.lastOffset(), batch.maxTimestamp());
+            } else if (!retained.isEmpty()) {
+                ByteBuffer compacted = RecordBatch.retain(batch, retained);
+                appended = rewritten.append(compacted, batch.lastOffset(),
+                        compacted.getLong(RecordBatch.MAX_TIMESTAMP_OFFSET));
+            }
+            if (!appended) {
+                rewritten.delete();
+                throw new IllegalStateException("Compacted segment " + original.baseOffset() + " overflowed");
+            }
+            position += batch.sizeInBytes();
+        }
+        rewritten.seal();
+        return rewritten;
+    }
+
+    @Override
+    public long logStartOffset() {
+        return segments.firstKey();
+    }
+
+    @Override
+    public long logEndOffset() {
+        return activeSegment.nextOffset();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        long total = 0;
+        for (LogSegment segment : segments.values()) {
+            total += segment.size();
+        }
+        return total;
+    }
+
+    public ProducerStateTable producerStates() {
+        return producerStates;
+    }
+
+    /**
+     * offset이 든 배치부터 끝까지 - 인덱스로 배치 위치만 찾고 나머지는 세그먼트 크기 합
+     */
+    @Override
+    public long bytesFrom(long offset) {
+        long start = Math.max(offset, logStartOffset());
+        Long floor = segments.floorKey(start);
+        if (floor == null) {
+            return sizeInBytes();
+        }
+        long total = 0;
+        for (LogSegment segment : segments.tailMap(floor, true).values()) {
+            total += segment.baseOffset() == floor ? segment.size() - segment.translateOffset(start) : segment.size();
+        }
+        return total;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public List<Map<String, Object>> segmentInfo() {
+        List<Map<String, Object>> info = new ArrayList<>();
+        for (LogSegment segment : segments.values()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("baseOffset", segment.baseOffset());
+            entry.put("nextOffset", segment.nextOffset());
+            entry.put("sizeBytes", segment.size());
+            entry.put("indexEntries", segment.indexEntries());
+            entry.put("active", segment == activeSegment);
+            info.add(entry);
+        }
+        return info;
+    }
+
+    @Override
+    public void flush() {
+        activeSegment.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        cleanerLock.lock();
+        try {
+            // 종료할 때는 유예를 기다리지 않는다 (남겨 두면 다시 열 때 세그먼트로 되살아난다)
+            deleteRetiredSegments(Long.MAX_VALUE);
+            synchronized (this) {
+                for (LogSegment segment : segments.values()) {
+                    segment.close();
+                }
+            }
+        } finally {
+            cleanerLock.unlock();
+        }
+    }
+
+    /**
+     * 로그 전체 삭제 (토픽 재생성)
+     */
+    @Override
+    public void delete() throws IOException {
+        cleanerLock.lock();
+        try {
+            deleteRetiredSegments(Long.MAX_VALUE);
+            synchronized (this) {
+                for (LogSegment segment : segments.values()) {
+                    segment.delete();
+                }
+                segments.clear();
+                try (Stream<Path> files = Files.walk(dir)) {
+                    for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            }
+        } finally {
+            cleanerLock.unlock();
+        }
+    }
+}
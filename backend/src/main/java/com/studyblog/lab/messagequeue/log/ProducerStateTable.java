@@ -0,0 +1,86 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 파티션별 idempotent producer 상태 - producerId마다 epoch와 최근 배치 몇 개의 시퀀스 범위만 기억한다
+ *
+ * 같은 (producerId, 파티션)의 배치는 시퀀스가 1씩 이어져야 하고, 최근 배치와 시퀀스가 같으면 재전송으로 보고 버린다.
+ * 상태 크기는 producer 수에 비례할 뿐 메시지 수와 무관하다 (오프셋 집합을 쌓지 않는다).
+ * 호출 측(파티션)이 append와 같은 잠금 안에서 check → onAppend 순서로 부른다.
+ */
+public final class ProducerStateTable {
+
+    /** producer가 응답 없이 동시에 보낼 수 있는 배치 수 - 그보다 오래된 재전송은 판별할 수 없다 */
+    static final int MAX_BATCHES_TO_RETAIN = 5;
+
+    private record BatchMetadata(int firstSequence, int lastSequence, long baseOffset) {}
+
+    private static final class ProducerState {
+        short epoch;
+        final ArrayDeque<BatchMetadata> batches = new ArrayDeque<>(MAX_BATCHES_TO_RETAIN);
+
+        int lastSequence() {
+            return batches.isEmpty() ? RecordBatch.NO_SEQUENCE : batches.peekLast().lastSequence();
+        }
+    }
+
+    private final Map<Long, ProducerState> producers = new ConcurrentHashMap<>();
+
+    /**
+     * 추가 전 검사 - 이미 추가된 배치의 재전송이면 그때의 baseOffset, 새 배치면 -1
+     * @throws IllegalStateException epoch가 오래됐거나(fenced) 시퀀스가 비었을 때
+     */
+    public long checkSequence(long producerId, short epoch, int firstSequence, int lastSequence) {
+        ProducerState state = producers.get(producerId);
+        if (state == null || epoch > state.epoch) {
+            // 처음 보는 producer 또는 새 epoch - retention으로 앞부분이 지워졌을 수 있어 시작 시퀀스는 따지지 않는다
+            return -1;
+        }
+        if (epoch < state.epoch) {
+            throw new IllegalStateException("Producer " + producerId + " fenced: epoch " + epoch
+                    + " < current epoch " + state.epoch);
+        }
+        for (BatchMetadata batch : state.batches) {
+            if (batch.firstSequence() == firstSequence && batch.lastSequence() == lastSequence) {
+                return batch.baseOffset();
+            }
+        }
+        int expected = state.lastSequence() + 1;
+        if (firstSequence != expected) {
+            throw new IllegalStateException("Out of order sequence for producer " + producerId
+                    + ": expected " + expected + " but got " + firstSequence);
+        }
+        return -1;
+    }
+
+    /**
+     * 추가 후 기록 (로그 복구 때도 배치 헤더로 같은 상태를 다시 만든다)
+     */
+    public void onAppend(long producerId, short epoch, int firstSequence, int lastSequence, long baseOffset) {
+        ProducerState state = producers.computeIfAbsent(producerId, id -> new ProducerState());
+        if (epoch != state.epoch) {
+            state.epoch = epoch;
+            state.batches.clear();
+        }
+        if (state.batches.size() == MAX_BATCHES_TO_RETAIN) {
+            state.batches.pollFirst();
+        }
+        state.batches.addLast(new BatchMetadata(firstSequence, lastSequence, baseOffset));
+    }
+
+    public void onAppend(RecordBatch batch) {
+        onAppend(batch.producerId(), batch.producerEpoch(), batch.baseSequence(), batch.lastSequence(),
+                batch.baseOffset());
+    }
+
+    public int producerCount() {
+        return producers.size();
+    }
+
+    void clear() {
+        producers.clear();
+    }
+}
@@ -0,0 +1,351 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 레코드 배치 - 로그에 쓰고 읽는 단위 (Kafka RecordBatch v2 구조를 단순화)
+ *
+ * 헤더 (57 bytes)
+ *   baseOffset:long  batchLength:int  magic:byte  crc:int  attributes:short
+ *   lastOffsetDelta:int  firstTimestamp:long  maxTimestamp:long
+ *   producerId:long  producerEpoch:short  baseSequence:int  recordCount:int
+ * 레코드 (recordCount개)
+ *   offsetDelta:int  timestampDelta:int  keyLength:int  key  valueLength:int  value  (길이 -1 = null)
+ *
+ * batchLength는 batchLength 필드 뒤의 바이트 수, crc는 attributes부터 끝까지의 CRC32C.
+ * 헤더만 읽어도 다음 배치 위치와 오프셋 범위를 알 수 있어 레코드를 풀지 않고 건너뛸 수 있다.
+ * 압축 배치는 헤더는 그대로 두고 레코드 영역 전체를 통째로 압축한다 (attributes 하위 3비트 = 코덱).
+ * baseOffset은 CRC 범위 밖이라, Producer가 미리 인코딩한 배치에 로그가 오프셋만 덮어써 추가할 수 있다.
+ */
+public final class RecordBatch {
+
+    public static final byte MAGIC = 2;
+    public static final long NO_PRODUCER_ID = -1L;
+    public static final short NO_PRODUCER_EPOCH = -1;
+    public static final int NO_SEQUENCE = -1;
+
+    static final int BASE_OFFSET_OFFSET = 0;
+    static final int LENGTH_OFFSET = 8;
+    static final int MAGIC_OFFSET = 12;
+    static final int CRC_OFFSET = 13;
+    static final int ATTRIBUTES_OFFSET = 17;
+    static final int LAST_OFFSET_DELTA_OFFSET = 19;
+    static final int FIRST_TIMESTAMP_OFFSET = 23;
+    static final int MAX_TIMESTAMP_OFFSET = 31;
+    static final int PRODUCER_ID_OFFSET = 39;
+    static final int PRODUCER_EPOCH_OFFSET = 47;
+    static final int BASE_SEQUENCE_OFFSET = 49;
+    static final int RECORD_COUNT_OFFSET = 53;
+    public static final int HEADER_SIZE = 57;
+
+    /** baseOffset + batchLength */
+    static final int LOG_OVERHEAD = 12;
+
+    private final ByteBuffer buffer; // position 0 = 배치 시작
+
+    private RecordBatch(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * 레코드 목록을 baseOffset부터 연속 오프셋으로 인코딩 (압축 없음)
+     */
+    public static ByteBuffer encode(long baseOffset, List<SimpleRecord> records) {
+        return encode(baseOffset, records, CompressionType.NONE);
+    }
+
+    /**
+     * 레코드 목록을 baseOffset부터 연속 오프셋으로 인코딩
+     */
+    public static ByteBuffer encode(long baseOffset, List<SimpleRecord> records, CompressionType compression) {
+        return encode(baseOffset, records, compression, NO_PRODUCER_ID, NO_PRODUCER_EPOCH, NO_SEQUENCE);
+    }
+
+    /**
+     * idempotent producer 배치 - (producerId, epoch, baseSequence)로 로그가 재전송 중복을 걸러낸다
+     */
+    public static ByteBuffer encode(long baseOffset, List<SimpleRecord> records, CompressionType compression,
+                                    long producerId, short producerEpoch, int baseSequence) {
+        return encode(baseOffset, records, null, records.size() - 1, compression,
+                producerId, producerEpoch, baseSequence);
+    }
+
+    /**
+     * 컴팩션으로 남은 레코드만 다시 담은 배치 - 원래 배치의 오프셋 범위, 코덱, producer 헤더를 그대로 둔다
+     * 레코드 오프셋 사이에 빈 칸이 생기지만 lastOffsetDelta가 같아서 배치의 다음 오프셋은 바뀌지 않는다.
+     */
+    static ByteBuffer retain(RecordBatch original, List<LogRecord> retained) {
+        long baseOffset = original.baseOffset();
+        List<SimpleRecord> records = new ArrayList<>(retained.size());
+        int[] offsetDeltas = new int[retained.size()];
+        for (int i = 0; i < retained.size(); i++) {
+            LogRecord record = retained.get(i);
+            records.add(new SimpleRecord(record.timestamp(), record.key(), record.value()));
+            offsetDeltas[i] = (int) (record.offset() - baseOffset);
+        }
+        return encode(baseOffset, records, offsetDeltas, (int) (original.lastOffset() - baseOffset),
+                original.compression(), original.producerId(), original.producerEpoch(), original.baseSequence());
+    }
+
+    /**
+     * @param offsetDeltas 레코드별 오프셋 차이 (null이면 0부터 연속)
+     */
+    private static ByteBuffer encode(long baseOffset, List<SimpleRecord> records, int[] offsetDeltas,
+                                     int lastOffsetDelta, CompressionType compression,
+                                     long producerId, short producerEpoch, int baseSequence) {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("records must not be empty");
+        }
+        long firstTimestamp = records.get(0).timestamp();
+        long maxTimestamp = firstTimestamp;
+
+        List<byte[]> keys = new ArrayList<>(records.size());
+        List<byte[]> values = new ArrayList<>(records.size());
+        int size = HEADER_SIZE;
+        for (SimpleRecord record : records) {
+            byte[] key = record.key() != null ? record.key().getBytes(StandardCharsets.UTF_8) : null;
+            byte[] value = record.value() != null ? record.value().getBytes(StandardCharsets.UTF_8) : null;
+            keys.add(key);
+            values.add(value);
+            size += 4 + 4 + 4 + (key != null ? key.length : 0) + 4 + (value != null ? value.length : 0);
+            maxTimestamp = Math.max(maxTimestamp, record.timestamp());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.position(HEADER_SIZE);
+        for (int i = 0; i < records.size(); i++) {
+            buffer.putInt(offsetDeltas != null ? offsetDeltas[i] : i);
+            buffer.putInt((int) (records.get(i).timestamp() - firstTimestamp));
+            putBytes(buffer, keys.get(i));
+            putBytes(buffer, values.get(i));
+        }
+        if (compression != CompressionType.NONE) {
+            buffer = compress(buffer, size);
+            size = buffer.limit();
+        }
+
+        buffer.putLong(BASE_OFFSET_OFFSET, baseOffset);
+        buffer.putInt(LENGTH_OFFSET, size - LOG_OVERHEAD);
+        buffer.put(MAGIC_OFFSET, MAGIC);
+        buffer.putShort(ATTRIBUTES_OFFSET, (short) compression.id());
+        buffer.putInt(LAST_OFFSET_DELTA_OFFSET, lastOffsetDelta);
+        buffer.putLong(FIRST_TIMESTAMP_OFFSET, firstTimestamp);
+        buffer.putLong(MAX_TIMESTAMP_OFFSET, maxTimestamp);
+        buffer.putLong(PRODUCER_ID_OFFSET, producerId);
+        buffer.putShort(PRODUCER_EPOCH_OFFSET, producerEpoch);
+        buffer.putInt(BASE_SEQUENCE_OFFSET, baseSequence);
+        buffer.putInt(RECORD_COUNT_OFFSET, records.size());
+        buffer.putInt(CRC_OFFSET, checksum(buffer, size));
+        buffer.position(0);
+        return buffer;
+    }
+
+    /**
+     * position에서 시작하는 배치 (limit 안에 헤더와 본문이 다 들어 있지 않으면 null)
+     */
+    static RecordBatch readFrom(ByteBuffer source, int position, int limit) {
+        if (limit - position < HEADER_SIZE) {
+            return null;
+        }
+        int batchLength = source.getInt(position + LENGTH_OFFSET);
+        int size = batchLength + LOG_OVERHEAD;
+        if (batchLength <= 0 || size < HEADER_SIZE || size > limit - position) {
+            return null;
+        }
+        return new RecordBatch(source.slice(position, size));
+    }
+
+    /**
+     * 인코딩된 배치 하나 (batch의 position부터) - 형식이 맞지 않으면 IllegalArgumentException
+     */
+    public static RecordBatch wrap(ByteBuffer batch) {
+        RecordBatch recordBatch = readFrom(batch, batch.position(), batch.limit());
+        if (recordBatch == null || recordBatch.magic() != MAGIC) {
+            throw new IllegalArgumentException("Not a record batch");
+        }
+        return recordBatch;
+    }
+
+    public long baseOffset() {
+        return buffer.getLong(BASE_OFFSET_OFFSET);
+    }
+
+    public long lastOffset() {
+        return baseOffset() + buffer.getInt(LAST_OFFSET_DELTA_OFFSET);
+    }
+
+    public long nextOffset() {
+        return lastOffset() + 1;
+    }
+
+    public int sizeInBytes() {
+        return buffer.limit();
+    }
+
+    public byte magic() {
+        return buffer.get(MAGIC_OFFSET);
+    }
+
+    public short attributes() {
+        return buffer.getShort(ATTRIBUTES_OFFSET);
+    }
+
+    public CompressionType compression() {
+        return CompressionType.forId(attributes() & CompressionType.MASK);
+    }
+
+    public long maxTimestamp() {
+        return buffer.getLong(MAX_TIMESTAMP_OFFSET);
+    }
+
+    public long producerId() {
+        return buffer.getLong(PRODUCER_ID_OFFSET);
+    }
+
+    public short producerEpoch() {
+        return buffer.getShort(PRODUCER_EPOCH_OFFSET);
+    }
+
+    public int baseSequence() {
+        return buffer.getInt(BASE_SEQUENCE_OFFSET);
+    }
+
+    public int lastSequence() {
+        return baseSequence() + buffer.getInt(LAST_OFFSET_DELTA_OFFSET);
+    }
+
+    public boolean hasProducerId() {
+        return producerId() != NO_PRODUCER_ID;
+    }
+
+    public int recordCount() {
+        return buffer.getInt(RECORD_COUNT_OFFSET);
+    }
+
+    /**
+     * magic과 CRC가 맞는지 (복구 시 잘린/깨진 배치 판별)
+     */
+    public boolean isValid() {
+        return magic() == MAGIC && buffer.getInt(CRC_OFFSET) == checksum(buffer, buffer.limit());
+    }
+
+    /**
+     * 배치 원본 바이트 (읽기 전용 뷰)
+     */
+    public ByteBuffer buffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public List<LogRecord> records() {
+        long baseOffset = baseOffset();
+        long firstTimestamp = buffer.getLong(FIRST_TIMESTAMP_OFFSET);
+        int count = recordCount();
+
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        if (compression() != CompressionType.NONE) {
+            body = decompress(body);
+        }
+        List<LogRecord> records = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long offset = baseOffset + body.getInt();
+            long timestamp = firstTimestamp + body.getInt();
+            String key = getString(body);
+            String value = getString(body);
+            records.add(new LogRecord(offset, timestamp, key, value));
+        }
+        return records;
+    }
+
+    /**
+     * 레코드 하나가 배치에서 차지할 크기 추정 (Producer 배치 크기 판단용 - 문자열 길이 기준 근사치)
+     */
+    public static int estimateSize(String key, String value) {
+        return 16 + (key != null ? key.length() : 0) + (value != null ? value.length() : 0);
+    }
+
+    /**
+     * 헤더 자리를 비워 둔 새 버퍼에 레코드 영역만 압축해서 담는다
+     */
+    private static ByteBuffer compress(ByteBuffer uncompressed, int size) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(uncompressed.slice(HEADER_SIZE, size - HEADER_SIZE));
+            deflater.finish();
+            ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + Math.max(64, (size - HEADER_SIZE) / 2));
+            out.position(HEADER_SIZE);
+            while (!deflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = grow(out);
+                }
+                deflater.deflate(out);
+            }
+            out.flip();
+            return out;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 압축된 레코드 영역을 풀어 position 0부터 읽을 수 있는 버퍼로 반환
+     */
+    private static ByteBuffer decompress(ByteBuffer compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteBuffer out = ByteBuffer.allocate(compressed.remaining() * 4 + 64);
+            while (!inflater.finished()) {
+                if (!out.hasRemaining()) {
+                    out = grow(out);
+                }
+                if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed batch");
+                }
+            }
+            out.flip();
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed batch", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+
+    private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(ByteBuffer buffer, int size) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(ATTRIBUTES_OFFSET, size - ATTRIBUTES_OFFSET));
+        return (int) crc.getValue();
+    }
+}
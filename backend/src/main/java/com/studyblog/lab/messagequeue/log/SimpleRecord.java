@@ -0,0 +1,7 @@
+package com.studyblog.lab.messagequeue.log;
+
+/**
+ * 로그에 추가할 레코드 (오프셋은 append 시점에 로그가 부여)
+ * value가 null이면 삭제 표시(tombstone)
+ */
+public record SimpleRecord(long timestamp, String key, String value) { }
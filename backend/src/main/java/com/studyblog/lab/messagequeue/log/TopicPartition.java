@@ -0,0 +1,61 @@
+package com.studyblog.lab.messagequeue.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 토픽 파티션 저장소 - 오프셋으로 추가하고 읽는다
+ * 구현: PartitionLog (mmap 세그먼트 커밋 로그), RingBufferPartition (메모리 링 버퍼, 최근 N개 보관)
+ */
+public interface TopicPartition extends Closeable {
+
+    /** "log" | "ring" */
+    String type();
+
+    /**
+     * 배치로 추가하고 첫 레코드의 오프셋 반환
+     */
+    long append(List<SimpleRecord> records) throws IOException;
+
+    /**
+     * 미리 인코딩된 배치(RecordBatch)에 오프셋을 부여해 추가하고 첫 레코드의 오프셋 반환
+     */
+    long appendBatch(ByteBuffer batch) throws IOException;
+
+    /**
+     * offset부터 최대 maxRecords개 (보관 범위를 벗어난 구간이면 남아 있는 가장 앞부터)
+     */
+    List<LogRecord> read(long offset, int maxRecords);
+
+    /**
+     * offset이 추가될 때까지 최대 timeoutNanos 대기 (소비자 poll용)
+     * @return 추가되었으면 true
+     */
+    boolean awaitAppend(long offset, long timeoutNanos) throws InterruptedException;
+
+    long logStartOffset();
+
+    long logEndOffset();
+
+    long sizeInBytes();
+
+    /**
+     * offset부터 로그 끝까지 차지하는 바이트 (아직 소비되지 않은 양 - backpressure 판단용)
+     */
+    long bytesFrom(long offset);
+
+    /**
+     * 보관 정책 적용
+     * @return 지운 단위 수 (세그먼트 등)
+     */
+    int applyRetention(long now) throws IOException;
+
+    void flush();
+
+    /**
+     * 저장소 삭제 (토픽 재생성)
+     */
+    void delete() throws IOException;
+}
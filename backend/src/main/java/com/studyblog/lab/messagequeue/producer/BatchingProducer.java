@@ -0,0 +1,243 @@
+package com.studyblog.lab.messagequeue.producer;
+
+import com.studyblog.lab.messagequeue.log.TopicPartition;
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/**
+ * 배치 Producer (Kafka RecordAccumulator + Sender 구조)
+ *
+ * send()는 레코드를 파티션별 배치에 붙이고 Future만 돌려준다.
+ * Sender 스레드가 batchSize/linger 조건을 만족한 배치를 꺼내 압축·인코딩한 뒤 파티션 로그에 한 번에 추가하고,
+ * 배치 안 레코드들의 Future를 baseOffset + i로 완료한다. 인코딩과 압축은 파티션 로그 잠금 밖에서 일어난다.
+ *
+ * idempotent 모드에서는 파티션마다 시퀀스를 이어 붙여 배치 헤더에 싣는다. 응답을 못 받아 같은 배치를 재전송해도
+ * 로그가 (producerId, 시퀀스)로 알아보고 처음 오프셋을 돌려주므로 중복이 생기지 않는다.
+ */
+@Slf4j
+public final class BatchingProducer implements Closeable {
+
+    private final IntFunction<TopicPartition> logs;
+    private final ProducerConfig config;
+    private final RecordAccumulator accumulator;
+    private final Thread sender;
+    private volatile boolean running = true;
+
+    // idempotent 모드 - 시퀀스는 Sender 스레드만 다룬다
+    private final long producerId;
+    private short epoch;
+    private final Map<Integer, Integer> nextSequence = new HashMap<>();
+
+    // Sender 스레드만 갱신
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong recordsSent = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong retriesSent = new AtomicLong();
+    private final AtomicLong acksLost = new AtomicLong();
+
+    public BatchingProducer(IntFunction<TopicPartition> logs, ProducerConfig config) {
+        this(logs, config, RecordBatch.NO_PRODUCER_ID);
+    }
+
+    /**
+     * @param producerId idempotent 모드에서 쓸 producerId (로그에 남아 있는 다른 producer와 겹치면 안 된다)
+     */
+    public BatchingProducer(IntFunction<TopicPartition> logs, ProducerConfig config, long producerId) {
+        if (config.idempotent() && producerId < 0) {
+            throw new IllegalArgumentException("Idempotent producer requires a producerId");
+        }
+        this.logs = logs;
+        this.config = config;
+        this.producerId = config.idempotent() ? producerId : RecordBatch.NO_PRODUCER_ID;
+        this.accumulator = new RecordAccumulator(config);
+        this.sender = new Thread(this::runSender, "mq-producer-sender");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    /**
+     * 비동기 전송 - 배치가 로그에 추가되면 오프셋과 함께 완료
+     */
+    public CompletableFuture<RecordMetadata> send(int partition, String key, String value) {
+        if (!running) {
+            throw new IllegalStateException("Producer is closed");
+        }
+        SimpleRecord record = new SimpleRecord(System.currentTimeMillis(), key, value);
+        RecordAccumulator.AppendResult result = accumulator.append(partition, record, System.nanoTime());
+        if (result.wakeSender()) {
+            LockSupport.unpark(sender);
+        }
+        return result.future();
+    }
+
+    /**
+     * 지금까지 send한 레코드를 linger를 기다리지 않고 모두 전송하고 완료될 때까지 대기
+     */
+    public void flush() {
+        accumulator.beginFlush();
+        LockSupport.unpark(sender);
+        accumulator.awaitFlushCompletion();
+    }
+
+    private void runSender() {
+        List<ProducerBatch> ready = new ArrayList<>();
+        while (running || accumulator.hasIncomplete()) {
+            long delayNanos = accumulator.drain(System.nanoTime(), !running, ready);
+            if (ready.isEmpty()) {
+                if (delayNanos == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, delayNanos);
+                }
+                continue;
+            }
+            for (ProducerBatch batch : ready) {
+                sendBatch(batch);
+            }
+            ready.clear();
+        }
+    }
+
+    private void sendBatch(ProducerBatch batch) {
+        try {
+            TopicPartition partitionLog = logs.apply(batch.partition);
+            if (partitionLog == null) {
+                throw new IllegalStateException("Unknown partition: " + batch.partition);
+            }
+            ByteBuffer encoded = encode(batch);
+            int size = encoded.remaining();
+            long baseOffset = appendWithRetries(partitionLog, encoded);
+
+            batchesSent.incrementAndGet();
+            recordsSent.addAndGet(batch.records.size());
+            uncompressedBytes.addAndGet(batch.estimatedBytes());
+            bytesWritten.addAndGet(size);
+            batch.complete(baseOffset);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to append batch of {} records to partition {}: {}",
+                    batch.records.size(), batch.partition, e.getMessage());
+            if (config.idempotent()) {
+                // 이 배치가 로그에 들어갔는지 알 수 없으니 epoch를 올려 시퀀스를 처음부터 다시 시작
+                epoch++;
+                nextSequence.clear();
+            }
+            batch.fail(e);
+        } finally {
+            accumulator.deallocate(batch);
+        }
+    }
+
+    private ByteBuffer encode(ProducerBatch batch) {
+        if (!config.idempotent()) {
+            return RecordBatch.encode(0, batch.records, config.compression());
+        }
+        int baseSequence = nextSequence.getOrDefault(batch.partition, 0);
+        nextSequence.put(batch.partition, baseSequence + batch.records.size());
+        return RecordBatch.encode(0, batch.records, config.compression(), producerId, epoch, baseSequence);
+    }
+
+    /**
+     * 추가가 실패하거나 응답이 유실되면 같은 바이트를 retries번까지 다시 보낸다
+     * idempotent가 아니면 응답만 유실된 배치가 로그에 한 번 더 들어간다 (at-least-once 중복).
+     */
+    private long appendWithRetries(TopicPartition partitionLog, ByteBuffer encoded) throws IOException {
+        int attempt = 0;
+        while (true) {
+            IOException error;
+            try {
+                long baseOffset = partitionLog.appendBatch(encoded);
+                if (!ackLost()) {
+                    return baseOffset;
+                }
+                acksLost.incrementAndGet();
+                error = new IOException("Ack lost after append at offset " + baseOffset);
+            } catch (IOException e) {
+                error = e;
+            }
+            if (attempt++ >= config.retries()) {
+                throw error;
+            }
+            retriesSent.incrementAndGet();
+        }
+    }
+
+    private boolean ackLost() {
+        return config.ackLossPercent() > 0 && ThreadLocalRandom.current().nextInt(100) < config.ackLossPercent();
+    }
+
+    public ProducerConfig config() {
+        return config;
+    }
+
+    public long batchesSent() {
+        return batchesSent.get();
+    }
+
+    public long recordsSent() {
+        return recordsSent.get();
+    }
+
+    /** 압축 전 배치 크기 합 (추정치) */
+    public long uncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /** 로그에 실제로 쓴 바이트 */
+    public long bytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long producerId() {
+        return producerId;
+    }
+
+    /** 재전송한 배치 수 */
+    public long retriesSent() {
+        return retriesSent.get();
+    }
+
+    /** 아직 전송하지 않은 레코드 바이트 (bufferMemory 이하) */
+    public long bufferedBytes() {
+        return accumulator.bufferedBytes();
+    }
+
+    /** send()가 버퍼 자리를 기다린 시간 합 */
+    public long blockedTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(accumulator.blockedNanos());
+    }
+
+    /** 추가는 됐지만 응답이 유실된 횟수 (실험용 주입) */
+    public long acksLost() {
+        return acksLost.get();
+    }
+
+    /**
+     * 남은 배치를 모두 전송하고 Sender 스레드 종료
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(sender);
+        try {
+            sender.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
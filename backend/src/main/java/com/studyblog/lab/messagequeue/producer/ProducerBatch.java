@@ -0,0 +1,64 @@
+package com.studyblog.lab.messagequeue.producer;
+
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 한 파티션으로 모으는 중인 배치 - 레코드와 각 레코드의 Future를 같은 순서로 들고 있다
+ */
+final class ProducerBatch {
+
+    final int partition;
+    final long createdNanos;
+    final List<SimpleRecord> records = new ArrayList<>();
+    final List<CompletableFuture<RecordMetadata>> futures = new ArrayList<>();
+    /** 배치 전체가 로그에 추가되거나 실패하면 완료 (flush 대기용) */
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+    private int estimatedBytes = RecordBatch.HEADER_SIZE;
+
+    ProducerBatch(int partition, long createdNanos) {
+        this.partition = partition;
+        this.createdNanos = createdNanos;
+    }
+
+    /**
+     * 레코드 추가 - 배치가 비어 있지 않은데 batchSize를 넘게 되면 null (새 배치 필요)
+     */
+    CompletableFuture<RecordMetadata> tryAppend(SimpleRecord record, int batchSize) {
+        int size = RecordBatch.estimateSize(record.key(), record.value());
+        if (!records.isEmpty() && estimatedBytes + size > batchSize) {
+            return null;
+        }
+        CompletableFuture<RecordMetadata> future = new CompletableFuture<>();
+        records.add(record);
+        futures.add(future);
+        estimatedBytes += size;
+        return future;
+    }
+
+    boolean isFull(int batchSize) {
+        return estimatedBytes >= batchSize;
+    }
+
+    int estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    void complete(long baseOffset) {
+        for (int i = 0; i < futures.size(); i++) {
+            futures.get(i).complete(new RecordMetadata(partition, baseOffset + i, records.get(i).timestamp()));
+        }
+        done.complete(null);
+    }
+
+    void fail(Throwable cause) {
+        for (CompletableFuture<RecordMetadata> future : futures) {
+            future.completeExceptionally(cause);
+        }
+        done.complete(null);
+    }
+}
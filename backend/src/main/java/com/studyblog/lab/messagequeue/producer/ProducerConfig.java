@@ -0,0 +1,54 @@
+package com.studyblog.lab.messagequeue.producer;
+
+import com.studyblog.lab.messagequeue.log.CompressionType;
+
+/**
+ * 배치 Producer 설정
+ *
+ * @param batchSize      파티션별 배치 최대 크기 (bytes) - 차면 linger를 기다리지 않고 바로 전송
+ * @param lingerMs       배치가 덜 찼어도 이 시간이 지나면 전송
+ * @param compression    배치 압축 코덱
+ * @param idempotent     배치에 (producerId, epoch, sequence)를 실어 재전송 중복을 로그가 걸러내게 한다
+ * @param retries        추가 실패(응답 유실 포함) 시 같은 배치를 다시 보내는 최대 횟수
+ * @param ackLossPercent 실험용 - 추가는 성공했지만 응답이 유실된 것으로 처리할 확률 (%)
+ * @param bufferMemory   아직 전송하지 않은 레코드가 차지할 수 있는 최대 바이트 (Producer 힙 상한)
+ * @param maxBlockMs     bufferMemory가 찼을 때 send()가 자리를 기다리는 최대 시간
+ */
+public record ProducerConfig(int batchSize, long lingerMs, CompressionType compression,
+                             boolean idempotent, int retries, int ackLossPercent,
+                             long bufferMemory, long maxBlockMs) {
+
+    public static final long DEFAULT_BUFFER_MEMORY = 32L * 1024 * 1024;
+    public static final long DEFAULT_MAX_BLOCK_MS = 60_000;
+
+    public ProducerConfig {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        if (lingerMs < 0) {
+            throw new IllegalArgumentException("lingerMs must not be negative: " + lingerMs);
+        }
+        if (retries < 0) {
+            throw new IllegalArgumentException("retries must not be negative: " + retries);
+        }
+        if (ackLossPercent < 0 || ackLossPercent > 100) {
+            throw new IllegalArgumentException("ackLossPercent must be between 0 and 100: " + ackLossPercent);
+        }
+        if (bufferMemory < batchSize) {
+            throw new IllegalArgumentException("bufferMemory must be at least batchSize: " + bufferMemory);
+        }
+        if (maxBlockMs < 0) {
+            throw new IllegalArgumentException("maxBlockMs must not be negative: " + maxBlockMs);
+        }
+    }
+
+    public ProducerConfig(int batchSize, long lingerMs, CompressionType compression) {
+        this(batchSize, lingerMs, compression, false, 0, 0, DEFAULT_BUFFER_MEMORY, DEFAULT_MAX_BLOCK_MS);
+    }
+
+    public ProducerConfig(int batchSize, long lingerMs, CompressionType compression,
+                          boolean idempotent, int retries, int ackLossPercent) {
+        this(batchSize, lingerMs, compression, idempotent, retries, ackLossPercent,
+                DEFAULT_BUFFER_MEMORY, DEFAULT_MAX_BLOCK_MS);
+    }
+}
@@ -0,0 +1,169 @@
+package com.studyblog.lab.messagequeue.producer;
+
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 파티션별로 레코드를 배치에 모아 두는 버퍼
+ *
+ * send 스레드들은 파티션 deque의 마지막 배치에 붙이기만 하고, Sender 스레드 하나가 drain으로
+ * 전송할 배치를 꺼낸다. 파티션마다 deque 하나를 잠그므로 서로 다른 파티션으로 보내는 스레드끼리는 경합하지 않는다.
+ * 배치는 (앞에 다른 배치가 쌓였거나 / batchSize가 찼거나 / linger가 지났거나 / flush 중이면) 전송 대상이다.
+ * 쌓인 레코드 바이트는 bufferMemory를 넘지 못한다 - 브로커가 느려 Sender가 밀리면 send 스레드가 maxBlockMs까지 기다린다.
+ */
+final class RecordAccumulator {
+
+    /**
+     * append 결과 - wakeSender면 Sender를 깨워야 한다 (새 배치가 생겼거나 배치가 참)
+     */
+    record AppendResult(CompletableFuture<RecordMetadata> future, boolean wakeSender) { }
+
+    private final int batchSize;
+    private final long lingerNanos;
+    private final Map<Integer, ArrayDeque<ProducerBatch>> batches = new ConcurrentHashMap<>();
+    // 아직 로그에 추가되지 않은 배치 (deque에 있거나 전송 중)
+    private final Set<ProducerBatch> incomplete = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger flushesInProgress = new AtomicInteger();
+
+    // 버퍼 메모리 - memoryLock 안에서만 갱신
+    private final long bufferMemory;
+    private final long maxBlockNanos;
+    private final Object memoryLock = new Object();
+    private long usedMemory;
+    private final LongAdder blockedNanos = new LongAdder();
+
+    RecordAccumulator(ProducerConfig config) {
+        this.batchSize = config.batchSize();
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.lingerMs());
+        this.bufferMemory = config.bufferMemory();
+        this.maxBlockNanos = TimeUnit.MILLISECONDS.toNanos(config.maxBlockMs());
+    }
+
+    AppendResult append(int partition, SimpleRecord record, long nowNanos) {
+        allocate(RecordBatch.estimateSize(record.key(), record.value()));
+        ArrayDeque<ProducerBatch> deque = batches.computeIfAbsent(partition, p -> new ArrayDeque<>());
+        synchronized (deque) {
+            ProducerBatch last = deque.peekLast();
+            if (last != null) {
+                CompletableFuture<RecordMetadata> future = last.tryAppend(record, batchSize);
+                if (future != null) {
+                    return new AppendResult(future, last.isFull(batchSize));
+                }
+            }
+            ProducerBatch batch = new ProducerBatch(partition, nowNanos);
+            CompletableFuture<RecordMetadata> future = batch.tryAppend(record, batchSize);
+            incomplete.add(batch);
+            deque.addLast(batch);
+            return new AppendResult(future, true);
+        }
+    }
+
+    /**
+     * 전송할 배치를 ready에 꺼내 담는다
+     * @param force true면 linger와 상관없이 전부 (종료 시)
+     * @return 남은 배치 중 가장 먼저 linger가 끝나기까지의 nanos (남은 배치가 없으면 Long.MAX_VALUE)
+     */
+    long drain(long nowNanos, boolean force, List<ProducerBatch> ready) {
+        boolean sendAll = force || flushesInProgress.get() > 0;
+        long nextDelay = Long.MAX_VALUE;
+        for (ArrayDeque<ProducerBatch> deque : batches.values()) {
+            synchronized (deque) {
+                ProducerBatch first;
+                while ((first = deque.peekFirst()) != null) {
+                    long waited = nowNanos - first.createdNanos;
+                    boolean sendable = sendAll || deque.size() > 1 || first.isFull(batchSize) || waited >= lingerNanos;
+                    if (!sendable) {
+                        nextDelay = Math.min(nextDelay, lingerNanos - waited);
+                        break;
+                    }
+                    ready.add(deque.pollFirst());
+                }
+            }
+        }
+        return nextDelay;
+    }
+
+    /**
+     * 버퍼 자리 확보 - 모자라면 Sender가 배치를 내보내 자리가 날 때까지 최대 maxBlockMs 대기
+     * @throws IllegalStateException 시간 안에 자리가 나지 않으면
+     */
+    private void allocate(int size) {
+        if (size > bufferMemory) {
+            throw new IllegalArgumentException("Record of " + size + " bytes exceeds bufferMemory " + bufferMemory);
+        }
+        synchronized (memoryLock) {
+            if (usedMemory + size <= bufferMemory) {
+                usedMemory += size;
+                return;
+            }
+            long start = System.nanoTime();
+            long remaining = maxBlockNanos;
+            try {
+                while (usedMemory + size > bufferMemory) {
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Failed to allocate " + size + " bytes within "
+                                + TimeUnit.NANOSECONDS.toMillis(maxBlockNanos) + " ms (bufferMemory " + bufferMemory + ")");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(memoryLock, remaining);
+                    remaining = maxBlockNanos - (System.nanoTime() - start);
+                }
+                usedMemory += size;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for buffer memory", e);
+            } finally {
+                blockedNanos.add(System.nanoTime() - start);
+            }
+        }
+    }
+
+    void deallocate(ProducerBatch batch) {
+        incomplete.remove(batch);
+        synchronized (memoryLock) {
+            usedMemory -= batch.estimatedBytes() - RecordBatch.HEADER_SIZE;
+            memoryLock.notifyAll();
+        }
+    }
+
+    long bufferedBytes() {
+        synchronized (memoryLock) {
+            return usedMemory;
+        }
+    }
+
+    long blockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    boolean hasIncomplete() {
+        return !incomplete.isEmpty();
+    }
+
+    void beginFlush() {
+        flushesInProgress.incrementAndGet();
+    }
+
+    /**
+     * flush 시작 시점까지 쌓인 배치가 모두 끝날 때까지 대기
+     */
+    void awaitFlushCompletion() {
+        try {
+            for (ProducerBatch batch : new ArrayList<>(incomplete)) {
+                batch.done.join();
+            }
+        } finally {
+            flushesInProgress.decrementAndGet();
+        }
+    }
+}
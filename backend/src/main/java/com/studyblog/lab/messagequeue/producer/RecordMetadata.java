@@ -0,0 +1,6 @@
+package com.studyblog.lab.messagequeue.producer;
+
+/**
+ * 전송 완료된 레코드의 위치
+ */
+public record RecordMetadata(int partition, long offset, long timestamp) { }
@@ -0,0 +1,47 @@
+package com.studyblog.lab.messagequeue.ring;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * blocking - 락 + Condition으로 잠들어 CPU를 쓰지 않는다
+ * 대신 publish마다 락을 잡고 signal해야 해서 생산자 비용과 깨어나는 지연이 가장 크다.
+ */
+public final class BlockingWaitStrategy implements WaitStrategy {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+
+    @Override
+    public String name() {
+        return "blocking";
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, long timeoutNanos) throws InterruptedException {
+        long available = cursor.get();
+        if (available >= sequence) {
+            return available;
+        }
+        long remaining = timeoutNanos;
+        lock.lock();
+        try {
+            while ((available = cursor.get()) < sequence && remaining > 0) {
+                remaining = published.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
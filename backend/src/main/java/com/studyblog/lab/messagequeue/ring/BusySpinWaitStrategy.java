@@ -0,0 +1,27 @@
+package com.studyblog.lab.messagequeue.ring;
+
+/**
+ * busy-spin - 코어 하나를 계속 점유하는 대신 지연이 가장 짧다 (소비자 수 < 코어 수일 때만)
+ */
+public final class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public String name() {
+        return "busy-spin";
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long available;
+        while ((available = cursor.get()) < sequence) {
+            if (System.nanoTime() - deadline >= 0) break;
+            Thread.onSpinWait();
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+}
@@ -0,0 +1,10 @@
+package com.studyblog.lab.messagequeue.ring;
+
+/**
+ * 링 버퍼 생산자 수
+ * SINGLE은 CAS 없이 시퀀스를 증가시키므로 반드시 한 스레드만 publish해야 한다.
+ */
+public enum ProducerType {
+    SINGLE,
+    MULTI
+}
@@ -0,0 +1,201 @@
+package com.studyblog.lab.messagequeue.ring;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 큐 종류별 생산자 → 소비자 전달 비교 (LinkedBlockingQueue / ArrayBlockingQueue / 링 버퍼 + 대기 전략)
+ *
+ * 생산자 스레드들이 보낸 시각(nanoTime)을 넣고, 소비자 스레드 하나가 꺼내면서 전달 지연을 HdrHistogram(ns)에 기록한다.
+ * 스레드별 할당 바이트(ThreadMXBean)를 합쳐 메시지당 할당량을 구한다 - BlockingQueue는 메시지마다 Long 박싱
+ * (+ LinkedBlockingQueue는 노드)이 생기고, 링 버퍼는 미리 만든 슬롯에 long만 쓴다.
+ */
+public final class QueueHandoffBenchmark {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long WAIT_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // 생산자마다 스레드를 만들고 다섯 종류를 차례로 돌리므로
+    static final int MAX_PRODUCERS = 64;
+
+    /**
+     * 링 버퍼 슬롯 - 보낸 시각 하나
+     */
+    static final class TimestampSlot {
+        long sentNanos;
+    }
+
+    private QueueHandoffBenchmark() {
+    }
+
+    /**
+     * 큐 종류마다 한 번씩 실행한 결과 (종류 이름 → 처리량/할당량/지연 분포)
+     * 생산자마다 messageCount / producers개씩 보내므로 나머지는 보내지 않는다 (결과의 messages가 실제 수).
+     */
+    public static Map<String, Object> compare(int messageCount, int producers, int bufferSize) throws InterruptedException {
+        if (producers <= 0 || producers > MAX_PRODUCERS) {
+            throw new IllegalArgumentException("producers must be between 1 and " + MAX_PRODUCERS);
+        }
+        if (messageCount < producers) {
+            throw new IllegalArgumentException("messageCount must be at least producers (" + producers + ")");
+        }
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("LinkedBlockingQueue", runBlockingQueue(new LinkedBlockingQueue<>(bufferSize), messageCount, producers));
+        results.put("ArrayBlockingQueue", runBlockingQueue(new ArrayBlockingQueue<>(bufferSize), messageCount, producers));
+        ProducerType producerType = producers == 1 ? ProducerType.SINGLE : ProducerType.MULTI;
+        for (String strategy : List.of("busy-spin", "yield", "blocking")) {
+            results.put("ring-" + strategy, runRingBuffer(messageCount, producers, bufferSize, producerType,
+                    WaitStrategy.forName(strategy)));
+        }
+        return results;
+    }
+
+    private static Map<String, Object> runBlockingQueue(BlockingQueue<Long> queue, int messageCount, int producers)
+            throws InterruptedException {
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        AtomicLong allocatedBytes = new AtomicLong();
+        int perProducer = messageCount / producers;
+        int total = perProducer * producers;
+
+        Thread consumer = new Thread(() -> measureAllocation(allocatedBytes, () -> {
+            for (int i = 0; i < total; i++) {
+                long sentNanos = queue.take();
+                histogram.recordValue(Math.min(System.nanoTime() - sentNanos, HIGHEST_TRACKABLE_NANOS));
+            }
+        }), "handoff-consumer");
+
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            producerThreads.add(new Thread(() -> measureAllocation(allocatedBytes, () -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.put(System.nanoTime());
+                }
+            }), "handoff-producer-" + p));
+        }
+        return run(consumer, producerThreads, total, histogram, allocatedBytes);
+    }
+
+    private static Map<String, Object> runRingBuffer(int messageCount, int producers, int bufferSize,
+                                                     ProducerType producerType, WaitStrategy waitStrategy)
+            throws InterruptedException {
+        RingBuffer<TimestampSlot> ring = RingBuffer.create(producerType, TimestampSlot::new, bufferSize, waitStrategy);
+        Sequence consumed = new Sequence(-1);
+        ring.addGatingSequence(consumed);
+
+        Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        AtomicLong allocatedBytes = new AtomicLong();
+        int perProducer = messageCount / producers;
+        int total = perProducer * producers;
+
+        Thread consumer = new Thread(() -> measureAllocation(allocatedBytes, () -> {
+            long next = 0;
+            while (next < total) {
+                long available = ring.waitFor(next, WAIT_TIMEOUT_NANOS);
+                for (; next <= available; next++) {
+                    long sentNanos = ring.get(next).sentNanos;
+                    histogram.recordValue(Math.min(System.nanoTime() - sentNanos, HIGHEST_TRACKABLE_NANOS));
+                }
+                consumed.set(next - 1);
+            }
+        }), "handoff-consumer");
+
+        List<Thread> producerThreads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            producerThreads.add(new Thread(() -> measureAllocation(allocatedBytes, () -> {
+                for (int i = 0; i < perProducer; i++) {
+                    long sequence = ring.next();
+                    ring.get(sequence).sentNanos = System.nanoTime();
+                    ring.publish(sequence);
+                }
+            }), "handoff-producer-" + p));
+        }
+        Map<String, Object> result = run(consumer, producerThreads, total, histogram, allocatedBytes);
+        result.put("producerType", producerType.name());
+        return result;
+    }
+
+    private static Map<String, Object> run(Thread consumer, List<Thread> producers, int total,
+                                           Histogram histogram, AtomicLong allocatedBytes) throws InterruptedException {
+        long start = System.nanoTime();
+        consumer.start();
+        producers.forEach(Thread::start);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        consumer.join();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("messages", total);
+        result.put("durationMs", seconds * 1000);
+        result.put("messagesPerSec", total / seconds);
+        long allocated = allocatedBytes.get();
+        result.put("allocatedBytesPerMessage", allocated >= 0 ? (double) allocated / total : -1);
+        result.put("allocationMBPerSec", allocated >= 0 ? allocated / seconds / (1024 * 1024) : -1);
+        result.put("latency", latency(histogram));
+        return result;
+    }
+
+    /**
+     * 지연 백분위(µs)와 로그 스케일 구간별 건수 (100ns부터 2배씩)
+     */
+    private static Map<String, Object> latency(Histogram histogram) {
+        Map<String, Object> latency = new HashMap<>();
+        latency.put("p50Us", histogram.getValueAtPercentile(50) / 1000.0);
+        latency.put("p99Us", histogram.getValueAtPercentile(99) / 1000.0);
+        latency.put("p999Us", histogram.getValueAtPercentile(99.9) / 1000.0);
+        latency.put("maxUs", histogram.getMaxValue() / 1000.0);
+
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        for (HistogramIterationValue value : histogram.logarithmicBucketValues(100, 2.0)) {
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("upToNs", value.getValueIteratedTo());
+            bucket.put("count", value.getCountAddedInThisIterationStep());
+            buckets.add(bucket);
+        }
+        latency.put("buckets", buckets);
+        return latency;
+    }
+
+    interface Work {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * 현재 스레드가 work 동안 할당한 바이트를 합산 (측정 불가한 JVM이면 -1)
+     */
+    private static void measureAllocation(AtomicLong total, Work work) {
+        long before = threadAllocatedBytes();
+        try {
+            work.run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long after = threadAllocatedBytes();
+        if (before < 0 || after < 0) {
+            total.set(Long.MIN_VALUE);
+        } else {
+            total.addAndGet(after - before);
+        }
+    }
+
+    private static long threadAllocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,208 @@
+package com.studyblog.lab.messagequeue.ring;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Disruptor 스타일 링 버퍼
+ *
+ * 슬롯 객체를 생성 시점에 전부 만들어 두고 (2의 거듭제곱 크기, index = sequence & mask) 재사용하므로
+ * offer마다 노드를 할당하지 않는다. 생산자는 next()로 시퀀스를 예약하고 슬롯을 채운 뒤 publish()한다.
+ *
+ * SINGLE: cursor = 마지막 publish된 시퀀스. 예약은 단순 증가, publish는 cursor release 저장 한 번.
+ * MULTI:  cursor = 마지막 예약된 시퀀스 (getAndAdd). publish 여부는 슬롯별 lap 번호(available)로 표시하고,
+ *         소비자는 highestPublished()로 빈틈 없이 publish된 구간까지만 읽는다.
+ *
+ * gating 시퀀스(소비자 위치)를 등록하면 생산자는 가장 느린 소비자를 한 바퀴 앞지르지 못하고 기다린다.
+ * 등록하지 않으면 오래된 슬롯을 덮어쓴다 (보관 크기 = 버퍼 크기).
+ */
+public final class RingBuffer<E> {
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Object[] entries;
+    private final int bufferSize;
+    private final int mask;
+    private final int indexShift;
+    private final ProducerType producerType;
+    private final WaitStrategy waitStrategy;
+
+    private final Sequence cursor = new Sequence(-1);
+    private final int[] available;
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    // SINGLE 생산자 전용 (생산자 스레드만 접근)
+    private long nextValue = -1;
+    private long cachedGating = -1;
+    // MULTI 생산자 공용 gating 캐시
+    private final Sequence gatingCache = new Sequence(-1);
+
+    private RingBuffer(ProducerType producerType, Supplier<E> factory, int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        this.producerType = producerType;
+        this.bufferSize = bufferSize;
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.waitStrategy = waitStrategy;
+        this.entries = new Object[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = factory.get();
+        }
+        this.available = producerType == ProducerType.MULTI ? new int[bufferSize] : null;
+        if (available != null) {
+            Arrays.fill(available, -1);
+        }
+    }
+
+    public static <E> RingBuffer<E> create(ProducerType producerType, Supplier<E> factory,
+                                           int bufferSize, WaitStrategy waitStrategy) {
+        return new RingBuffer<>(producerType, factory, bufferSize, waitStrategy);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) entries[(int) sequence & mask];
+    }
+
+    public long next() {
+        return next(1);
+    }
+
+    /**
+     * n개 시퀀스 예약 - 마지막 시퀀스를 반환 (첫 시퀀스 = 반환값 - n + 1)
+     */
+    public long next(int n) {
+        if (n < 1 || n > bufferSize) {
+            throw new IllegalArgumentException("n must be in [1, " + bufferSize + "]: " + n);
+        }
+        return producerType == ProducerType.SINGLE ? nextSingle(n) : nextMulti(n);
+    }
+
+    private long nextSingle(int n) {
+        long next = nextValue + n;
+        long wrapPoint = next - bufferSize;
+        if (wrapPoint > cachedGating || cachedGating > nextValue) {
+            long minSequence;
+            while (wrapPoint > (minSequence = minimumGatingSequence(nextValue))) {
+                LockSupport.parkNanos(1);
+            }
+            cachedGating = minSequence;
+        }
+        nextValue = next;
+        return next;
+    }
+
+    private long nextMulti(int n) {
+        long current = cursor.getAndAdd(n);
+        long next = current + n;
+        long wrapPoint = next - bufferSize;
+        long cached = gatingCache.get();
+        if (wrapPoint > cached || cached > current) {
+            long minSequence;
+            while (wrapPoint > (minSequence = minimumGatingSequence(current))) {
+                LockSupport.parkNanos(1);
+            }
+            gatingCache.set(minSequence);
+        }
+        return next;
+    }
+
+    public void publish(long sequence) {
+        publish(sequence, sequence);
+    }
+
+    /**
+     * [low, high] 구간 publish - 슬롯 내용을 다 쓴 뒤에 호출
+     */
+    public void publish(long low, long high) {
+        if (producerType == ProducerType.SINGLE) {
+            cursor.set(high);
+        } else {
+            for (long sequence = low; sequence <= high; sequence++) {
+                AVAILABLE.setRelease(available, (int) sequence & mask, (int) (sequence >>> indexShift));
+            }
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * sequence가 publish되었고 아직 덮어써지지 않았는지
+     */
+    public boolean isAvailable(long sequence) {
+        if (producerType == ProducerType.SINGLE) {
+            long current = cursor.get();
+            return sequence <= current && sequence > current - bufferSize;
+        }
+        return (int) AVAILABLE.getAcquire(available, (int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * lowerBound부터 availableSequence까지 빈틈 없이 publish된 마지막 시퀀스
+     */
+    public long highestPublished(long lowerBound, long availableSequence) {
+        if (producerType == ProducerType.SINGLE) {
+            return availableSequence;
+        }
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    /**
+     * 소비자 대기 - sequence가 publish될 때까지 (최대 timeout) 기다린 뒤 읽어도 되는 마지막 시퀀스
+     * (timeout이면 sequence보다 작은 값)
+     */
+    public long waitFor(long sequence, long timeoutNanos) throws InterruptedException {
+        long availableSequence = waitStrategy.waitFor(sequence, cursor, timeoutNanos);
+        if (availableSequence < sequence) {
+            return availableSequence;
+        }
+        return highestPublished(sequence, availableSequence);
+    }
+
+    public synchronized void addGatingSequence(Sequence sequence) {
+        Sequence[] current = gatingSequences;
+        Sequence[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = sequence;
+        gatingSequences = updated;
+    }
+
+    public synchronized void removeGatingSequence(Sequence sequence) {
+        gatingSequences = Arrays.stream(gatingSequences).filter(s -> s != sequence).toArray(Sequence[]::new);
+    }
+
+    private long minimumGatingSequence(long defaultValue) {
+        long minimum = Long.MAX_VALUE;
+        for (Sequence sequence : gatingSequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum == Long.MAX_VALUE ? defaultValue : minimum;
+    }
+
+    /**
+     * SINGLE이면 마지막 publish된 시퀀스, MULTI면 마지막 예약된 시퀀스
+     */
+    public long cursor() {
+        return cursor.get();
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public ProducerType producerType() {
+        return producerType;
+    }
+
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+}
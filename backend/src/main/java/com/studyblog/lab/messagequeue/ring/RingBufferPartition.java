@@ -0,0 +1,220 @@
+package com.studyblog.lab.messagequeue.ring;
+
+import com.studyblog.lab.messagequeue.log.LogRecord;
+import com.studyblog.lab.messagequeue.log.ProducerStateTable;
+import com.studyblog.lab.messagequeue.log.RecordBatch;
+import com.studyblog.lab.messagequeue.log.SimpleRecord;
+import com.studyblog.lab.messagequeue.log.TopicPartition;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 링 버퍼 파티션 - 메모리에 최근 capacity개만 보관 (디스크 없음, 재시작하면 사라진다)
+ *
+ * 오프셋 = 링 버퍼 시퀀스. 소비자 그룹은 서로 독립적인 오프셋으로 읽으므로 gating 없이 오래된 슬롯을 덮어쓰고,
+ * 그만큼 logStartOffset이 앞으로 간다 (용량 기반 retention).
+ * 덮어쓰는 중인 슬롯을 읽지 않도록 슬롯마다 seqlock을 둔다 - 쓰기 전에 sequence를 -1로, 다 쓰면 시퀀스로 바꾸고,
+ * 읽는 쪽은 읽기 전후의 sequence가 같고 원하는 오프셋일 때만 인정한다.
+ */
+public final class RingBufferPartition implements TopicPartition {
+
+    private static final long WRITING = -1;
+
+    /**
+     * 미리 만들어 두고 재사용하는 슬롯
+     */
+    static final class RecordSlot {
+        volatile long sequence = WRITING;
+        long timestamp;
+        String key;
+        String value;
+        int sizeInBytes;
+    }
+
+    private final RingBuffer<RecordSlot> ring;
+    private final LongAdder retainedBytes = new LongAdder();
+    private final ProducerStateTable producerStates = new ProducerStateTable();
+    // logEndOffset 계산 시 publish 확인을 시작할 위치 (정확할 필요는 없다)
+    private volatile long publishedHint = -1;
+
+    public RingBufferPartition(int capacity, ProducerType producerType, WaitStrategy waitStrategy) {
+        this.ring = RingBuffer.create(producerType, RecordSlot::new, capacity, waitStrategy);
+    }
+
+    @Override
+    public String type() {
+        return "ring";
+    }
+
+    @Override
+    public long append(List<SimpleRecord> records) {
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("records must not be empty");
+        }
+        if (records.size() > ring.bufferSize()) {
+            throw new IllegalArgumentException("Batch of " + records.size()
+                    + " records exceeds ring capacity " + ring.bufferSize());
+        }
+        long high = ring.next(records.size());
+        long low = high - records.size() + 1;
+        for (int i = 0; i < records.size(); i++) {
+            write(low + i, records.get(i));
+        }
+        ring.publish(low, high);
+        return low;
+    }
+
+    /**
+     * 인코딩된 배치를 풀어 레코드 단위로 추가 (압축 배치도 가능)
+     */
+    @Override
+    public long appendBatch(ByteBuffer batch) {
+        RecordBatch recordBatch = RecordBatch.wrap(batch);
+        List<SimpleRecord> records = new ArrayList<>();
+        for (LogRecord record : recordBatch.records()) {
+            records.add(new SimpleRecord(record.timestamp(), record.key(), record.value()));
+        }
+        if (!recordBatch.hasProducerId()) {
+            return append(records);
+        }
+        // idempotent 배치만 시퀀스 검사와 추가를 한 덩어리로 묶는다 (일반 배치는 계속 lock-free)
+        synchronized (producerStates) {
+            long duplicateOf = producerStates.checkSequence(recordBatch.producerId(), recordBatch.producerEpoch(),
+                    recordBatch.baseSequence(), recordBatch.lastSequence());
+            if (duplicateOf >= 0) {
+                return duplicateOf;
+            }
+            long baseOffset = append(records);
+            producerStates.onAppend(recordBatch.producerId(), recordBatch.producerEpoch(),
+                    recordBatch.baseSequence(), recordBatch.lastSequence(), baseOffset);
+            return baseOffset;
+        }
+    }
+
+    private void write(long sequence, SimpleRecord record) {
+        RecordSlot slot = ring.get(sequence);
+        int size = RecordBatch.estimateSize(record.key(), record.value());
+        int previousSize = slot.sizeInBytes;
+
+        slot.sequence = WRITING;
+        VarHandle.storeStoreFence(); // WRITING 표시가 내용 변경보다 먼저 보이도록
+        slot.timestamp = record.timestamp();
+        slot.key = record.key();
+        slot.value = record.value();
+        slot.sizeInBytes = size;
+        slot.sequence = sequence;
+
+        retainedBytes.add(size - previousSize);
+    }
+
+    @Override
+    public List<LogRecord> read(long offset, int maxRecords) {
+        List<LogRecord> records = new ArrayList<>();
+        long sequence = Math.max(offset, logStartOffset());
+        while (records.size() < maxRecords) {
+            RecordSlot slot = ring.get(sequence);
+            long before = slot.sequence;
+            long timestamp = slot.timestamp;
+            String key = slot.key;
+            String value = slot.value;
+            VarHandle.loadLoadFence(); // 내용을 다 읽은 뒤에 sequence를 다시 확인
+            long after = slot.sequence;
+
+            if (before == sequence && after == sequence) {
+                records.add(new LogRecord(sequence, timestamp, key, value));
+                sequence++;
+            } else if (sequence < logStartOffset()) {
+                // 읽는 사이에 덮어써졌다 - 남아 있는 가장 앞부터 다시
+                sequence = logStartOffset();
+            } else {
+                break; // 아직 publish되지 않음
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public boolean awaitAppend(long offset, long timeoutNanos) throws InterruptedException {
+        return ring.waitFor(offset, timeoutNanos) >= offset;
+    }
+
+    /**
+     * 아직 덮어써지지 않은 가장 앞 오프셋 (예약된 시퀀스 기준으로 한 바퀴 뒤)
+     */
+    @Override
+    public long logStartOffset() {
+        return Math.max(0, ring.cursor() - ring.bufferSize() + 1);
+    }
+
+    /**
+     * 빈틈 없이 publish된 마지막 오프셋 + 1
+     */
+    @Override
+    public long logEndOffset() {
+        long cursor = ring.cursor();
+        long from = Math.max(publishedHint + 1, cursor - ring.bufferSize() + 1);
+        long published = ring.highestPublished(Math.max(from, 0), cursor);
+        if (published > publishedHint) {
+            publishedHint = published;
+        }
+        return published + 1;
+    }
+
+    /**
+     * 보관 중인 레코드 크기 합 (추정치)
+     */
+    @Override
+    public long sizeInBytes() {
+        return retainedBytes.sum();
+    }
+
+    /**
+     * 슬롯 평균 크기로 근사 (슬롯을 하나씩 훑지 않는다)
+     */
+    @Override
+    public long bytesFrom(long offset) {
+        long end = logEndOffset();
+        long start = logStartOffset();
+        long from = Math.max(offset, start);
+        if (from >= end) {
+            return 0;
+        }
+        return retainedBytes.sum() * (end - from) / (end - start);
+    }
+
+    /**
+     * 용량을 넘으면 덮어쓰는 방식이라 따로 지울 것이 없다
+     */
+    @Override
+    public int applyRetention(long now) {
+        return 0;
+    }
+
+    public int capacity() {
+        return ring.bufferSize();
+    }
+
+    public ProducerType producerType() {
+        return ring.producerType();
+    }
+
+    public String waitStrategy() {
+        return ring.waitStrategy().name();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void delete() {
+    }
+}
@@ -0,0 +1,63 @@
+package com.studyblog.lab.messagequeue.ring;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+class LhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends LhsPadding {
+    protected volatile long value;
+}
+
+class RhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
+
+/**
+ * 캐시 라인 패딩이 붙은 시퀀스 카운터
+ *
+ * 앞뒤로 long 7개씩 채워 value가 다른 변수와 같은 캐시 라인에 올라가지 않게 한다 (false sharing 방지).
+ * 필드 순서를 JVM이 재배치하지 못하도록 상속으로 레이아웃을 고정한다.
+ */
+public class Sequence extends RhsPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    public long get() {
+        return value;
+    }
+
+    /**
+     * release 저장 - 앞선 쓰기(슬롯 내용)가 이 값보다 먼저 보이도록 보장
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    public long getAndAdd(long increment) {
+        return (long) VALUE.getAndAdd(this, increment);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
@@ -0,0 +1,29 @@
+package com.studyblog.lab.messagequeue.ring;
+
+/**
+ * 소비자가 다음 시퀀스가 publish되기를 기다리는 방식
+ */
+public interface WaitStrategy {
+
+    String name();
+
+    /**
+     * cursor가 sequence 이상이 되거나 timeout이 지날 때까지 대기
+     * @return 대기가 끝난 시점의 cursor 값 (timeout이면 sequence보다 작을 수 있다)
+     */
+    long waitFor(long sequence, Sequence cursor, long timeoutNanos) throws InterruptedException;
+
+    /**
+     * publish 후 호출 - 잠들어 있는 소비자를 깨운다 (blocking 전략만 실제 동작)
+     */
+    void signalAllWhenBlocking();
+
+    static WaitStrategy forName(String name) {
+        return switch (name) {
+            case "busy-spin" -> new BusySpinWaitStrategy();
+            case "yield" -> new YieldingWaitStrategy();
+            case "blocking" -> new BlockingWaitStrategy();
+            default -> throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        };
+    }
+}
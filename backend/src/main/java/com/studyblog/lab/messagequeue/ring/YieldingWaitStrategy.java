@@ -0,0 +1,35 @@
+package com.studyblog.lab.messagequeue.ring;
+
+/**
+ * yield - 잠깐 spin한 뒤 Thread.yield()로 다른 스레드에 CPU를 양보
+ */
+public final class YieldingWaitStrategy implements WaitStrategy {
+
+    private static final int SPIN_TRIES = 100;
+
+    @Override
+    public String name() {
+        return "yield";
+    }
+
+    @Override
+    public long waitFor(long sequence, Sequence cursor, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        int counter = SPIN_TRIES;
+        long available;
+        while ((available = cursor.get()) < sequence) {
+            if (counter > 0) {
+                counter--;
+                Thread.onSpinWait();
+            } else {
+                if (System.nanoTime() - deadline >= 0) break;
+                Thread.yield();
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public void signalAllWhenBlocking() {
+    }
+}